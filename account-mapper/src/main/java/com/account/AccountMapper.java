@@ -1,7 +1,8 @@
 package com.account;
 
+import java.time.Clock;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.Executor;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -9,7 +10,8 @@ import org.springframework.boot.SpringApplication;
 import org.springframework.boot.WebApplicationType;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
-import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -17,10 +19,15 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.account.converter.UpstreamJsonMessageConverter;
+import com.account.freshdesk.FreshdeskContactInfo;
+import com.account.github.GithubAccountInfo;
+import com.account.interceptor.AdaptiveConcurrencyLimitInterceptor;
 import com.account.interceptor.ApiAuthInterceptor;
+import com.account.interceptor.DeadlineClientHttpRequestFactory;
+import com.fasterxml.jackson.databind.JsonNode;
 
 @EnableAsync
-@EnableMongoAuditing
 @EnableScheduling
 @SpringBootApplication
 public class AccountMapper implements WebMvcConfigurer {
@@ -53,22 +60,68 @@ public class AccountMapper implements WebMvcConfigurer {
       app.run(args);
    }
 
+   /**
+    * The clock the task timestamps and the retry timeouts are based on, so
+    * they can be driven by a virtual clock in simulations.
+    *
+    * @return The system clock in UTC.
+    */
+   @Bean
+   public Clock clock() {
+      return Clock.systemUTC();
+   }
+
    /**
     * A custom rest template bean with a custom interceptor for setting
     * API Authentication keys if needed.
+    * </p>
+    * The upstream API responses are decoded by an
+    * {@link UpstreamJsonMessageConverter}.
     *
-    * @param interceptor - The {@code ClientHttpRequestInterceptor}
-    *                    implementation used to handle the HTTP requests.
+    * @param concurrencyLimitInterceptor - The {@code ClientHttpRequestInterceptor}
+    *                                    limiting the concurrent calls to every
+    *                                    upstream API.
+    * @param interceptor                 - The {@code ClientHttpRequestInterceptor}
+    *                                    implementation used to handle the HTTP
+    *                                    requests.
+    * @param objectMapperBuilder         - The builder of the application
+    *                                    {@code ObjectMapper}.
+    * @param connectTimeoutMillis        - The max time to connect to an
+    *                                    upstream API.
+    * @param readTimeoutMillis           - The max time to wait for the data of
+    *                                    an upstream API.
     * @return An instance of the {@code RestTemplate} with the configured
-    * interceptor.
+    * interceptors, and the timeouts limited by the task deadlines.
     */
    @Bean
-   public RestTemplate restTemplate(final ApiAuthInterceptor interceptor) {
-      final RestTemplate restTemplate = new RestTemplate();
-      restTemplate.setInterceptors(Collections.singletonList(interceptor));
+   public RestTemplate restTemplate(
+         final AdaptiveConcurrencyLimitInterceptor concurrencyLimitInterceptor,
+         final ApiAuthInterceptor interceptor,
+         final Jackson2ObjectMapperBuilder objectMapperBuilder,
+         @Value("${upstream.http.connect.timeout.millis}") final int connectTimeoutMillis,
+         @Value("${upstream.http.read.timeout.millis}") final int readTimeoutMillis) {
+      final RestTemplate restTemplate = new RestTemplate(
+            new DeadlineClientHttpRequestFactory(connectTimeoutMillis,
+                  readTimeoutMillis));
+      restTemplate.setInterceptors(
+            List.of(concurrencyLimitInterceptor, interceptor));
+      restTemplate.getMessageConverters()
+            .add(0, upstreamJsonMessageConverter(objectMapperBuilder));
       return restTemplate;
    }
 
+   /**
+    * The converter decoding the upstream API responses with readers built
+    * once, at startup.
+    */
+   private static UpstreamJsonMessageConverter upstreamJsonMessageConverter(
+         final Jackson2ObjectMapperBuilder objectMapperBuilder) {
+      return new UpstreamJsonMessageConverter(objectMapperBuilder.build(),
+            List.of(GithubAccountInfo.class, FreshdeskContactInfo.class,
+                  new ParameterizedTypeReference<List<FreshdeskContactInfo>>() {
+                  }.getType(), JsonNode.class));
+   }
+
    /**
     * A configurable {@code Executor} instance used to asynchronously execute
     * tasks.
@@ -93,6 +146,31 @@ public class AccountMapper implements WebMvcConfigurer {
       return executor;
    }
 
+   /**
+    * A configurable {@code Executor} instance reserved for the execution of
+    * high priority tasks, so they are not queued behind bulk imports.
+    *
+    * @param corePoolSize  The core number of threads used for task executions.
+    * @param maxPoolSize   The max number of threads used for task execution.
+    * @param queueCapacity The number of threads allowed to wait in the queue
+    *                      for execution.
+    * @return The configured {@code Executor} instance used for async high
+    * priority task execution.
+    */
+   @Bean
+   public Executor highPriorityTaskExecutor(
+         @Value("${create.contact.task.executor.high.priority.core.pool.size}") final int corePoolSize,
+         @Value("${create.contact.task.executor.high.priority.max.pool.size}") final int maxPoolSize,
+         @Value("${create.contact.task.executor.high.priority.queue.capacity}") final int queueCapacity) {
+      final ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+      executor.setCorePoolSize(corePoolSize);
+      executor.setMaxPoolSize(maxPoolSize);
+      executor.setQueueCapacity(queueCapacity);
+      executor.setThreadNamePrefix("HighPriorityTaskExecutor-");
+      executor.initialize();
+      return executor;
+   }
+
    /**
     * A configurable {@code TaskScheduler} instance used to schedule tasks for
     * asynchronous execution.
@@ -1,11 +1,14 @@
 package com.account.cli;
 
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Scanner;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
@@ -21,14 +24,32 @@ public class CommandLine implements CommandLineRunner {
    private final Logger _logger = LoggerFactory.getLogger(getClass());
    private final Scanner _scanner;
    private final CreateContactTaskService _createContactTaskService;
+   private final TaskFileImporter _taskFileImporter;
+   private final String _importFile;
+   private final boolean _importWait;
 
-   public CommandLine(final CreateContactTaskService createContactTaskService) {
+   /**
+    * @param importFile The file to import the tasks from, without prompting
+    *                   for the options. Empty for the interactive mode.
+    * @param importWait Whether to exit only once the imported tasks are
+    *                   executed.
+    */
+   public CommandLine(final CreateContactTaskService createContactTaskService,
+         final TaskFileImporter taskFileImporter,
+         @Value("${import.file}") final String importFile,
+         @Value("${import.wait}") final boolean importWait) {
       _createContactTaskService = createContactTaskService;
+      _taskFileImporter = taskFileImporter;
+      _importFile = importFile;
+      _importWait = importWait;
       _scanner = new Scanner(System.in);
    }
 
    @Override
-   public void run(String... args) {
+   public void run(String... args) throws InterruptedException {
+      if (!_importFile.isBlank()) {
+         System.exit(importTasks() ? 0 : 1);
+      }
       do {
          //@formatter:off
          System.out.println("""
@@ -80,6 +101,30 @@ public class CommandLine implements CommandLineRunner {
       }
    }
 
+   /**
+    * @return Whether the whole file was imported, so the process exits with a
+    * non-zero status when the file can't be read, or has rejected rows.
+    */
+   private boolean importTasks() throws InterruptedException {
+      final TaskFileImporter.ImportReport report;
+      try {
+         report = _taskFileImporter.importFile(Path.of(_importFile));
+      } catch (final UncheckedIOException e) {
+         _logger.error("The import of {} failed.", _importFile, e);
+         return false;
+      }
+      System.out.printf(
+            "Imported %d rows in %d ms: %d created, %d duplicates, %d invalid%s.%n",
+            report.rows, report.elapsedMillis, report.created, report.duplicates,
+            report.invalid, report.truncated ? ", the rest not imported" : "");
+      if (_importWait) {
+         System.out.println("Waiting for the pending tasks to complete...");
+         _taskFileImporter.awaitCompletion();
+         System.out.println("All pending tasks are completed.");
+      }
+      return report.isSuccessful();
+   }
+
    public List<CreateContactTaskEntity> listContacts() {
       return _createContactTaskService.list();
    }
@@ -0,0 +1,219 @@
+package com.account.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.account.entity.CreateContactTaskEntity;
+import com.account.service.CreateContactTaskService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Imports the tasks of a CSV, or an NDJSON file in bulk.
+ * </p>
+ * The file is read line by line and the valid rows are stored in batches of
+ * {@code batchSize} tasks through
+ * {@link CreateContactTaskService#createAll(List)}, which skips the
+ * duplicates of pending tasks. Only a single batch is held in memory by the
+ * import itself.
+ * </p>
+ * The embedded task store of the CLI mode keeps every task in memory though,
+ * so an import stops after {@code maxRows} rows and reports the rest of the
+ * file as not imported.
+ * </p>
+ * A CSV row holds the {@code origin,account,domain[,priority]} columns, and
+ * may be preceded by a header row. An NDJSON row holds the fields of a task
+ * creation request: {@code {"origin", "account", "freshdeskDomain",
+ * "priority"}}. Empty rows and rows starting with {@code #} are skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "command.line.interface.enabled", havingValue = "true")
+public class TaskFileImporter {
+
+   private static final String CSV_HEADER_PREFIX = "origin,";
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final CreateContactTaskService _createContactTaskService;
+   private final ObjectMapper _objectMapper;
+   private final int _batchSize;
+   private final long _progressIntervalRows;
+   private final long _maxRows;
+   private final long _waitPollMillis;
+
+   /**
+    * @param batchSize            The number of tasks stored at once.
+    * @param progressIntervalRows The number of rows between two progress
+    *                             reports.
+    * @param maxRows              The number of rows imported at most.
+    * @param waitPollMillis       The interval between two checks for pending
+    *                             tasks, while waiting for their completion.
+    */
+   @Autowired
+   public TaskFileImporter(
+         final CreateContactTaskService createContactTaskService,
+         final ObjectMapper objectMapper,
+         @Value("${import.batch.size}") final int batchSize,
+         @Value("${import.progress.interval.rows}") final long progressIntervalRows,
+         @Value("${import.max.rows}") final long maxRows,
+         @Value("${import.wait.poll.millis}") final long waitPollMillis) {
+      _createContactTaskService = createContactTaskService;
+      _objectMapper = objectMapper;
+      _batchSize = batchSize;
+      _progressIntervalRows = progressIntervalRows;
+      _maxRows = maxRows;
+      _waitPollMillis = waitPollMillis;
+   }
+
+   /**
+    * Imports the tasks of a file.
+    *
+    * @param file - The CSV file, or the NDJSON file with a {@code .ndjson}, or
+    *             {@code .jsonl} extension.
+    * @return The import counters.
+    * @throws UncheckedIOException when the file can't be read.
+    */
+   public ImportReport importFile(final Path file) {
+      final boolean json = isJson(file);
+      final long start = System.nanoTime();
+      final ImportReport report = new ImportReport();
+      final List<CreateContactTaskEntity> batch = new ArrayList<>(_batchSize);
+      try (final BufferedReader reader = Files.newBufferedReader(file,
+            StandardCharsets.UTF_8)) {
+         String line;
+         long lineNumber = 0;
+         while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            final String row = line.strip();
+            if (row.isEmpty() || row.startsWith("#") || (lineNumber == 1
+                  && !json && row.toLowerCase().startsWith(CSV_HEADER_PREFIX))) {
+               continue;
+            }
+            if (report.rows >= _maxRows) {
+               report.truncated = true;
+               _logger.error(
+                     "Stopping the import at row {}: the import is limited to {} rows.",
+                     lineNumber, _maxRows);
+               break;
+            }
+            report.rows++;
+            try {
+               batch.add(json ? parseJson(row) : parseCsv(row));
+            } catch (final IllegalArgumentException e) {
+               report.invalid++;
+               _logger.warn("Skipping the invalid row {}: {}", lineNumber,
+                     e.getMessage());
+            }
+            if (batch.size() >= _batchSize) {
+               store(batch, report);
+            }
+            if (report.rows % _progressIntervalRows == 0) {
+               logProgress(report, start);
+            }
+         }
+         store(batch, report);
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Failed to read " + file, e);
+      }
+      report.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(
+            System.nanoTime() - start);
+      logProgress(report, start);
+      return report;
+   }
+
+   /**
+    * Blocks until no task is waiting for, or in, execution.
+    *
+    * @throws InterruptedException when interrupted while waiting.
+    */
+   public void awaitCompletion() throws InterruptedException {
+      while (_createContactTaskService.hasPendingTasks()) {
+         Thread.sleep(_waitPollMillis);
+      }
+   }
+
+   private void store(final List<CreateContactTaskEntity> batch,
+         final ImportReport report) {
+      if (batch.isEmpty()) {
+         return;
+      }
+      final int created = _createContactTaskService.createAll(batch).size();
+      report.created += created;
+      report.duplicates += batch.size() - created;
+      batch.clear();
+   }
+
+   private CreateContactTaskEntity parseCsv(final String row) {
+      final String[] columns = row.split(",", -1);
+      if (columns.length < 3 || columns.length > 4) {
+         throw new IllegalArgumentException(
+               "Expected the origin,account,domain[,priority] columns.");
+      }
+      return _createContactTaskService.newTask(columns[1].strip(),
+            columns[0].strip(), columns[2].strip(),
+            columns.length == 4 ? columns[3].strip() : null);
+   }
+
+   private CreateContactTaskEntity parseJson(final String row) {
+      final JsonNode node;
+      try {
+         node = _objectMapper.readTree(row);
+      } catch (final JsonProcessingException e) {
+         throw new IllegalArgumentException("Malformed JSON.");
+      }
+      if (!node.isObject()) {
+         throw new IllegalArgumentException("Expected a JSON object.");
+      }
+      return _createContactTaskService.newTask(node.path("account").asText(null),
+            node.path("origin").asText(null),
+            node.path("freshdeskDomain").asText(null),
+            node.path("priority").asText(null));
+   }
+
+   private void logProgress(final ImportReport report, final long start) {
+      final double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+      _logger.info(
+            "Imported {} rows ({} created, {} duplicates, {} invalid) at {} rows/s.",
+            report.rows, report.created, report.duplicates, report.invalid,
+            Math.round(report.rows / seconds));
+   }
+
+   private static boolean isJson(final Path file) {
+      final String name = file.getFileName().toString().toLowerCase();
+      return name.endsWith(".ndjson") || name.endsWith(".jsonl");
+   }
+
+   /**
+    * The counters of a file import.
+    */
+   public static class ImportReport {
+      public long rows;
+      public long created;
+      public long duplicates;
+      public long invalid;
+      public boolean truncated;
+      public long elapsedMillis;
+
+      /**
+       * @return Whether every row of the file was imported, or skipped as a
+       * duplicate.
+       */
+      public boolean isSuccessful() {
+         return invalid == 0 && !truncated;
+      }
+   }
+}
@@ -6,6 +6,7 @@ public class Constants {
    public static final String GITHUB_API_URL = String.format("https://%s/",
          GITHUB_API_HOST);
    public static final String GITHUB_USERS_API_PATH_TEMPLATE = "users/";
+   public static final String GITHUB_GRAPHQL_API_PATH = "graphql";
    public static final String GITHUB_API_V3_HEADER = "application/vnd.github.v3+json";
 
    // Freshdesk //
@@ -19,13 +20,93 @@ public class Constants {
     * Supported account origins.
     */
    public enum AccountOrigin {
-      GITHUB
+      GITHUB(0);
+
+      private final int _code;
+
+      AccountOrigin(final int code) {
+         _code = code;
+      }
+
+      /**
+       * @return The stable numeric code the origin is stored with.
+       */
+      public int code() {
+         return _code;
+      }
+
+      public static AccountOrigin fromCode(final int code) {
+         for (final AccountOrigin origin : values()) {
+            if (origin._code == code) {
+               return origin;
+            }
+         }
+         throw new IllegalArgumentException("Unknown account origin " + code);
+      }
+   }
+
+   /**
+    * Priority of the contact creation task. Tasks with a higher value are
+    * dispatched first.
+    */
+   public enum TaskPriority {
+      LOW(0), NORMAL(1), HIGH(2);
+
+      private final int _value;
+
+      TaskPriority(final int value) {
+         _value = value;
+      }
+
+      public int value() {
+         return _value;
+      }
+
+      public static TaskPriority fromValue(final int value) {
+         for (final TaskPriority priority : values()) {
+            if (priority._value == value) {
+               return priority;
+            }
+         }
+         throw new IllegalArgumentException("Unknown task priority " + value);
+      }
+   }
+
+   /**
+    * When an asynchronously ingested task is acknowledged to its submitter.
+    * ACCEPTED - as soon as the task is buffered in memory.
+    * PERSISTED - once the buffered task is stored by a group commit.
+    */
+   public enum IngestionDurability {
+      ACCEPTED, PERSISTED
    }
 
    /**
     * Status of the contact creation task.
     */
    public enum CreateContactTaskStatus {
-      NOT_STARTED, TO_RETRY, RUNNING, FAILED, COMPLETED
+      NOT_STARTED(0), TO_RETRY(1), RUNNING(2), FAILED(3), COMPLETED(4);
+
+      private final int _code;
+
+      CreateContactTaskStatus(final int code) {
+         _code = code;
+      }
+
+      /**
+       * @return The stable numeric code the status is stored with.
+       */
+      public int code() {
+         return _code;
+      }
+
+      public static CreateContactTaskStatus fromCode(final int code) {
+         for (final CreateContactTaskStatus status : values()) {
+            if (status._code == code) {
+               return status;
+            }
+         }
+         throw new IllegalArgumentException("Unknown task status " + code);
+      }
    }
 }
@@ -1,20 +1,35 @@
 package com.account.controller;
 
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.account.constants.Constants;
 import com.account.entity.CreateContactTaskEntity;
 import com.account.error.DuplicateTaskException;
 import com.account.error.ErrorResponse;
+import com.account.error.IngestionBufferFullException;
+import com.account.event.TaskEventBroadcaster;
+import com.account.ingestion.TaskIngestionBuffer;
 import com.account.service.CreateContactTaskService;
+import com.account.service.TaskStatisticsService;
+import com.account.service.TaskStatusCache;
 
 @RestController
 @RequestMapping("tasks")
@@ -22,11 +37,23 @@ public class TasksController {
 
    private final Logger _logger = LoggerFactory.getLogger(getClass());
    private final CreateContactTaskService _createContactTaskService;
+   private final TaskIngestionBuffer _taskIngestionBuffer;
+   private final TaskEventBroadcaster _taskEventBroadcaster;
+   private final TaskStatusCache _taskStatusCache;
+   private final TaskStatisticsService _taskStatisticsService;
 
    @Autowired
    public TasksController(
-         final CreateContactTaskService createContactTaskService) {
+         final CreateContactTaskService createContactTaskService,
+         final TaskIngestionBuffer taskIngestionBuffer,
+         final TaskEventBroadcaster taskEventBroadcaster,
+         final TaskStatusCache taskStatusCache,
+         final TaskStatisticsService taskStatisticsService) {
       _createContactTaskService = createContactTaskService;
+      _taskIngestionBuffer = taskIngestionBuffer;
+      _taskEventBroadcaster = taskEventBroadcaster;
+      _taskStatusCache = taskStatusCache;
+      _taskStatisticsService = taskStatisticsService;
    }
 
    @PostMapping
@@ -37,10 +64,17 @@ public class TasksController {
             requestBody.freshdeskDomain, requestBody.account,
             requestBody.origin);
       try {
+         if (_taskIngestionBuffer.isEnabled()) {
+            return accept(requestBody);
+         }
          final CreateContactTaskEntity task = _createContactTaskService.create(
                requestBody.account, requestBody.origin,
-               requestBody.freshdeskDomain);
+               requestBody.freshdeskDomain, requestBody.priority);
          return ResponseEntity.status(HttpStatus.CREATED).body(task);
+      } catch (final IngestionBufferFullException e) {
+         return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+               .header(HttpHeaders.RETRY_AFTER, "1")
+               .body(new ErrorResponse("Too many requests.", e.getMessage()));
       } catch (final DuplicateTaskException e) {
          return ResponseEntity.status(HttpStatus.CONFLICT)
                .body(new ErrorResponse("Duplicate task.", e.getMessage()));
@@ -56,20 +90,143 @@ public class TasksController {
       }
    }
 
+   /**
+    * Buffers a task to be stored asynchronously by the
+    * {@link TaskIngestionBuffer}.
+    * With the {@code ACCEPTED} durability, the task is returned with a 202
+    * response as soon as it is buffered, before it is checked for duplicates.
+    * The task may still be rejected as a duplicate, or fail to be stored,
+    * which {@code GET /tasks/{id}} then reports (see {@link #get}). With the {@code PERSISTED}
+    * durability, the response waits for the task to be stored, up to
+    * {@link TaskIngestionBuffer#persistTimeoutMillis()}, or else is a 503
+    * with a {@code Retry-After} header.
+    */
+   private ResponseEntity<?> accept(
+         final CreateContactRequestBody requestBody) {
+      final CreateContactTaskEntity task = _createContactTaskService.newTask(
+            requestBody.account, requestBody.origin,
+            requestBody.freshdeskDomain, requestBody.priority);
+      final TaskIngestionBuffer.PendingTask pendingTask = _taskIngestionBuffer.accept(
+            task);
+      if (Constants.IngestionDurability.PERSISTED.equals(
+            _taskIngestionBuffer.durability())) {
+         try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                  .body(pendingTask.result().get(
+                        _taskIngestionBuffer.persistTimeoutMillis(),
+                        TimeUnit.MILLISECONDS));
+         } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+               throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+         } catch (final TimeoutException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+               Thread.currentThread().interrupt();
+            }
+            _logger.warn("The task {} was not stored in time.", task.id);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                  .header(HttpHeaders.RETRY_AFTER, "1")
+                  .body(new ErrorResponse("Service unavailable.",
+                        "The task was not stored in time. Please retry later."));
+         }
+      }
+      return ResponseEntity.status(HttpStatus.ACCEPTED).body(task);
+   }
+
    @GetMapping
    public ResponseEntity<?> list() {
       return ResponseEntity.status(HttpStatus.OK)
             .body(_createContactTaskService.list());
    }
 
+   /**
+    * Retrieves the task counts by status, Freshdesk domain and attempts, the
+    * age of the oldest pending task and the recent completion rates. The
+    * statistics are aggregated by the task store and cached briefly. The
+    * completion rates are those of the tasks executed by this instance
+    * only.
+    */
+   @GetMapping("stats")
+   public ResponseEntity<?> stats() {
+      return ResponseEntity.ok().body(_taskStatisticsService.get());
+   }
+
+   /**
+    * Retrieves the latest status of a single task from the
+    * {@link TaskStatusCache}.
+    * </p>
+    * A task acknowledged with a 202, but not stored, is answered with a 202
+    * and a {@code Retry-After} header while it is buffered, or with a 409
+    * once rejected as a duplicate, or with a 410 when it failed to be stored.
+    * The rejections are only known to the instance which acknowledged the
+    * task, for {@code create.contact.task.ingestion.rejected.ttl.millis}.
+    *
+    * @param id - the ID of the task.
+    */
+   @GetMapping("{id}")
+   public ResponseEntity<?> get(@PathVariable final String id) {
+      return _taskStatusCache.get(id).<ResponseEntity<?>>map(
+                  status -> ResponseEntity.ok().body(status))
+            .or(() -> _taskIngestionBuffer.stateOf(id).map(
+                  state -> ingestionStateResponse(id, state)))
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                  .body(new ErrorResponse("Task not found.",
+                        "No task with ID " + id + " exists.")));
+   }
+
+   private static ResponseEntity<?> ingestionStateResponse(final String id,
+         final TaskIngestionBuffer.IngestionState state) {
+      return switch (state) {
+         case BUFFERED -> ResponseEntity.status(HttpStatus.ACCEPTED)
+               .header(HttpHeaders.RETRY_AFTER, "1")
+               .body(new ErrorResponse("Task not stored yet.",
+                     "The task " + id + " is buffered to be stored. Please retry later."));
+         case DUPLICATE -> ResponseEntity.status(HttpStatus.CONFLICT)
+               .body(new ErrorResponse("Duplicate task.",
+                     "The task " + id + " was rejected, as a duplicate pending task already exists."));
+         case FAILED -> ResponseEntity.status(HttpStatus.GONE)
+               .body(new ErrorResponse("Task not stored.",
+                     "The task " + id + " failed to be stored. Please submit it again."));
+      };
+   }
+
+   /**
+    * Streams the status changes of the tasks as Server-Sent Events, so the
+    * clients do not need to poll the tasks. A client following a single task
+    * first gets its current status from the {@link TaskStatusCache}, so a
+    * change made before the subscription is not missed.
+    * </p>
+    * The status changes are only pushed by the instance executing the task.
+    * With several instances, a client connected to another instance than the
+    * executing one only gets the initial status, and must poll
+    * {@code GET /tasks/{id}} for the rest.
+    *
+    * @param taskId          - the optional ID of the only task to follow.
+    * @param freshdeskDomain - the optional Freshdesk domain of the tasks to
+    *                        follow.
+    */
+   @GetMapping(path = "events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+   public SseEmitter events(
+         @RequestParam(required = false) final String taskId,
+         @RequestParam(name = "domain", required = false) final String freshdeskDomain) {
+      return _taskEventBroadcaster.subscribe(taskId, freshdeskDomain,
+            () -> _taskStatusCache.get(taskId));
+   }
+
    /**
     * Represents the input parameters of the API.
     *
     * @param account         - the external account to get information from.
     * @param origin          - the origin of the external account.
     * @param freshdeskDomain - the Freshdesk subdomain to store the contact at.
+    * @param priority        - the optional priority of the task.
     */
    record CreateContactRequestBody(String account, String origin,
-                                   String freshdeskDomain) {
+                                   String freshdeskDomain, String priority) {
+      CreateContactRequestBody(final String account, final String origin,
+            final String freshdeskDomain) {
+         this(account, origin, freshdeskDomain, null);
+      }
    }
 }
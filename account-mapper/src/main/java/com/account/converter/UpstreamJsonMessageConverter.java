@@ -0,0 +1,62 @@
+package com.account.converter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * A JSON message converter decoding the responses of the upstream APIs into
+ * their DTOs with {@link ObjectReader}s built once per DTO type.
+ * </p>
+ * A response body is decoded straight from the response stream, without
+ * copying it into an intermediate {@code String} or {@code byte[]}, and the
+ * unknown fields are skipped by the parser. The other types are decoded as by
+ * {@link MappingJackson2HttpMessageConverter}.
+ */
+public class UpstreamJsonMessageConverter
+      extends MappingJackson2HttpMessageConverter {
+
+   private final Map<JavaType, ObjectReader> _readers = new HashMap<>();
+
+   /**
+    * @param objectMapper The mapper the readers are built from.
+    * @param types        The DTO types to build a reader for.
+    */
+   public UpstreamJsonMessageConverter(final ObjectMapper objectMapper,
+         final List<Type> types) {
+      super(objectMapper);
+      for (final Type type : types) {
+         final JavaType javaType = objectMapper.constructType(type);
+         _readers.put(javaType, objectMapper.readerFor(javaType));
+      }
+   }
+
+   @Override
+   public Object read(final Type type, final Class<?> contextClass,
+         final HttpInputMessage inputMessage) throws IOException {
+      final ObjectReader reader = _readers.get(getObjectMapper().constructType(
+            GenericTypeResolver.resolveType(type, contextClass)));
+      if (reader == null) {
+         return super.read(type, contextClass, inputMessage);
+      }
+      try (final InputStream body = inputMessage.getBody()) {
+         return reader.readValue(body);
+      } catch (final JsonProcessingException e) {
+         throw new HttpMessageNotReadableException(
+               "JSON parse error: " + e.getOriginalMessage(), e, inputMessage);
+      }
+   }
+}
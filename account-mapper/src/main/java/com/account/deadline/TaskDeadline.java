@@ -0,0 +1,170 @@
+package com.account.deadline;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import com.account.error.DeadlineExceededException;
+import com.account.error.RecoverableTaskException;
+
+/**
+ * The time budget of a task execution, bound to the thread working on the
+ * task while {@link #enter entered}.
+ * </p>
+ * The upstream calls and the task store reads made on a thread with a
+ * deadline are limited by {@link #limitMillis} to the smaller of their own
+ * timeout and the time left, and fail with a
+ * {@link DeadlineExceededException} once the deadline expired. Work handed
+ * over to another thread carries the deadline with {@link #propagate}.
+ * </p>
+ * The deadline is measured by {@link System#nanoTime()}, as the timeouts it
+ * limits are in real time.
+ */
+public final class TaskDeadline {
+
+   private static final ThreadLocal<TaskDeadline> CURRENT = new ThreadLocal<>();
+
+   private final long _expiresAtNanos;
+
+   private TaskDeadline(final long expiresAtNanos) {
+      _expiresAtNanos = expiresAtNanos;
+   }
+
+   /**
+    * @param millis The time budget.
+    * @return A deadline expiring once the time budget is spent.
+    */
+   public static TaskDeadline after(final long millis) {
+      return new TaskDeadline(
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+   }
+
+   /**
+    * @return The deadline of the task the current thread works on, if any.
+    */
+   public static Optional<TaskDeadline> current() {
+      return Optional.ofNullable(CURRENT.get());
+   }
+
+   /**
+    * Limits a timeout to the time left by the deadline of the current
+    * thread.
+    *
+    * @param timeoutMillis The own timeout of a call.
+    * @return The timeout, or the time left when it is shorter, but at least
+    * 1 ms, so the result is never taken as an infinite timeout.
+    * @throws DeadlineExceededException when the deadline expired.
+    */
+   public static long limitMillis(final long timeoutMillis) {
+      final TaskDeadline deadline = CURRENT.get();
+      if (deadline == null) {
+         return timeoutMillis;
+      }
+      deadline.check();
+      return Math.min(timeoutMillis, Math.max(1, deadline.remainingMillis()));
+   }
+
+   /**
+    * Waits for the result of work handed over to another thread, at most
+    * until the deadline of the current thread expires.
+    *
+    * @throws CompletionException       when the work failed.
+    * @throws DeadlineExceededException when the deadline expired first.
+    */
+   public static <T> T join(final CompletableFuture<T> future) {
+      final TaskDeadline deadline = CURRENT.get();
+      if (deadline == null) {
+         return future.join();
+      }
+      try {
+         return future.get(limitMillis(Long.MAX_VALUE), TimeUnit.MILLISECONDS);
+      } catch (final ExecutionException e) {
+         throw new CompletionException(e.getCause());
+      } catch (final TimeoutException e) {
+         throw new DeadlineExceededException(
+               "The task deadline expired while waiting for a result.");
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new DeadlineExceededException(
+               "Interrupted while waiting for a result.", e);
+      }
+   }
+
+   /**
+    * @param work The work to run on another thread.
+    * @return The work running with the deadline of the current thread, if
+    * any.
+    */
+   public static <T> Supplier<T> propagate(final Supplier<T> work) {
+      final TaskDeadline deadline = CURRENT.get();
+      if (deadline == null) {
+         return work;
+      }
+      return () -> {
+         try (Scope ignored = deadline.enter()) {
+            return work.get();
+         }
+      };
+   }
+
+   /**
+    * Binds the deadline to the current thread until the returned scope is
+    * closed.
+    */
+   public Scope enter() {
+      final TaskDeadline previous = CURRENT.get();
+      CURRENT.set(this);
+      return () -> {
+         if (previous == null) {
+            CURRENT.remove();
+         } else {
+            CURRENT.set(previous);
+         }
+      };
+   }
+
+   public long remainingMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(_expiresAtNanos - System.nanoTime());
+   }
+
+   public boolean isExpired() {
+      return _expiresAtNanos - System.nanoTime() <= 0;
+   }
+
+   /**
+    * @throws DeadlineExceededException when the deadline expired.
+    */
+   public void check() {
+      if (isExpired()) {
+         throw new DeadlineExceededException("The task deadline expired.");
+      }
+   }
+
+   /**
+    * Resolves the failure of a task. A call cut short by the deadline (e.g.
+    * by a read timeout) fails with its own exception, which is replaced by a
+    * recoverable {@link DeadlineExceededException} here.
+    *
+    * @param e The exception the task failed with.
+    * @return The exception, or a {@link DeadlineExceededException} caused by
+    * it when the deadline expired.
+    */
+   public Exception failure(final Exception e) {
+      if (e instanceof RecoverableTaskException || !isExpired()) {
+         return e;
+      }
+      return new DeadlineExceededException("The task deadline expired.", e);
+   }
+
+   /**
+    * The binding of a deadline to the current thread.
+    */
+   public interface Scope extends AutoCloseable {
+      @Override
+      void close();
+   }
+}
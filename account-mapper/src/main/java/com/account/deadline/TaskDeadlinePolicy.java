@@ -0,0 +1,58 @@
+package com.account.deadline;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+
+/**
+ * Resolves the time budget of a task execution.
+ * </p>
+ * The budget is configured by {@code task.deadline.priority.<priority>.millis}
+ * for the priority of the task, or else by
+ * {@code task.deadline.origin.<origin>.millis} for its account origin, and
+ * defaults to {@code task.deadline.millis}.
+ */
+@Component
+public class TaskDeadlinePolicy {
+
+   private static final String PRIORITY_PROPERTY = "task.deadline.priority.%s.millis";
+   private static final String ORIGIN_PROPERTY = "task.deadline.origin.%s.millis";
+
+   private final Environment _environment;
+   private final long _deadlineMillis;
+
+   /**
+    * @param deadlineMillis The default time budget of a task execution.
+    */
+   @Autowired
+   public TaskDeadlinePolicy(final Environment environment,
+         @Value("${task.deadline.millis}") final long deadlineMillis) {
+      _environment = environment;
+      _deadlineMillis = deadlineMillis;
+   }
+
+   /**
+    * @param task The task to execute.
+    * @return The deadline of the task, starting now.
+    */
+   public TaskDeadline deadlineOf(final CreateContactTaskEntity task) {
+      return TaskDeadline.after(budgetMillis(task));
+   }
+
+   long budgetMillis(final CreateContactTaskEntity task) {
+      final Long priorityBudget = _environment.getProperty(
+            String.format(PRIORITY_PROPERTY,
+                  Constants.TaskPriority.fromValue(task.priority).name()
+                        .toLowerCase()), Long.class);
+      if (priorityBudget != null) {
+         return priorityBudget;
+      }
+      return _environment.getProperty(String.format(ORIGIN_PROPERTY,
+            task.accountOrigin.name().toLowerCase()), Long.class,
+            _deadlineMillis);
+   }
+}
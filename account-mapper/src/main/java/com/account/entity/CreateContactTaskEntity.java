@@ -5,7 +5,10 @@ import java.util.Date;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import com.account.constants.Constants;
 import com.mongodb.lang.NonNull;
@@ -15,29 +18,52 @@ import com.mongodb.lang.NonNull;
  * MongoDB collection.
  * </p>
  * The entity class is used to map the collection data to a Java object.
+ * </p>
+ * The fields are stored under short names, and the enums as their numeric
+ * codes (see {@code MongoTaskStoreConfiguration}), to keep the documents and
+ * the indexes small. The index definitions therefore use the stored names.
  */
 @Document(collection = "createContactTask")
+@CompoundIndexes({
+      @CompoundIndex(name = "pending_scan_v2", def = "{'s': 1, 'p': -1, 'u': 1, 'n': 1, '_id': 1}"),
+      @CompoundIndex(name = "cleanup_scan_v2", def = "{'n': 1, 's': 1, '_id': 1}"),
+      @CompoundIndex(name = "account_v2", def = "{'a': 1, 'o': 1, 'd': 1}")})
 public class CreateContactTaskEntity {
    // Task specific info
    @Id
    public String id;
    @NonNull
+   @Field("s")
    public Constants.CreateContactTaskStatus status;
    @CreatedDate
+   @Field("c")
    public Date created;
    @LastModifiedDate
+   @Field("u")
    public Date updated;
+   @Field("n")
    public int attempts;
+   /**
+    * The {@link Constants.TaskPriority#value()} of the task.
+    */
+   @Field("p")
+   public int priority = Constants.TaskPriority.NORMAL.value();
 
    // Account specific info
    @NonNull
+   @Field("d")
    public String freshdeskDomain;
    @NonNull
+   @Field("o")
    public Constants.AccountOrigin accountOrigin;
    @NonNull
+   @Field("a")
    public String account;
+   @Field("x")
    public String externalAccountId;
+   @Field("e")
    public String email;
+   @Field("ad")
    public String address;
 
    public CreateContactTaskEntity(final String account,
@@ -51,6 +77,30 @@ public class CreateContactTaskEntity {
    public CreateContactTaskEntity() {
    }
 
+   /**
+    * @return A detached copy of the task.
+    */
+   public CreateContactTaskEntity copy() {
+      final CreateContactTaskEntity copy = new CreateContactTaskEntity();
+      copy.id = id;
+      copy.status = status;
+      copy.created = created;
+      copy.updated = updated;
+      copy.attempts = attempts;
+      copy.priority = priority;
+      copy.freshdeskDomain = freshdeskDomain;
+      copy.accountOrigin = accountOrigin;
+      copy.account = account;
+      copy.externalAccountId = externalAccountId;
+      copy.email = email;
+      copy.address = address;
+      return copy;
+   }
+
+   public boolean hasHighPriority() {
+      return priority >= Constants.TaskPriority.HIGH.value();
+   }
+
    public boolean hasNotCompleted() {
       return !Constants.CreateContactTaskStatus.FAILED.equals(status)
             && !Constants.CreateContactTaskStatus.COMPLETED.equals(status);
@@ -0,0 +1,30 @@
+package com.account.entity;
+
+import java.util.Date;
+import java.util.Map;
+
+import com.account.constants.Constants;
+
+/**
+ * The counts of the stored {@link CreateContactTaskEntity}s, aggregated by the
+ * task store instead of loading the tasks.
+ *
+ * @param countsByStatus       The number of tasks per status.
+ * @param countsByDomain       The number of tasks per Freshdesk domain and
+ *                             status.
+ * @param countsByAttempts     The number of tasks per execution attempts.
+ * @param oldestPendingCreated The creation date of the oldest pending task,
+ *                             or null when no task is pending.
+ */
+public record CreateContactTaskStatistics(
+      Map<Constants.CreateContactTaskStatus, Long> countsByStatus,
+      Map<String, Map<Constants.CreateContactTaskStatus, Long>> countsByDomain,
+      Map<Integer, Long> countsByAttempts, Date oldestPendingCreated) {
+
+   /**
+    * @return The number of stored tasks.
+    */
+   public long total() {
+      return countsByStatus.values().stream().mapToLong(Long::longValue).sum();
+   }
+}
@@ -0,0 +1,29 @@
+package com.account.entity;
+
+import java.util.Date;
+
+import com.account.constants.Constants;
+
+/**
+ * A read-only projection of a {@link CreateContactTaskEntity} holding only the
+ * fields the task scheduler and cleaner decide on.
+ * </p>
+ * The scans of the scheduler and cleaner run every few seconds, so loading
+ * only these fields avoids transferring and decoding the account data of
+ * every pending task.
+ */
+public record CreateContactTaskSummary(String id,
+                                       Constants.CreateContactTaskStatus status,
+                                       int attempts, int priority,
+                                       Date updated) {
+
+   public static CreateContactTaskSummary of(
+         final CreateContactTaskEntity task) {
+      return new CreateContactTaskSummary(task.id, task.status, task.attempts,
+            task.priority, task.updated);
+   }
+
+   public boolean hasHighPriority() {
+      return priority >= Constants.TaskPriority.HIGH.value();
+   }
+}
@@ -0,0 +1,28 @@
+package com.account.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+/**
+ * The mapping of the unique external ID of a Freshdesk contact to its contact
+ * ID and the fingerprint of its data, stored in a MongoDB collection.
+ * </p>
+ * The fields are stored under short names, like the
+ * {@link CreateContactTaskEntity} fields.
+ */
+@Document(collection = "freshdeskContactIdentity")
+@CompoundIndex(name = "identity", def = "{'d': 1, 'x': 1}", unique = true)
+public class FreshdeskContactIdentityEntity {
+   @Id
+   public String id;
+   @Field("d")
+   public String freshdeskDomain;
+   @Field("x")
+   public String externalId;
+   @Field("i")
+   public long contactId;
+   @Field("f")
+   public String fingerprint;
+}
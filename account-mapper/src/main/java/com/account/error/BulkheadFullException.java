@@ -0,0 +1,12 @@
+package com.account.error;
+
+/**
+ * An unchecked exception thrown when a task stage cannot enter its bulkhead
+ * in time, because the bulkhead is fully occupied by other tasks. The task is
+ * retried later on, without counting the attempt.
+ */
+public class BulkheadFullException extends TaskRejectedException {
+   public BulkheadFullException(final String message) {
+      super(message);
+   }
+}
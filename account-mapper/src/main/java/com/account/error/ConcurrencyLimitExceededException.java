@@ -0,0 +1,12 @@
+package com.account.error;
+
+/**
+ * An unchecked exception thrown when a call to an upstream API cannot acquire
+ * a permit of the upstream's concurrency limit in time. The task is retried
+ * later on, without counting the attempt, as the call was never sent.
+ */
+public class ConcurrencyLimitExceededException extends TaskRejectedException {
+   public ConcurrencyLimitExceededException(final String message) {
+      super(message);
+   }
+}
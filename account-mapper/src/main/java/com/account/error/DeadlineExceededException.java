@@ -0,0 +1,17 @@
+package com.account.error;
+
+/**
+ * An unchecked exception thrown when a task runs out of its time budget
+ * before its work is done. The remaining work is skipped and the task is
+ * retried later on.
+ */
+public class DeadlineExceededException extends RecoverableTaskException {
+   public DeadlineExceededException(final String message) {
+      super(message);
+   }
+
+   public DeadlineExceededException(final String message,
+         final Throwable cause) {
+      super(message, cause);
+   }
+}
@@ -0,0 +1,11 @@
+package com.account.error;
+
+/**
+ * An unchecked exception thrown when a task cannot be accepted, because the
+ * asynchronous ingestion buffer is full.
+ */
+public class IngestionBufferFullException extends RuntimeException {
+   public IngestionBufferFullException(final String message) {
+      super(message);
+   }
+}
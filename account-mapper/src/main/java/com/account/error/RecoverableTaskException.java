@@ -0,0 +1,20 @@
+package com.account.error;
+
+/**
+ * An unchecked exception thrown when a task fails in a recoverable way (e.g.
+ * a slow, or a not responding API), so the task is retried later on instead
+ * of being dropped.
+ */
+public class RecoverableTaskException extends RuntimeException {
+   public RecoverableTaskException() {
+   }
+
+   public RecoverableTaskException(final String message) {
+      super(message);
+   }
+
+   public RecoverableTaskException(final String message,
+         final Throwable cause) {
+      super(message, cause);
+   }
+}
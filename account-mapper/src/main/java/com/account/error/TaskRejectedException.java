@@ -0,0 +1,12 @@
+package com.account.error;
+
+/**
+ * An unchecked exception thrown when a task is rejected locally, before it
+ * reaches an upstream API (e.g. its bulkhead is full). The task is retried
+ * later on, without counting the attempt.
+ */
+public class TaskRejectedException extends RecoverableTaskException {
+   public TaskRejectedException(final String message) {
+      super(message);
+   }
+}
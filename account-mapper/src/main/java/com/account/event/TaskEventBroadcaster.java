@@ -0,0 +1,197 @@
+package com.account.event;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Pushes the {@link TaskStatusChangedEvent}s to the Server-Sent Events
+ * subscribers that are interested in them.
+ * </p>
+ * Every subscriber has a bounded buffer of {@code bufferSize} events, which
+ * is drained by a pool of sender threads, so a slow client never blocks the
+ * task executions. When the buffer of a subscriber is full, its oldest event
+ * is dropped.
+ * </p>
+ * A subscriber following a single task first gets its current status, so a
+ * status change made before the subscription is not missed.
+ * </p>
+ * Only the events published by this instance are pushed, so a task executed
+ * by another instance sharing the store sends no status changes here.
+ */
+@Component
+public class TaskEventBroadcaster {
+
+   static final String EVENT_NAME = "task-status";
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final Set<Subscription> _subscriptions = ConcurrentHashMap.newKeySet();
+   private final ExecutorService _senders;
+   private final Counter _dropped;
+   private final int _bufferSize;
+   private final long _emitterTimeoutMillis;
+
+   /**
+    * @param bufferSize           The max number of events buffered per
+    *                             subscriber.
+    * @param emitterTimeoutMillis The time after which a subscription is
+    *                             closed, so the client reconnects.
+    * @param threads              The number of threads sending the events.
+    */
+   @Autowired
+   public TaskEventBroadcaster(final MeterRegistry meterRegistry,
+         @Value("${task.events.subscriber.buffer.size}") final int bufferSize,
+         @Value("${task.events.emitter.timeout.millis}") final long emitterTimeoutMillis,
+         @Value("${task.events.sender.thread.pool.size}") final int threads) {
+      _bufferSize = bufferSize;
+      _emitterTimeoutMillis = emitterTimeoutMillis;
+      _senders = Executors.newFixedThreadPool(threads,
+            new CustomizableThreadFactory("TaskEventSender-"));
+      _dropped = meterRegistry.counter("task.events.dropped");
+      meterRegistry.gaugeCollectionSize("task.events.subscribers",
+            List.of(), _subscriptions);
+   }
+
+   /**
+    * Subscribes to the status changes of the tasks matching the given
+    * filters.
+    *
+    * @param taskId          The optional ID of the only task to follow.
+    * @param freshdeskDomain The optional Freshdesk domain of the tasks to
+    *                        follow.
+    * @param currentStatus   Reads the current status of the task to follow,
+    *                        which is sent first. Read once subscribed, so
+    *                        no status change is missed in between.
+    * @return The emitter of the subscription.
+    */
+   public SseEmitter subscribe(final String taskId,
+         final String freshdeskDomain,
+         final Supplier<Optional<TaskStatusChangedEvent>> currentStatus) {
+      return subscribe(taskId, freshdeskDomain, currentStatus,
+            new SseEmitter(_emitterTimeoutMillis));
+   }
+
+   SseEmitter subscribe(final String taskId, final String freshdeskDomain,
+         final Supplier<Optional<TaskStatusChangedEvent>> currentStatus,
+         final SseEmitter emitter) {
+      final Subscription subscription = new Subscription(taskId,
+            freshdeskDomain, emitter, new ArrayBlockingQueue<>(_bufferSize));
+      emitter.onCompletion(() -> _subscriptions.remove(subscription));
+      emitter.onTimeout(() -> _subscriptions.remove(subscription));
+      emitter.onError(e -> _subscriptions.remove(subscription));
+      _subscriptions.add(subscription);
+      _logger.debug("New task events subscription for task {} and domain {}.",
+            taskId, freshdeskDomain);
+      if (taskId != null) {
+         currentStatus.get().filter(subscription::matches)
+               .ifPresent(subscription::offerCurrent);
+      }
+      return emitter;
+   }
+
+   @EventListener
+   public void onTaskStatusChanged(final TaskStatusChangedEvent event) {
+      for (final Subscription subscription : _subscriptions) {
+         if (subscription.matches(event)) {
+            subscription.offer(event);
+         }
+      }
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      _subscriptions.forEach(subscription -> subscription._emitter.complete());
+      _senders.shutdown();
+   }
+
+   private final class Subscription {
+      private final String _taskId;
+      private final String _freshdeskDomain;
+      private final SseEmitter _emitter;
+      private final BlockingQueue<TaskStatusChangedEvent> _buffer;
+      private final AtomicBoolean _sending = new AtomicBoolean();
+      private boolean _offered;
+
+      private Subscription(final String taskId, final String freshdeskDomain,
+            final SseEmitter emitter,
+            final BlockingQueue<TaskStatusChangedEvent> buffer) {
+         _taskId = taskId;
+         _freshdeskDomain = freshdeskDomain;
+         _emitter = emitter;
+         _buffer = buffer;
+      }
+
+      private boolean matches(final TaskStatusChangedEvent event) {
+         return (_taskId == null || _taskId.equals(event.taskId()))
+               && (_freshdeskDomain == null || _freshdeskDomain.equals(
+               event.freshdeskDomain()));
+      }
+
+      /**
+       * Offers the current status of the followed task, unless a status
+       * change was offered already, as it is at least as recent.
+       */
+      private synchronized void offerCurrent(
+            final TaskStatusChangedEvent event) {
+         if (!_offered) {
+            offer(event);
+         }
+      }
+
+      private synchronized void offer(final TaskStatusChangedEvent event) {
+         _offered = true;
+         while (!_buffer.offer(event)) {
+            if (_buffer.poll() != null) {
+               _dropped.increment();
+            }
+         }
+         if (_sending.compareAndSet(false, true)) {
+            _senders.execute(this::send);
+         }
+      }
+
+      /**
+       * Sends the buffered events until the buffer is empty. Only one sender
+       * runs per subscription at a time, so the events keep their order.
+       */
+      private void send() {
+         do {
+            TaskStatusChangedEvent event;
+            while ((event = _buffer.poll()) != null) {
+               try {
+                  _emitter.send(SseEmitter.event().id(event.taskId())
+                        .name(EVENT_NAME).data(event));
+               } catch (final IOException | IllegalStateException e) {
+                  _logger.debug("Dropping a disconnected task events subscriber.");
+                  _subscriptions.remove(this);
+                  _buffer.clear();
+                  _emitter.completeWithError(e);
+                  return;
+               }
+            }
+            _sending.set(false);
+         } while (!_buffer.isEmpty() && _sending.compareAndSet(false, true));
+      }
+   }
+}
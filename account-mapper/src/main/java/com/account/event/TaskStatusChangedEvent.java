@@ -0,0 +1,30 @@
+package com.account.event;
+
+import java.util.Date;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+
+/**
+ * An application event published whenever a stored task enters a status.
+ *
+ * @param taskId          The ID of the task.
+ * @param account         The external account of the task.
+ * @param accountOrigin   The origin of the external account.
+ * @param freshdeskDomain The Freshdesk domain of the task.
+ * @param status          The new status of the task.
+ * @param attempts        The execution attempts of the task so far.
+ * @param updated         The time of the status change.
+ */
+public record TaskStatusChangedEvent(String taskId, String account,
+                                     Constants.AccountOrigin accountOrigin,
+                                     String freshdeskDomain,
+                                     Constants.CreateContactTaskStatus status,
+                                     int attempts, Date updated) {
+
+   public static TaskStatusChangedEvent of(final CreateContactTaskEntity task) {
+      return new TaskStatusChangedEvent(task.id, task.account,
+            task.accountOrigin, task.freshdeskDomain, task.status,
+            task.attempts, task.updated);
+   }
+}
@@ -10,6 +10,14 @@ public class FreshdeskContactInfo {
    public String uniqueExternalId;
    public String address;
 
+   /**
+    * @see FreshdeskContactSpec#fingerprint()
+    */
+   public String fingerprint() {
+      return FreshdeskContactSpec.fingerprint(name, email, address,
+            uniqueExternalId);
+   }
+
    @Override
    public String toString() {
       return "FreshdeskContactInfo{" + "id=" + id + ", name='" + name + '\''
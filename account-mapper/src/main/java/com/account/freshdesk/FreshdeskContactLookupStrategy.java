@@ -0,0 +1,43 @@
+package com.account.freshdesk;
+
+/**
+ * The strategies used to look up an existing {@link FreshdeskContactInfo},
+ * ordered from the narrowest to the most expensive one.
+ * </p>
+ * The narrow strategies use the query filters of the Freshdesk list contacts
+ * API, so only the matching contacts are returned. The {@code FULL_SCAN}
+ * strategy lists all contacts of the domain and is used as a last resort.
+ * </p>
+ * The {@code UNIQUE_EXTERNAL_ID} filter is authoritative: once it answers, a
+ * contact it does not return does not exist. The next strategy is tried only
+ * when it fails, e.g. it is not supported by the Freshdesk plan.
+ */
+public enum FreshdeskContactLookupStrategy {
+   UNIQUE_EXTERNAL_ID("unique_external_id", true), EMAIL("email", false),
+   FULL_SCAN(null, true);
+
+   private final String _queryParam;
+   private final boolean _authoritative;
+
+   FreshdeskContactLookupStrategy(final String queryParam,
+         final boolean authoritative) {
+      _queryParam = queryParam;
+      _authoritative = authoritative;
+   }
+
+   /**
+    * @return The query parameter used to filter the contacts, or null if the
+    * strategy does not filter on the server side.
+    */
+   public String queryParam() {
+      return _queryParam;
+   }
+
+   /**
+    * @return Whether a miss of the strategy is final, so no other strategy
+    * is tried.
+    */
+   public boolean isAuthoritative() {
+      return _authoritative;
+   }
+}
@@ -1,35 +1,96 @@
 package com.account.freshdesk;
 
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataAccessException;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
 
 import com.account.constants.Constants;
+import com.account.repository.FreshdeskContactIdentityMap;
+import com.account.repository.FreshdeskContactIdentityMap.MappedContact;
+import com.account.service.TaskStageBulkheads;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * A service used to retrieve  and update existing {@link FreshdeskContactInfo},
  * or create new ones.
+ * </p>
+ * The IDs of the contacts found, created, or updated are remembered by their
+ * unique external ID in the {@link FreshdeskContactIdentityMap}, along with
+ * the fingerprint of their data, so a contact mapped again is updated without
+ * a lookup, and only when its data changed (see {@link #findMappedContact}
+ * and {@link #updateMappedIfChanged}).
+ * </p>
+ * Every API call runs in the Freshdesk domain bulkhead of the
+ * {@link TaskStageBulkheads}.
  */
 @Component
 public class FreshdeskContactService {
 
+   /**
+    * The max number of contacts per page of the contacts listing allowed by
+    * the Freshdesk API.
+    */
+   static final int CONTACTS_PAGE_SIZE = 100;
+
    private final Logger _logger = LoggerFactory.getLogger(getClass());
    private final RestTemplate _restTemplate;
+   private final MeterRegistry _meterRegistry;
+   private final FreshdeskContactIdentityMap _identityMap;
+   private final TaskStageBulkheads _taskStageBulkheads;
 
    @Autowired
-   public FreshdeskContactService(final RestTemplate restTemplate) {
+   public FreshdeskContactService(final RestTemplate restTemplate,
+         final MeterRegistry meterRegistry,
+         final FreshdeskContactIdentityMap identityMap,
+         final TaskStageBulkheads taskStageBulkheads) {
       _restTemplate = restTemplate;
+      _meterRegistry = meterRegistry;
+      _identityMap = identityMap;
+      _taskStageBulkheads = taskStageBulkheads;
+   }
+
+   /**
+    * Retrieves a contact found, created, or updated before, by its unique
+    * external ID, without calling the Freshdesk API.
+    *
+    * @param externalId The unique_external_id of the contact.
+    * @return The mapped contact, if any. Empty when the mapping can't be
+    * read.
+    */
+   public Optional<MappedContact> findMappedContact(
+         final String freshdeskDomain, final String externalId) {
+      Optional<MappedContact> mappedContact;
+      try {
+         mappedContact = _identityMap.find(freshdeskDomain, externalId);
+      } catch (final DataAccessException e) {
+         _logger.warn("Failed to read the mapping of the external ID {}.",
+               externalId, e);
+         mappedContact = Optional.empty();
+      }
+      _meterRegistry.counter("freshdesk.contact.identity.map.requests",
+            "result", mappedContact.isPresent() ? "hit" : "miss").increment();
+      return mappedContact;
    }
 
    /**
@@ -40,36 +101,161 @@ public class FreshdeskContactService {
     */
    public Optional<FreshdeskContactInfo> findByExternalId(
          final String freshdeskDomain, final String externalId) {
+      return findByExternalId(freshdeskDomain, externalId, null);
+   }
+
+   /**
+    * Retrieves a {@link FreshdeskContactInfo} by its unique external ID
+    * following the {@link FreshdeskContactLookupStrategy} chain.
+    * </p>
+    * The narrow server side filters are tried first and their results are
+    * verified locally against the external ID. A miss of the authoritative
+    * unique_external_id filter is final, so a new contact costs a single
+    * request. The email filter and the full contacts listing are used only
+    * when the unique_external_id filter fails.
+    *
+    * @param externalId The unique_external_id of the contact.
+    * @param email      The email of the contact, if known. Used as a
+    *                   secondary narrow filter.
+    * @return An optional object containing the {@link FreshdeskContactInfo} if found.
+    */
+   public Optional<FreshdeskContactInfo> findByExternalId(
+         final String freshdeskDomain, final String externalId,
+         final String email) {
       _logger.info("Looking up a Freshdesk contact by external ID {}.",
             externalId);
+      for (final FreshdeskContactLookupStrategy strategy : FreshdeskContactLookupStrategy.values()) {
+         final String filterValue = switch (strategy) {
+            case UNIQUE_EXTERNAL_ID -> externalId;
+            case EMAIL -> email;
+            case FULL_SCAN -> null;
+         };
+         final Optional<FreshdeskContactInfo> contactInfo;
+         if (strategy.queryParam() == null) {
+            contactInfo = Optional.ofNullable(listAll(freshdeskDomain,
+                  Set.of(externalId)).get(externalId));
+         } else {
+            if (filterValue == null || filterValue.isBlank()) {
+               continue;
+            }
+            final Optional<List<FreshdeskContactInfo>> contactInfos = lookup(
+                  freshdeskDomain, strategy, filterValue);
+            if (contactInfos.isEmpty()) {
+               continue;
+            }
+            contactInfo = contactInfos.get().stream()
+                  .filter(info -> externalId.equals(info.uniqueExternalId))
+                  .findFirst();
+         }
+         recordLookup(strategy, contactInfo.isPresent());
+         if (contactInfo.isPresent()) {
+            _logger.debug("Found contact with external ID {} using the {} strategy.",
+                  externalId, strategy);
+            remember(freshdeskDomain, externalId, contactInfo.get().id,
+                  contactInfo.get().fingerprint());
+            return contactInfo;
+         }
+         if (strategy.isAuthoritative()) {
+            return Optional.empty();
+         }
+      }
+      return Optional.empty();
+   }
+
+   /**
+    * Pages through the contacts listing of the domain, until the contacts of
+    * all the unique external IDs are found or a page is not full.
+    *
+    * @return The found contacts by their unique_external_id.
+    */
+   private Map<String, FreshdeskContactInfo> listAll(
+         final String freshdeskDomain, final Set<String> externalIds) {
       final HttpEntity<Void> requestEntity = new HttpEntity<>(
             new HttpHeaders());
+      final Map<String, FreshdeskContactInfo> contactInfos = new HashMap<>();
+      int page = 1;
+      List<FreshdeskContactInfo> pageContactInfos;
+      do {
+         final URI pageUri = getFreshdeskContactsPageUri(freshdeskDomain, page);
+         final ResponseEntity<List<FreshdeskContactInfo>> response = call(
+               freshdeskDomain, () -> _restTemplate.exchange(pageUri,
+                     HttpMethod.GET, requestEntity,
+                     new ParameterizedTypeReference<>() {
+                     }));
+         pageContactInfos = response.getBody() == null ? List.of()
+               : response.getBody();
+         _logger.debug("Retrieved {} contact infos from page {} of the contacts listing.",
+               pageContactInfos.size(), page);
+         for (final FreshdeskContactInfo contactInfo : pageContactInfos) {
+            if (contactInfo.uniqueExternalId != null
+                  && externalIds.contains(contactInfo.uniqueExternalId)) {
+               contactInfos.putIfAbsent(contactInfo.uniqueExternalId,
+                     contactInfo);
+            }
+         }
+         page++;
+      } while (pageContactInfos.size() >= CONTACTS_PAGE_SIZE
+            && contactInfos.size() < externalIds.size());
+      return contactInfos;
+   }
 
-      // Unfortunately there is no Freshdesk Query API by external ID, so we
-      // need to retrieve all contacts and filter them ourselves.
-      final ResponseEntity<List<FreshdeskContactInfo>> response = _restTemplate.exchange(
-            getFreshdeskApiUrl(freshdeskDomain), HttpMethod.GET, requestEntity,
-            new ParameterizedTypeReference<>() {
-            });
+   /**
+    * Lists the contacts matching the filter of a narrow
+    * {@link FreshdeskContactLookupStrategy}.
+    * </p>
+    * A client error of a narrow filter (e.g. the filter is not supported by
+    * the Freshdesk plan) is recorded as a miss and answers nothing, so the
+    * next strategy is tried.
+    *
+    * @return The listed contacts, or empty when the filter failed.
+    */
+   private Optional<List<FreshdeskContactInfo>> lookup(
+         final String freshdeskDomain,
+         final FreshdeskContactLookupStrategy strategy,
+         final String filterValue) {
+      final HttpEntity<Void> requestEntity = new HttpEntity<>(
+            new HttpHeaders());
+      final ResponseEntity<List<FreshdeskContactInfo>> response;
+      try {
+         response = call(freshdeskDomain, () -> _restTemplate.exchange(
+               getFreshdeskApiUri(freshdeskDomain, strategy, filterValue),
+               HttpMethod.GET, requestEntity, new ParameterizedTypeReference<>() {
+               }));
+      } catch (final HttpClientErrorException e) {
+         if (HttpStatus.TOO_MANY_REQUESTS.equals(e.getStatusCode())) {
+            throw e;
+         }
+         _logger.warn("The {} contact lookup failed with {}. Falling back to the next strategy.",
+               strategy, e.getStatusCode());
+         recordLookup(strategy, false);
+         return Optional.empty();
+      }
 
       final List<FreshdeskContactInfo> contactInfos = response.getBody();
-      _logger.debug("Successfully retrieved all available contact infos:\n{}",
+      _logger.debug("Retrieved {} contact infos using the {} strategy:\n{}",
+            contactInfos == null ? 0 : contactInfos.size(), strategy,
             contactInfos);
+      return Optional.of(contactInfos == null ? List.of() : contactInfos);
+   }
 
-      if (contactInfos == null) {
-         return Optional.empty();
-      }
-      return contactInfos.stream().filter(
-                  contactInfo -> externalId.equals(contactInfo.uniqueExternalId))
-            .findFirst();
+   private void recordLookup(final FreshdeskContactLookupStrategy strategy,
+         final boolean hit) {
+      _meterRegistry.counter("freshdesk.contact.lookups", "strategy",
+            strategy.name(), "result", hit ? "hit" : "miss").increment();
    }
 
    /**
     * Updates an existing {@link FreshdeskContactInfo}.
+    * </p>
+    * The fingerprint of the updated data is remembered. When the contact no
+    * longer exists, its mapping is removed from the
+    * {@link FreshdeskContactIdentityMap}, so it is looked up again next time.
     *
     * @param contactId  The ID of the contact to update.
     * @param updateSpec The data to update.
     * @return The updated {@link FreshdeskContactInfo}
+    * @throws HttpClientErrorException with a 404 status when the contact no
+    *                                  longer exists.
     */
    public FreshdeskContactInfo update(final String freshdeskDomain,
          final Long contactId, final FreshdeskContactSpec updateSpec) {
@@ -78,14 +264,73 @@ public class FreshdeskContactService {
       final HttpEntity<FreshdeskContactSpec> requestEntity = new HttpEntity<>(
             updateSpec, new HttpHeaders());
 
-      final ResponseEntity<FreshdeskContactInfo> response = _restTemplate.exchange(
-            getFreshdeskApiUrl(freshdeskDomain, contactId.toString()),
-            HttpMethod.PUT, requestEntity, FreshdeskContactInfo.class);
+      final ResponseEntity<FreshdeskContactInfo> response;
+      try {
+         response = call(freshdeskDomain, () -> _restTemplate.exchange(
+               getFreshdeskApiUrl(freshdeskDomain, contactId.toString()),
+               HttpMethod.PUT, requestEntity, FreshdeskContactInfo.class));
+      } catch (final HttpClientErrorException e) {
+         if (HttpStatus.NOT_FOUND.equals(e.getStatusCode())
+               && updateSpec.uniqueExternalId != null) {
+            _logger.info("The Freshdesk contact {} no longer exists.",
+                  contactId);
+            forget(freshdeskDomain, updateSpec.uniqueExternalId);
+         }
+         throw e;
+      }
 
       _logger.info("Updated contact info {}.", response.getBody());
+      remember(freshdeskDomain, updateSpec.uniqueExternalId, contactId,
+            updateSpec.fingerprint());
       return response.getBody();
    }
 
+   /**
+    * Updates an existing {@link FreshdeskContactInfo}, unless it already holds
+    * the data to update. The skipped updates are counted by the
+    * {@code freshdesk.contact.updates.skipped} counter.
+    *
+    * @param existingContact The contact to update.
+    * @param updateSpec      The data to update.
+    * @return The updated {@link FreshdeskContactInfo}, or the existing one
+    * when unchanged.
+    */
+   public FreshdeskContactInfo updateIfChanged(final String freshdeskDomain,
+         final FreshdeskContactInfo existingContact,
+         final FreshdeskContactSpec updateSpec) {
+      if (existingContact.fingerprint().equals(updateSpec.fingerprint())) {
+         skipUpdate(existingContact.id);
+         return existingContact;
+      }
+      return update(freshdeskDomain, existingContact.id, updateSpec);
+   }
+
+   /**
+    * Updates a contact found by {@link #findMappedContact}, unless the
+    * remembered fingerprint of its data matches the data to update. The
+    * skipped updates are counted by the
+    * {@code freshdesk.contact.updates.skipped} counter.
+    * </p>
+    * A change made to the contact in Freshdesk directly is not seen, until
+    * the data to update changes too.
+    *
+    * @param mappedContact The contact to update.
+    * @param updateSpec    The data to update.
+    * @return Whether the contact was updated.
+    * @throws HttpClientErrorException with a 404 status when the contact no
+    *                                  longer exists.
+    */
+   public boolean updateMappedIfChanged(final String freshdeskDomain,
+         final MappedContact mappedContact,
+         final FreshdeskContactSpec updateSpec) {
+      if (updateSpec.fingerprint().equals(mappedContact.fingerprint())) {
+         skipUpdate(mappedContact.contactId());
+         return false;
+      }
+      update(freshdeskDomain, mappedContact.contactId(), updateSpec);
+      return true;
+   }
+
    /**
     * Creates a new {@link FreshdeskContactInfo}.
     *
@@ -98,19 +343,98 @@ public class FreshdeskContactService {
       final HttpEntity<FreshdeskContactSpec> requestEntity = new HttpEntity<>(
             createSpec, new HttpHeaders());
 
-      final ResponseEntity<FreshdeskContactInfo> response = _restTemplate.exchange(
-            getFreshdeskApiUrl(freshdeskDomain), HttpMethod.POST, requestEntity,
-            FreshdeskContactInfo.class);
+      final ResponseEntity<FreshdeskContactInfo> response = call(
+            freshdeskDomain, () -> _restTemplate.exchange(
+                  getFreshdeskApiUrl(freshdeskDomain), HttpMethod.POST,
+                  requestEntity, FreshdeskContactInfo.class));
 
       _logger.info("Successfully created a Freshdesk contact {}.",
             response.getBody());
+      if (response.getBody() != null) {
+         remember(freshdeskDomain, createSpec.uniqueExternalId,
+               response.getBody().id, createSpec.fingerprint());
+      }
       return response.getBody();
    }
 
+   /**
+    * Sends a request to the Freshdesk API of a domain, holding a permit of
+    * the domain bulkhead only while the request is in flight.
+    *
+    * @throws com.account.error.BulkheadFullException when no permit is free
+    *                                                 in time.
+    */
+   private <T> ResponseEntity<T> call(final String freshdeskDomain,
+         final Supplier<ResponseEntity<T>> request) {
+      return _taskStageBulkheads.inFreshdeskDomainStage(freshdeskDomain,
+            request);
+   }
+
+   private void skipUpdate(final Long contactId) {
+      _logger.debug("Skipping the update of the unchanged contact {}.",
+            contactId);
+      _meterRegistry.counter("freshdesk.contact.updates.skipped").increment();
+   }
+
+   /**
+    * Maps the external ID of a contact to its ID and the fingerprint of its
+    * data. A failure to store the mapping only costs a lookup, or an update,
+    * later on, so it does not fail the caller.
+    */
+   private void remember(final String freshdeskDomain,
+         final String externalId, final Long contactId,
+         final String fingerprint) {
+      if (externalId == null || contactId == null) {
+         return;
+      }
+      try {
+         _identityMap.put(freshdeskDomain, externalId, contactId,
+               fingerprint);
+      } catch (final DataAccessException e) {
+         _logger.warn("Failed to map the external ID {} to contact {}.",
+               externalId, contactId, e);
+      }
+   }
+
+   private void forget(final String freshdeskDomain, final String externalId) {
+      try {
+         _identityMap.remove(freshdeskDomain, externalId);
+      } catch (final DataAccessException e) {
+         _logger.warn("Failed to remove the mapping of the external ID {}.",
+               externalId, e);
+      }
+   }
+
    private String getFreshdeskApiUrl(final String freshdeskDomain) {
       return getFreshdeskApiUrl(freshdeskDomain, "");
    }
 
+   /**
+    * The filter value is encoded explicitly, as a {@code +} left as is in the
+    * query (e.g. of a plus-addressed email) is decoded as a space. RFC 3986
+    * allows a {@code +} in a query, so it is not encoded by
+    * {@link UriUtils#encodeQueryParam} itself.
+    */
+   private URI getFreshdeskApiUri(final String freshdeskDomain,
+         final FreshdeskContactLookupStrategy strategy,
+         final String filterValue) {
+      return UriComponentsBuilder.fromHttpUrl(
+                  getFreshdeskApiUrl(freshdeskDomain))
+            .queryParam(strategy.queryParam(),
+                  UriUtils.encodeQueryParam(filterValue, StandardCharsets.UTF_8)
+                        .replace("+", "%2B"))
+            .build(true).toUri();
+   }
+
+   private URI getFreshdeskContactsPageUri(final String freshdeskDomain,
+         final int page) {
+      return UriComponentsBuilder.fromHttpUrl(
+                  getFreshdeskApiUrl(freshdeskDomain))
+            .queryParam("per_page", CONTACTS_PAGE_SIZE)
+            .queryParam("page", page)
+            .build().toUri();
+   }
+
    private String getFreshdeskApiUrl(final String freshdeskDomain,
          final String contactId) {
       return UriComponentsBuilder.fromHttpUrl(
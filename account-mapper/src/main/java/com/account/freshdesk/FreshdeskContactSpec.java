@@ -1,5 +1,11 @@
 package com.account.freshdesk;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
 import com.account.constants.Constants;
 import com.account.github.GithubAccountInfo;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -23,6 +29,37 @@ public class FreshdeskContactSpec {
       return spec;
    }
 
+   /**
+    * @return A stable fingerprint of the contact data, equal to the
+    * {@link FreshdeskContactInfo#fingerprint()} of a contact holding the same
+    * data.
+    */
+   public String fingerprint() {
+      return fingerprint(name, email, address, uniqueExternalId);
+   }
+
+   /**
+    * Hashes the written contact fields. A missing field equals an empty one
+    * and the email is compared case-insensitively, as Freshdesk stores it in
+    * lower case.
+    */
+   static String fingerprint(final String name, final String email,
+         final String address, final String uniqueExternalId) {
+      final String data = String.join("\u001f", normalize(name),
+            normalize(email).toLowerCase(Locale.ROOT), normalize(address),
+            normalize(uniqueExternalId));
+      try {
+         return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+               .digest(data.getBytes(StandardCharsets.UTF_8)));
+      } catch (final NoSuchAlgorithmException e) {
+         throw new IllegalStateException(e);
+      }
+   }
+
+   private static String normalize(final String value) {
+      return value == null ? "" : value.strip();
+   }
+
    @Override
    public String toString() {
       return String.format(
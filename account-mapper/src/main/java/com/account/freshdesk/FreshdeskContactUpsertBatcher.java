@@ -0,0 +1,182 @@
+package com.account.freshdesk;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A micro-batching stage for Freshdesk contact upserts.
+ * </p>
+ * The upserts submitted for the same Freshdesk domain within a short window
+ * are collected in a batch. A batch coalesces the upserts of the same
+ * contact, so it is looked up once and only the latest upsert is written,
+ * and completes the result of every submitted upsert individually.
+ * </p>
+ * The existing contacts are looked up one by one with the narrow
+ * unique_external_id filter, whatever the batch size. A listing of all the
+ * contacts would cost a request per page of the whole domain, as the new
+ * contacts are never found in it.
+ * </p>
+ * Freshdesk does not offer a JSON bulk create / update of contacts (the CSV
+ * contact imports report their failures per job, not per contact), so the
+ * writes of a batch are still sent one by one.
+ */
+@Component
+public class FreshdeskContactUpsertBatcher {
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final FreshdeskContactService _freshdeskContactService;
+   private final DistributionSummary _batchSizes;
+   private final boolean _enabled;
+   private final long _windowMillis;
+   private final int _maxSize;
+   private final Map<String, List<PendingUpsert>> _batches = new HashMap<>();
+   private final ScheduledExecutorService _executor;
+
+   /**
+    * @param enabled      Whether the upserts are batched at all.
+    * @param windowMillis The time an upsert waits for other upserts of the
+    *                     same domain to join its batch.
+    * @param maxSize      The batch size at which the batch is flushed
+    *                     without waiting for the window to pass.
+    * @param threads      The number of threads flushing batches.
+    */
+   @Autowired
+   public FreshdeskContactUpsertBatcher(
+         final FreshdeskContactService freshdeskContactService,
+         final MeterRegistry meterRegistry,
+         @Value("${freshdesk.contact.batch.enabled}") final boolean enabled,
+         @Value("${freshdesk.contact.batch.window.millis}") final long windowMillis,
+         @Value("${freshdesk.contact.batch.max.size}") final int maxSize,
+         @Value("${freshdesk.contact.batch.thread.pool.size}") final int threads) {
+      _freshdeskContactService = freshdeskContactService;
+      _batchSizes = meterRegistry.summary("freshdesk.contact.upsert.batch.size");
+      _enabled = enabled;
+      _windowMillis = windowMillis;
+      _maxSize = maxSize;
+      _executor = Executors.newScheduledThreadPool(threads,
+            new CustomizableThreadFactory("FreshdeskContactBatcher-"));
+   }
+
+   public boolean isEnabled() {
+      return _enabled;
+   }
+
+   /**
+    * Submits a contact upsert to the batch of its Freshdesk domain.
+    *
+    * @param freshdeskDomain The target Freshdesk domain.
+    * @param contactSpec     The contact to create or update.
+    * @return A future completed with the created or updated contact, or with
+    * the error of the Freshdesk API call.
+    */
+   public CompletableFuture<FreshdeskContactInfo> submit(
+         final String freshdeskDomain, final FreshdeskContactSpec contactSpec) {
+      final PendingUpsert upsert = new PendingUpsert(contactSpec,
+            new CompletableFuture<>());
+      List<PendingUpsert> fullBatch = null;
+      synchronized (_batches) {
+         final List<PendingUpsert> batch = _batches.computeIfAbsent(
+               freshdeskDomain, domain -> new ArrayList<>());
+         batch.add(upsert);
+         if (batch.size() >= _maxSize) {
+            fullBatch = _batches.remove(freshdeskDomain);
+         } else if (batch.size() == 1) {
+            _executor.schedule(() -> flush(freshdeskDomain), _windowMillis,
+                  TimeUnit.MILLISECONDS);
+         }
+      }
+      if (fullBatch != null) {
+         final List<PendingUpsert> batch = fullBatch;
+         _executor.execute(() -> flush(freshdeskDomain, batch));
+      }
+      return upsert.result;
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      _executor.shutdown();
+   }
+
+   private void flush(final String freshdeskDomain) {
+      final List<PendingUpsert> batch;
+      synchronized (_batches) {
+         batch = _batches.remove(freshdeskDomain);
+      }
+      if (batch != null) {
+         flush(freshdeskDomain, batch);
+      }
+   }
+
+   private void flush(final String freshdeskDomain,
+         final List<PendingUpsert> batch) {
+      _batchSizes.record(batch.size());
+      final Map<String, List<PendingUpsert>> upsertsByExternalId = batch.stream()
+            .collect(Collectors.groupingBy(
+                  upsert -> upsert.contactSpec.uniqueExternalId,
+                  LinkedHashMap::new, Collectors.toList()));
+      _logger.debug("Flushing {} upserts of {} contacts to domain {}.",
+            batch.size(), upsertsByExternalId.size(), freshdeskDomain);
+
+      final Map<String, FreshdeskContactInfo> existingContacts;
+      try {
+         existingContacts = findExistingContacts(freshdeskDomain,
+               upsertsByExternalId);
+      } catch (final RuntimeException e) {
+         batch.forEach(upsert -> upsert.result.completeExceptionally(e));
+         return;
+      }
+
+      upsertsByExternalId.forEach((externalId, upserts) -> {
+         // The latest submitted data of the contact wins
+         final FreshdeskContactSpec contactSpec = upserts.get(
+               upserts.size() - 1).contactSpec;
+         final FreshdeskContactInfo existingContact = existingContacts.get(
+               externalId);
+         try {
+            final FreshdeskContactInfo contact = existingContact == null
+                  ? _freshdeskContactService.create(freshdeskDomain,
+                  contactSpec) : _freshdeskContactService.updateIfChanged(
+                  freshdeskDomain, existingContact, contactSpec);
+            upserts.forEach(upsert -> upsert.result.complete(contact));
+         } catch (final RuntimeException e) {
+            upserts.forEach(upsert -> upsert.result.completeExceptionally(e));
+         }
+      });
+   }
+
+   private Map<String, FreshdeskContactInfo> findExistingContacts(
+         final String freshdeskDomain,
+         final Map<String, List<PendingUpsert>> upsertsByExternalId) {
+      final Map<String, FreshdeskContactInfo> existingContacts = new HashMap<>();
+      upsertsByExternalId.forEach((externalId, upserts) -> {
+         final String email = upserts.get(upserts.size() - 1).contactSpec.email;
+         _freshdeskContactService.findByExternalId(freshdeskDomain, externalId,
+               email).ifPresent(
+               contact -> existingContacts.put(externalId, contact));
+      });
+      return existingContacts;
+   }
+
+   record PendingUpsert(FreshdeskContactSpec contactSpec,
+                        CompletableFuture<FreshdeskContactInfo> result) {
+   }
+}
@@ -0,0 +1,191 @@
+package com.account.github;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A micro-batching stage for GitHub account lookups.
+ * </p>
+ * The accounts looked up within a short window are collected in a batch,
+ * which is resolved by a single GraphQL query of up to {@code maxSize}
+ * accounts. The result of every lookup is completed individually, with a 404
+ * {@link HttpClientErrorException} for the accounts that GraphQL reports as
+ * not found.
+ * </p>
+ * When the GraphQL API rejects the query (e.g. the API key is not allowed to
+ * use it), the accounts of the batch are looked up one by one through the
+ * REST API instead. So are the accounts left unresolved by a failure of their
+ * own field of the query (e.g. a timeout).
+ */
+@Component
+public class GitHubAccountLookupBatcher {
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final GitHubAccountService _gitHubAccountService;
+   private final DistributionSummary _batchSizes;
+   private final Counter _fallbacks;
+   private final boolean _enabled;
+   private final long _windowMillis;
+   private final int _maxSize;
+   private final List<PendingLookup> _batch = new ArrayList<>();
+   private final ScheduledExecutorService _executor;
+
+   /**
+    * @param enabled      Whether the lookups are batched at all.
+    * @param windowMillis The time a lookup waits for other lookups to join
+    *                     its batch.
+    * @param maxSize      The batch size at which the batch is flushed without
+    *                     waiting for the window to pass.
+    * @param threads      The number of threads flushing batches.
+    */
+   @Autowired
+   public GitHubAccountLookupBatcher(
+         final GitHubAccountService gitHubAccountService,
+         final MeterRegistry meterRegistry,
+         @Value("${github.account.batch.enabled}") final boolean enabled,
+         @Value("${github.account.batch.window.millis}") final long windowMillis,
+         @Value("${github.account.batch.max.size}") final int maxSize,
+         @Value("${github.account.batch.thread.pool.size}") final int threads) {
+      _gitHubAccountService = gitHubAccountService;
+      _batchSizes = meterRegistry.summary("github.account.lookup.batch.size");
+      _fallbacks = meterRegistry.counter("github.account.lookup.fallbacks");
+      _enabled = enabled;
+      _windowMillis = windowMillis;
+      _maxSize = maxSize;
+      _executor = Executors.newScheduledThreadPool(threads,
+            new CustomizableThreadFactory("GitHubAccountBatcher-"));
+   }
+
+   public boolean isEnabled() {
+      return _enabled;
+   }
+
+   /**
+    * Submits an account lookup to the current batch.
+    *
+    * @param account The account to retrieve information for.
+    * @return A future completed with the retrieved account, or with the error
+    * of the GitHub API call.
+    */
+   public CompletableFuture<GithubAccountInfo> submit(final String account) {
+      final PendingLookup lookup = new PendingLookup(account,
+            new CompletableFuture<>());
+      List<PendingLookup> fullBatch = null;
+      synchronized (_batch) {
+         _batch.add(lookup);
+         if (_batch.size() >= _maxSize) {
+            fullBatch = takeBatch();
+         } else if (_batch.size() == 1) {
+            _executor.schedule(this::flushCurrentBatch, _windowMillis,
+                  TimeUnit.MILLISECONDS);
+         }
+      }
+      if (fullBatch != null) {
+         final List<PendingLookup> batch = fullBatch;
+         _executor.execute(() -> flush(batch));
+      }
+      return lookup.result;
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      _executor.shutdown();
+   }
+
+   private List<PendingLookup> takeBatch() {
+      final List<PendingLookup> batch = List.copyOf(_batch);
+      _batch.clear();
+      return batch;
+   }
+
+   private void flushCurrentBatch() {
+      final List<PendingLookup> batch;
+      synchronized (_batch) {
+         batch = takeBatch();
+      }
+      if (!batch.isEmpty()) {
+         flush(batch);
+      }
+   }
+
+   private void flush(final List<PendingLookup> batch) {
+      _batchSizes.record(batch.size());
+      final Map<String, List<PendingLookup>> lookupsByAccount = batch.stream()
+            .collect(Collectors.groupingBy(lookup -> lookup.account,
+                  LinkedHashMap::new, Collectors.toList()));
+      _logger.debug("Flushing {} lookups of {} GitHub accounts.", batch.size(),
+            lookupsByAccount.size());
+
+      final GitHubAccountService.Accounts accounts;
+      try {
+         accounts = _gitHubAccountService.getAll(lookupsByAccount.keySet());
+      } catch (final HttpClientErrorException e) {
+         if (HttpStatus.TOO_MANY_REQUESTS.equals(e.getStatusCode())) {
+            batch.forEach(lookup -> lookup.result.completeExceptionally(e));
+         } else {
+            _logger.warn(
+                  "The GitHub GraphQL API rejected the query with {}. Falling back to the REST API.",
+                  e.getStatusCode());
+            lookupsByAccount.forEach(this::lookUpOneByOne);
+         }
+         return;
+      } catch (final RuntimeException e) {
+         batch.forEach(lookup -> lookup.result.completeExceptionally(e));
+         return;
+      }
+
+      lookupsByAccount.forEach((account, lookups) -> {
+         final GithubAccountInfo accountInfo = accounts.found().get(account);
+         if (accountInfo != null) {
+            lookups.forEach(lookup -> lookup.result.complete(accountInfo));
+         } else if (accounts.notFound().contains(account)) {
+            final HttpClientErrorException notFound = new HttpClientErrorException(
+                  HttpStatus.NOT_FOUND);
+            lookups.forEach(
+                  lookup -> lookup.result.completeExceptionally(notFound));
+         } else {
+            _logger.debug(
+                  "The GitHub GraphQL query left the account {} unresolved. Falling back to the REST API.",
+                  account);
+            lookUpOneByOne(account, lookups);
+         }
+      });
+   }
+
+   private void lookUpOneByOne(final String account,
+         final List<PendingLookup> lookups) {
+      _fallbacks.increment();
+      try {
+         final GithubAccountInfo accountInfo = _gitHubAccountService.get(
+               account);
+         lookups.forEach(lookup -> lookup.result.complete(accountInfo));
+      } catch (final RuntimeException e) {
+         lookups.forEach(lookup -> lookup.result.completeExceptionally(e));
+      }
+   }
+
+   record PendingLookup(String account,
+                        CompletableFuture<GithubAccountInfo> result) {
+   }
+}
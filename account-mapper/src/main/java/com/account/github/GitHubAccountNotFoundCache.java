@@ -0,0 +1,96 @@
+package com.account.github;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A bounded, least recently used cache of the GitHub logins found not to
+ * exist, so the resubmissions of a mistyped login do not call the GitHub API
+ * again.
+ * </p>
+ * A login is remembered for {@code ttlMillis}, after which it is looked up
+ * again, as it may have been registered in the meantime. The logins are
+ * case-insensitive, as on GitHub.
+ */
+@Component
+public class GitHubAccountNotFoundCache {
+
+   private final Map<String, Long> _expirations;
+   private final long _ttlNanos;
+   private final Counter _hits;
+   private final Counter _misses;
+
+   /**
+    * @param maxSize   The max number of cached logins.
+    * @param ttlMillis The time a login is remembered for.
+    */
+   @Autowired
+   public GitHubAccountNotFoundCache(final MeterRegistry meterRegistry,
+         @Value("${github.account.not.found.cache.max.size}") final int maxSize,
+         @Value("${github.account.not.found.cache.ttl.millis}") final long ttlMillis) {
+      _expirations = new LinkedHashMap<>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(
+               final Map.Entry<String, Long> eldest) {
+            return size() > maxSize;
+         }
+      };
+      _ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+      _hits = meterRegistry.counter("github.account.not.found.cache.requests",
+            "result", "hit");
+      _misses = meterRegistry.counter(
+            "github.account.not.found.cache.requests", "result", "miss");
+      meterRegistry.gauge("github.account.not.found.cache.size", this,
+            GitHubAccountNotFoundCache::size);
+   }
+
+   /**
+    * @param login The GitHub login.
+    * @return Whether the login was recently found not to exist.
+    */
+   public boolean isNotFound(final String login) {
+      final String key = key(login);
+      synchronized (_expirations) {
+         final Long expiresAt = _expirations.get(key);
+         if (expiresAt != null && expiresAt - System.nanoTime() > 0) {
+            _hits.increment();
+            return true;
+         }
+         if (expiresAt != null) {
+            _expirations.remove(key);
+         }
+      }
+      _misses.increment();
+      return false;
+   }
+
+   /**
+    * Remembers a login the GitHub API did not find.
+    *
+    * @param login The GitHub login.
+    */
+   public void markNotFound(final String login) {
+      synchronized (_expirations) {
+         _expirations.put(key(login), System.nanoTime() + _ttlNanos);
+      }
+   }
+
+   private int size() {
+      synchronized (_expirations) {
+         return _expirations.size();
+      }
+   }
+
+   private static String key(final String login) {
+      return login.toLowerCase(Locale.ROOT);
+   }
+}
@@ -1,16 +1,27 @@
 package com.account.github;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.account.constants.Constants;
+import com.fasterxml.jackson.databind.JsonNode;
 
 /**
  * A service to retrieve information about a GitHub account.
@@ -19,15 +30,19 @@ import com.account.constants.Constants;
 public class GitHubAccountService {
    private final Logger _logger = LoggerFactory.getLogger(getClass());
    private final RestTemplate restTemplate;
+   private final GitHubRequestHedger _requestHedger;
 
    @Autowired
-   public GitHubAccountService(final RestTemplate restTemplate) {
+   public GitHubAccountService(final RestTemplate restTemplate,
+         final GitHubRequestHedger requestHedger) {
       this.restTemplate = restTemplate;
+      _requestHedger = requestHedger;
    }
 
    /**
     * Retrieves the {@link GithubAccountInfo} of a given account using the
-    * configured REST API.
+    * configured REST API. A slow request is hedged by the
+    * {@link GitHubRequestHedger}.
     *
     * @param account The account to retrieve information for.
     * @return The retrieved {@GithubAccountInfo} data.
@@ -43,12 +58,114 @@ public class GitHubAccountService {
       final HttpEntity<Void> requestEntity = new HttpEntity<>(
             new HttpHeaders());
 
-      final GithubAccountInfo userAccount = restTemplate.exchange(url,
-            HttpMethod.GET, requestEntity, GithubAccountInfo.class).getBody();
+      final GithubAccountInfo userAccount = _requestHedger.execute(
+            () -> restTemplate.exchange(url, HttpMethod.GET, requestEntity,
+                  GithubAccountInfo.class).getBody());
       _logger.info(String.format(
             "Successfully retrieved information about GitHub user '%s'.",
             account));
       _logger.debug(String.format("GitHub user: %s", userAccount));
       return userAccount;
    }
+
+   /**
+    * Retrieves the {@link GithubAccountInfo}s of multiple accounts with a
+    * single query to the GraphQL API. Every account is looked up by an
+    * aliased {@code repositoryOwner(login:)} field of the query, which
+    * resolves both users and organizations, like the REST API.
+    * </p>
+    * An account is reported as not existing only when its field failed with
+    * a {@code NOT_FOUND} error. The field of an account may also fail with
+    * another error (e.g. a timeout), which leaves the account unresolved.
+    *
+    * @param accounts The accounts to retrieve information for.
+    * @return The retrieved {@link GithubAccountInfo}s and the accounts that do
+    * not exist.
+    * @throws HttpClientErrorException with a 429 status when the GraphQL rate
+    *                                  limit is exceeded.
+    * @throws IllegalStateException    when the query fails as a whole.
+    */
+   public Accounts getAll(
+         final Collection<String> accounts) {
+      _logger.info("Retrieving information about {} GitHub users.",
+            accounts.size());
+      final List<String> logins = List.copyOf(accounts);
+      final StringBuilder declarations = new StringBuilder();
+      final StringBuilder fields = new StringBuilder();
+      final Map<String, String> variables = new LinkedHashMap<>();
+      for (int i = 0; i < logins.size(); i++) {
+         declarations.append(i == 0 ? "" : ", ").append("$l").append(i)
+               .append(": String!");
+         fields.append(" u").append(i).append(": repositoryOwner(login: $l")
+               .append(i).append(") { login")
+               .append(" ... on User { databaseId location email }")
+               .append(" ... on Organization { databaseId location email } }");
+         variables.put("l" + i, logins.get(i));
+      }
+      final Map<String, Object> query = Map.of("query",
+            "query(" + declarations + ") {" + fields + " }", "variables",
+            variables);
+
+      final JsonNode response = restTemplate.postForObject(
+            Constants.GITHUB_API_URL + Constants.GITHUB_GRAPHQL_API_PATH,
+            new HttpEntity<>(query, new HttpHeaders()), JsonNode.class);
+      final JsonNode data = response == null ? null : response.get("data");
+      if (data == null || !data.isObject()) {
+         final JsonNode errors = response == null ? null : response.get("errors");
+         if (errors != null && errors.findValuesAsText("type")
+               .contains("RATE_LIMITED")) {
+            throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+         }
+         throw new IllegalStateException(
+               "The GitHub GraphQL query failed: " + errors);
+      }
+
+      final Set<String> notFoundAliases = new HashSet<>();
+      for (final JsonNode error : response.path("errors")) {
+         if ("NOT_FOUND".equals(error.path("type").asText())) {
+            notFoundAliases.add(error.path("path").path(0).asText());
+         }
+      }
+      final Map<String, GithubAccountInfo> userAccounts = new HashMap<>();
+      final Set<String> notFound = new HashSet<>();
+      for (int i = 0; i < logins.size(); i++) {
+         final JsonNode user = data.get("u" + i);
+         if (user != null && user.isObject()) {
+            userAccounts.put(logins.get(i), toGithubAccountInfo(user));
+         } else if (notFoundAliases.contains("u" + i)) {
+            notFound.add(logins.get(i));
+         }
+      }
+      _logger.info(
+            "Retrieved information about {} of {} GitHub users, {} do not exist.",
+            userAccounts.size(), logins.size(), notFound.size());
+      return new Accounts(userAccounts, notFound);
+   }
+
+   private static GithubAccountInfo toGithubAccountInfo(final JsonNode user) {
+      final GithubAccountInfo userAccount = new GithubAccountInfo();
+      userAccount.id = user.path("databaseId").asText(null);
+      userAccount.name = user.path("login").asText(null);
+      // GraphQL returns empty strings for the fields a user did not make
+      // public, where REST returns nulls
+      userAccount.location = textOrNull(user.path("location"));
+      userAccount.email = textOrNull(user.path("email"));
+      return userAccount;
+   }
+
+   private static String textOrNull(final JsonNode node) {
+      final String text = node.asText(null);
+      return text == null || text.isEmpty() ? null : text;
+   }
+
+   /**
+    * The outcome of a GraphQL lookup of multiple accounts. The looked up
+    * accounts, which are neither found nor missing, are unresolved.
+    *
+    * @param found    The retrieved {@link GithubAccountInfo}s by their account.
+    * @param notFound The accounts that do not exist.
+    */
+   public record Accounts(Map<String, GithubAccountInfo> found,
+                          Set<String> notFound) {
+   }
 }
@@ -0,0 +1,280 @@
+package com.account.github;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import com.account.deadline.TaskDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Hedges the idempotent GitHub requests to cut their tail latency.
+ * </p>
+ * When a request has not answered within the {@code percentile} of the
+ * recent request latencies, a second identical request is sent and the first
+ * answer of the two is used. A failed answer is only used when the other
+ * request fails as well. The request still running once the other answered
+ * is cancelled, and its thread interrupted, so it frees its pool thread as
+ * soon as its HTTP client gives up.
+ * </p>
+ * The extra load is capped by a budget: every request earns
+ * {@code budgetRatio} of a hedge, up to {@code maxBudget} hedges, so at most
+ * about {@code budgetRatio} of the requests are hedged even when the GitHub
+ * API is slow as a whole.
+ * </p>
+ * The requests run on a bounded pool, with a thread per task executor thread
+ * and per hedge of the budget. A request the pool has no thread for runs on
+ * the calling thread, and a hedge it has no thread for is not sent.
+ */
+@Component
+public class GitHubRequestHedger {
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final MeterRegistry _meterRegistry;
+   private final boolean _enabled;
+   private final double _percentile;
+   private final long _minDelayMillis;
+   private final double _budgetRatio;
+   private final double _maxBudget;
+   private final long[] _latencies;
+   private final ExecutorService _executor;
+   private int _latencyCount;
+   private long _delayMillis;
+   private double _budget;
+
+   /**
+    * @param enabled           Whether the requests are hedged at all.
+    * @param percentile        The percentile of the recent latencies after
+    *                          which a request is hedged, e.g. {@code 0.95}.
+    * @param minDelayMillis    The min time a request waits before it is
+    *                          hedged.
+    * @param latencyWindowSize The number of recent latencies the percentile is
+    *                          calculated of.
+    * @param budgetRatio       The max ratio of hedged requests.
+    * @param maxBudget         The max number of hedges saved up while the
+    *                          requests are fast.
+    * @param executorThreads   The max number of threads of the task
+    *                          executor, which sends the requests.
+    * @param highPriorityExecutorThreads The max number of threads of the
+    *                          high priority task executor.
+    */
+   @Autowired
+   public GitHubRequestHedger(final MeterRegistry meterRegistry,
+         @Value("${github.request.hedging.enabled}") final boolean enabled,
+         @Value("${github.request.hedging.percentile}") final double percentile,
+         @Value("${github.request.hedging.min.delay.millis}") final long minDelayMillis,
+         @Value("${github.request.hedging.latency.window.size}") final int latencyWindowSize,
+         @Value("${github.request.hedging.budget.ratio}") final double budgetRatio,
+         @Value("${github.request.hedging.max.budget}") final double maxBudget,
+         @Value("${create.contact.task.executor.max.pool.size}") final int executorThreads,
+         @Value("${create.contact.task.executor.high.priority.max.pool.size}") final int highPriorityExecutorThreads) {
+      _meterRegistry = meterRegistry;
+      _enabled = enabled;
+      _percentile = percentile;
+      _minDelayMillis = minDelayMillis;
+      _budgetRatio = budgetRatio;
+      _maxBudget = maxBudget;
+      _latencies = new long[latencyWindowSize];
+      _delayMillis = minDelayMillis;
+      final int threads = executorThreads + highPriorityExecutorThreads
+            + (int) Math.ceil(maxBudget);
+      final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads,
+            threads, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+            new CustomizableThreadFactory("GitHubRequestHedger-"));
+      executor.allowCoreThreadTimeOut(true);
+      _executor = executor;
+      meterRegistry.gauge("github.request.hedging.delay.millis", this,
+            GitHubRequestHedger::delayMillis);
+   }
+
+   /**
+    * Runs a request, hedged if it does not answer in time.
+    *
+    * @param request The idempotent request to run.
+    * @return The first answer of the request, or its hedge.
+    */
+   public <T> T execute(final Supplier<T> request) {
+      if (!_enabled) {
+         return request.get();
+      }
+      final long delayMillis = earnBudgetAndGetDelay();
+      final CompletableFuture<T> primary;
+      try {
+         primary = submit(request);
+      } catch (final RejectedExecutionException e) {
+         count("rejected");
+         return request.get();
+      }
+      try {
+         final T result = primary.get(delayMillis, TimeUnit.MILLISECONDS);
+         count("not.hedged");
+         return result;
+      } catch (final TimeoutException e) {
+         // Hedged below
+      } catch (final ExecutionException e) {
+         count("not.hedged");
+         throw unwrap(e.getCause());
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("Interrupted while waiting for "
+               + "a GitHub request.", e);
+      }
+      if (!spendBudget()) {
+         count("budget.exhausted");
+         return join(primary);
+      }
+      final CompletableFuture<T> hedge;
+      try {
+         hedge = submit(request);
+      } catch (final RejectedExecutionException e) {
+         refundBudget();
+         count("rejected");
+         return join(primary);
+      }
+      count("hedged");
+      _logger.debug("Hedging a GitHub request slower than {} ms.",
+            delayMillis);
+      final CompletableFuture<T> first = new CompletableFuture<>();
+      primary.whenComplete((result, error) -> answer(first, result, error,
+            hedge, "primary"));
+      hedge.whenComplete((result, error) -> answer(first, result, error,
+            primary, "hedge"));
+      return join(first);
+   }
+
+   @PreDestroy
+   public void shutdown() {
+      _executor.shutdown();
+   }
+
+   synchronized long delayMillis() {
+      return _delayMillis;
+   }
+
+   private <T> CompletableFuture<T> submit(final Supplier<T> request) {
+      // The request runs with the deadline of the calling task
+      final Supplier<T> deadlineRequest = TaskDeadline.propagate(request);
+      final CompletableFuture<T> answer = new CompletableFuture<>();
+      final Future<?> task = _executor.submit(() -> {
+         final long start = System.nanoTime();
+         try {
+            answer.complete(deadlineRequest.get());
+         } catch (final Throwable e) {
+            answer.completeExceptionally(e);
+         } finally {
+            // A cancelled request did not run to its answer
+            if (!answer.isCancelled()) {
+               recordLatency(TimeUnit.NANOSECONDS.toMillis(
+                     System.nanoTime() - start));
+            }
+         }
+      });
+      // Cancelling the answer interrupts the thread running the request
+      answer.whenComplete((result, error) -> {
+         if (answer.isCancelled()) {
+            task.cancel(true);
+         }
+      });
+      return answer;
+   }
+
+   /**
+    * Completes the answer with the result of one of the requests, unless it
+    * failed while the other request may still succeed, and cancels the other
+    * request.
+    */
+   private <T> void answer(final CompletableFuture<T> first, final T result,
+         final Throwable error, final CompletableFuture<T> other,
+         final String winner) {
+      if (error != null && !other.isDone()) {
+         return;
+      }
+      synchronized (first) {
+         if (first.isDone()) {
+            return;
+         }
+         _meterRegistry.counter("github.request.hedging.wins", "winner",
+               winner).increment();
+         if (error == null) {
+            first.complete(result);
+         } else {
+            first.completeExceptionally(error);
+         }
+      }
+      other.cancel(true);
+   }
+
+   private synchronized long earnBudgetAndGetDelay() {
+      _budget = Math.min(_maxBudget, _budget + _budgetRatio);
+      return _delayMillis;
+   }
+
+   private synchronized boolean spendBudget() {
+      if (_budget < 1) {
+         return false;
+      }
+      _budget--;
+      return true;
+   }
+
+   private synchronized void refundBudget() {
+      _budget = Math.min(_maxBudget, _budget + 1);
+   }
+
+   /**
+    * Records the latency of a request and recalculates the hedging delay
+    * once per a tenth of the latency window.
+    */
+   private synchronized void recordLatency(final long latencyMillis) {
+      _latencies[_latencyCount % _latencies.length] = latencyMillis;
+      _latencyCount++;
+      if (_latencyCount % Math.max(1, _latencies.length / 10) == 0) {
+         final long[] latencies = Arrays.copyOf(_latencies,
+               Math.min(_latencyCount, _latencies.length));
+         Arrays.sort(latencies);
+         _delayMillis = Math.max(_minDelayMillis,
+               latencies[(int) Math.ceil(_percentile * latencies.length) - 1]);
+      }
+      if (_latencyCount == 2 * _latencies.length) {
+         // Keeps the count from overflowing, without moving the ring index
+         _latencyCount = _latencies.length;
+      }
+   }
+
+   private void count(final String result) {
+      _meterRegistry.counter("github.request.hedging.requests", "result",
+            result).increment();
+   }
+
+   private static <T> T join(final CompletableFuture<T> future) {
+      try {
+         return future.join();
+      } catch (final CompletionException e) {
+         throw unwrap(e.getCause());
+      }
+   }
+
+   private static RuntimeException unwrap(final Throwable cause) {
+      if (cause instanceof RuntimeException runtimeException) {
+         return runtimeException;
+      }
+      return new IllegalStateException(cause);
+   }
+}
@@ -0,0 +1,339 @@
+package com.account.ingestion;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.account.entity.CreateContactTaskEntity;
+import com.account.service.CreateContactTaskService;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.Limit;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisCommandExecutionException;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import io.lettuce.core.models.stream.PendingMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingests tasks from the entries of a Redis stream, read through a consumer
+ * group.
+ * </p>
+ * An entry holds the {@code origin}, {@code account} and {@code domain}
+ * fields, and an optional {@code priority}. The entries are read in batches
+ * of up to {@code batchSize} with {@code XREADGROUP}, stored with a single
+ * {@link CreateContactTaskService#createAll(List)} and acknowledged with
+ * {@code XACK} only once stored, so an entry is never lost. Invalid entries
+ * are logged and acknowledged, so they do not block the stream.
+ * </p>
+ * On start, the entries this consumer read but did not acknowledge before a
+ * crash are ingested first. The entries other consumers left pending for
+ * longer than {@code claimIdleMillis} are reclaimed with
+ * {@code XAUTOCLAIM} every {@code claimIdleMillis}.
+ * </p>
+ * When a batch fails to be stored, its entries are ingested one by one, so a
+ * single poison entry does not block the others. An entry failing after
+ * {@code maxDeliveries} deliveries, as counted by {@code XPENDING}, is copied
+ * to the {@code deadLetterStream} with the ID and the error of its failure,
+ * and acknowledged.
+ */
+@Component
+@ConditionalOnProperty(name = "task.ingestion.redis.enabled", havingValue = "true")
+public class RedisStreamTaskIngester {
+
+   private static final String PENDING_OFFSET = "0";
+   private static final String CLAIM_START = "0-0";
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final CreateContactTaskService _createContactTaskService;
+   private final String _uri;
+   private final String _stream;
+   private final Consumer<String> _consumer;
+   private final int _batchSize;
+   private final long _blockMillis;
+   private final long _claimIdleMillis;
+   private final int _maxDeliveries;
+   private final String _deadLetterStream;
+   private final Counter _created;
+   private final Counter _duplicates;
+   private final Counter _invalid;
+   private final Counter _deadLettered;
+   private final Counter _reclaimed;
+   private RedisClient _client;
+   private StatefulRedisConnection<String, String> _connection;
+   private RedisCommands<String, String> _commands;
+   private volatile boolean _running;
+   private Thread _reader;
+
+   /**
+    * @param uri             The Redis URI.
+    * @param stream          The key of the stream.
+    * @param group           The consumer group, created if missing.
+    * @param consumer        The unique name of this consumer in the group.
+    * @param batchSize       The max number of entries read at once.
+    * @param blockMillis     The max time a read waits for new entries.
+    * @param claimIdleMillis  The time after which the pending entries of
+    *                         another consumer are reclaimed.
+    * @param maxDeliveries    The number of deliveries after which a failing
+    *                         entry is dead-lettered.
+    * @param deadLetterStream The key of the stream of the dead-lettered
+    *                         entries.
+    */
+   @Autowired
+   public RedisStreamTaskIngester(
+         final CreateContactTaskService createContactTaskService,
+         final MeterRegistry meterRegistry,
+         @Value("${task.ingestion.redis.uri}") final String uri,
+         @Value("${task.ingestion.redis.stream}") final String stream,
+         @Value("${task.ingestion.redis.group}") final String group,
+         @Value("${task.ingestion.redis.consumer}") final String consumer,
+         @Value("${task.ingestion.redis.batch.size}") final int batchSize,
+         @Value("${task.ingestion.redis.block.millis}") final long blockMillis,
+         @Value("${task.ingestion.redis.claim.idle.millis}") final long claimIdleMillis,
+         @Value("${task.ingestion.redis.max.deliveries}") final int maxDeliveries,
+         @Value("${task.ingestion.redis.dead.letter.stream}") final String deadLetterStream) {
+      _createContactTaskService = createContactTaskService;
+      _uri = uri;
+      _stream = stream;
+      _consumer = Consumer.from(group, consumer);
+      _batchSize = batchSize;
+      _blockMillis = blockMillis;
+      _claimIdleMillis = claimIdleMillis;
+      _maxDeliveries = maxDeliveries;
+      _deadLetterStream = deadLetterStream;
+      _created = meterRegistry.counter("task.ingestion.redis.entries",
+            "result", "created");
+      _duplicates = meterRegistry.counter("task.ingestion.redis.entries",
+            "result", "duplicate");
+      _invalid = meterRegistry.counter("task.ingestion.redis.entries",
+            "result", "invalid");
+      _deadLettered = meterRegistry.counter("task.ingestion.redis.entries",
+            "result", "dead_lettered");
+      _reclaimed = meterRegistry.counter("task.ingestion.redis.reclaimed");
+   }
+
+   @PostConstruct
+   public void start() {
+      _client = RedisClient.create(_uri);
+      _connection = _client.connect();
+      _commands = _connection.sync();
+      createGroup();
+      _running = true;
+      _reader = new Thread(this::consume, "RedisStreamTaskIngester");
+      _reader.start();
+   }
+
+   /**
+    * Stops reading once the current batch is ingested.
+    */
+   @PreDestroy
+   public void stop() throws InterruptedException {
+      _running = false;
+      if (_reader != null) {
+         _reader.join();
+      }
+      if (_connection != null) {
+         _connection.close();
+         _client.shutdown();
+      }
+   }
+
+   private void createGroup() {
+      try {
+         _commands.xgroupCreate(XReadArgs.StreamOffset.from(_stream, "$"),
+               _consumer.getGroup(), XGroupCreateArgs.Builder.mkstream());
+      } catch (final RedisCommandExecutionException e) {
+         if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+            throw e;
+         }
+      }
+   }
+
+   private void consume() {
+      boolean pending = true;
+      long nextClaim = 0;
+      while (_running) {
+         try {
+            if (System.currentTimeMillis() >= nextClaim) {
+               reclaim();
+               nextClaim = System.currentTimeMillis() + _claimIdleMillis;
+            }
+            final List<StreamMessage<String, String>> entries = read(pending);
+            if (entries.isEmpty()) {
+               pending = false;
+            } else {
+               ingest(entries);
+            }
+         } catch (final RuntimeException e) {
+            _logger.error("Failed to ingest the entries of the stream {}.",
+                  _stream, e);
+            // The entries not acknowledged are read again
+            pending = true;
+            pause();
+         }
+      }
+   }
+
+   /**
+    * @param pending Whether to read the entries this consumer has not
+    *                acknowledged yet, instead of new entries.
+    */
+   private List<StreamMessage<String, String>> read(final boolean pending) {
+      if (pending) {
+         return _commands.xreadgroup(_consumer,
+               XReadArgs.Builder.count(_batchSize),
+               XReadArgs.StreamOffset.from(_stream, PENDING_OFFSET));
+      }
+      return _commands.xreadgroup(_consumer,
+            XReadArgs.Builder.count(_batchSize).block(_blockMillis),
+            XReadArgs.StreamOffset.lastConsumed(_stream));
+   }
+
+   private void reclaim() {
+      String start = CLAIM_START;
+      do {
+         final ClaimedMessages<String, String> claimed = _commands.xautoclaim(
+               _stream, XAutoClaimArgs.Builder.xautoclaim(_consumer,
+                     Duration.ofMillis(_claimIdleMillis), start)
+                     .count(_batchSize));
+         if (!claimed.getMessages().isEmpty()) {
+            _logger.info("Reclaimed {} pending entries of the stream {}.",
+                  claimed.getMessages().size(), _stream);
+            _reclaimed.increment(claimed.getMessages().size());
+            ingest(claimed.getMessages());
+         }
+         start = claimed.getId();
+      } while (_running && !CLAIM_START.equals(start));
+   }
+
+   /**
+    * Ingests a batch of entries, or its entries one by one when the batch
+    * fails.
+    *
+    * @throws RuntimeException when an entry, which was not delivered
+    *                          {@code maxDeliveries} times yet, fails, so it is
+    *                          read again.
+    */
+   private void ingest(final List<StreamMessage<String, String>> entries) {
+      try {
+         store(entries);
+         return;
+      } catch (final RuntimeException e) {
+         if (entries.size() == 1) {
+            if (!deadLetterIfExhausted(entries.get(0), e)) {
+               throw e;
+            }
+            return;
+         }
+         _logger.warn(
+               "Failed to ingest a batch of {} entries of the stream {}. Ingesting them one by one.",
+               entries.size(), _stream, e);
+      }
+      RuntimeException failure = null;
+      for (final StreamMessage<String, String> entry : entries) {
+         try {
+            store(List.of(entry));
+         } catch (final RuntimeException e) {
+            if (!deadLetterIfExhausted(entry, e)) {
+               failure = e;
+            }
+         }
+      }
+      if (failure != null) {
+         throw failure;
+      }
+   }
+
+   /**
+    * Stores the tasks of the valid entries and acknowledges all the entries.
+    */
+   private void store(final List<StreamMessage<String, String>> entries) {
+      final List<CreateContactTaskEntity> tasks = new ArrayList<>(
+            entries.size());
+      for (final StreamMessage<String, String> entry : entries) {
+         try {
+            tasks.add(toTask(entry.getBody()));
+         } catch (final IllegalArgumentException e) {
+            _invalid.increment();
+            _logger.warn("Skipping the invalid entry {}: {}", entry.getId(),
+                  e.getMessage());
+         }
+      }
+      if (!tasks.isEmpty()) {
+         final int created = _createContactTaskService.createAll(tasks)
+               .size();
+         _created.increment(created);
+         _duplicates.increment(tasks.size() - created);
+      }
+      _commands.xack(_stream, _consumer.getGroup(), entries.stream()
+            .map(StreamMessage::getId).toArray(String[]::new));
+   }
+
+   /**
+    * Moves a failing entry to the dead letter stream and acknowledges it,
+    * once it was delivered {@code maxDeliveries} times.
+    *
+    * @return Whether the entry was dead-lettered.
+    */
+   private boolean deadLetterIfExhausted(
+         final StreamMessage<String, String> entry,
+         final RuntimeException failure) {
+      final List<PendingMessage> pending = _commands.xpending(_stream,
+            _consumer.getGroup(), Range.create(entry.getId(), entry.getId()),
+            Limit.from(1));
+      final long deliveries = pending.isEmpty() ? 0
+            : pending.get(0).getRedeliveryCount();
+      if (deliveries < _maxDeliveries) {
+         return false;
+      }
+      final Map<String, String> fields = new LinkedHashMap<>();
+      if (entry.getBody() != null) {
+         fields.putAll(entry.getBody());
+      }
+      fields.put("entry", entry.getId());
+      fields.put("error", String.valueOf(failure));
+      _commands.xadd(_deadLetterStream, fields);
+      _commands.xack(_stream, _consumer.getGroup(), entry.getId());
+      _deadLettered.increment();
+      _logger.error("Moved the entry {} to the stream {} after {} deliveries.",
+            entry.getId(), _deadLetterStream, deliveries, failure);
+      return true;
+   }
+
+   private CreateContactTaskEntity toTask(final Map<String, String> fields) {
+      if (fields == null) {
+         // The entry was deleted from the stream while pending
+         throw new IllegalArgumentException("The entry no longer exists.");
+      }
+      return _createContactTaskService.newTask(fields.get("account"),
+            fields.get("origin"), fields.get("domain"),
+            fields.get("priority"));
+   }
+
+   private void pause() {
+      try {
+         Thread.sleep(_blockMillis);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         _running = false;
+      }
+   }
+}
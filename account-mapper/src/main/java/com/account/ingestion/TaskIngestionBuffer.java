@@ -0,0 +1,302 @@
+package com.account.ingestion;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.error.DuplicateTaskException;
+import com.account.error.IngestionBufferFullException;
+import com.account.service.CreateContactTaskService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A bounded in-memory buffer of submitted tasks, which are stored by a
+ * background writer with grouped bulk inserts (group commit).
+ * </p>
+ * The writer flushes the buffered tasks every {@code flushSize} tasks, or
+ * every {@code flushIntervalMillis} since the first task of the group was
+ * taken, whichever comes first. When the buffer is full, new tasks are
+ * rejected, so the submitters get backpressure instead of an unbounded
+ * queue.
+ * </p>
+ * A task acknowledged before it is stored may still be rejected as a
+ * duplicate, or fail to be stored. The IDs of the buffered tasks and of the
+ * rejected ones are kept, the latter for {@code rejectedTtlMillis} and up to
+ * {@code rejectedMaxSize} IDs, so a lookup of such an ID tells what happened
+ * to the task (see {@link #stateOf}).
+ */
+@Component
+public class TaskIngestionBuffer {
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final CreateContactTaskService _createContactTaskService;
+   private final boolean _enabled;
+   private final Constants.IngestionDurability _durability;
+   private final int _flushSize;
+   private final long _flushIntervalMillis;
+   private final long _persistTimeoutMillis;
+   private final BlockingQueue<PendingTask> _buffer;
+   private final Map<String, PendingTask> _buffered = new ConcurrentHashMap<>();
+   private final Map<String, Rejection> _rejections;
+   private final long _rejectedTtlNanos;
+   private final Counter _rejected;
+   private final Counter _duplicates;
+   private final DistributionSummary _flushSizes;
+   private volatile boolean _running;
+   private Thread _writer;
+
+   /**
+    * @param enabled             Whether the tasks are ingested asynchronously.
+    * @param durability          When an ingested task is acknowledged.
+    * @param capacity            The max number of buffered tasks.
+    * @param flushSize           The max number of tasks stored at once.
+    * @param flushIntervalMillis  The max time a group waits for more tasks.
+    * @param persistTimeoutMillis The max time a submitter waits for its task
+    *                             to be stored with the {@code PERSISTED}
+    *                             durability.
+    * @param rejectedMaxSize      The max number of rejected task IDs kept.
+    * @param rejectedTtlMillis    The time a rejected task ID is kept for.
+    */
+   @Autowired
+   public TaskIngestionBuffer(
+         final CreateContactTaskService createContactTaskService,
+         final MeterRegistry meterRegistry,
+         @Value("${create.contact.task.ingestion.async.enabled}") final boolean enabled,
+         @Value("${create.contact.task.ingestion.durability}") final Constants.IngestionDurability durability,
+         @Value("${create.contact.task.ingestion.buffer.capacity}") final int capacity,
+         @Value("${create.contact.task.ingestion.flush.size}") final int flushSize,
+         @Value("${create.contact.task.ingestion.flush.interval.millis}") final long flushIntervalMillis,
+         @Value("${create.contact.task.ingestion.persist.timeout.millis}") final long persistTimeoutMillis,
+         @Value("${create.contact.task.ingestion.rejected.max.size}") final int rejectedMaxSize,
+         @Value("${create.contact.task.ingestion.rejected.ttl.millis}") final long rejectedTtlMillis) {
+      _createContactTaskService = createContactTaskService;
+      _enabled = enabled;
+      _durability = durability;
+      _flushSize = flushSize;
+      _flushIntervalMillis = flushIntervalMillis;
+      _persistTimeoutMillis = persistTimeoutMillis;
+      _buffer = new ArrayBlockingQueue<>(capacity);
+      _rejections = new LinkedHashMap<>() {
+         @Override
+         protected boolean removeEldestEntry(
+               final Map.Entry<String, Rejection> eldest) {
+            return size() > rejectedMaxSize;
+         }
+      };
+      _rejectedTtlNanos = TimeUnit.MILLISECONDS.toNanos(rejectedTtlMillis);
+      meterRegistry.gaugeCollectionSize("task.ingestion.buffer.size", List.of(),
+            _buffer);
+      _rejected = meterRegistry.counter("task.ingestion.rejected");
+      _duplicates = meterRegistry.counter("task.ingestion.duplicates");
+      _flushSizes = meterRegistry.summary("task.ingestion.flush.size");
+   }
+
+   public boolean isEnabled() {
+      return _enabled;
+   }
+
+   public Constants.IngestionDurability durability() {
+      return _durability;
+   }
+
+   public long persistTimeoutMillis() {
+      return _persistTimeoutMillis;
+   }
+
+   /**
+    * Assigns an ID to a new task and buffers it to be stored.
+    *
+    * @param task - The new task built by
+    *             {@link CreateContactTaskService#newTask}.
+    * @return The buffered task, with a future completed once the task is
+    * stored.
+    * @throws IngestionBufferFullException when the buffer is full.
+    */
+   public PendingTask accept(final CreateContactTaskEntity task) {
+      task.id = new ObjectId().toHexString();
+      final PendingTask pendingTask = new PendingTask(task,
+            new CompletableFuture<>());
+      // Registered first, so the writer never stores a task not yet known
+      _buffered.put(task.id, pendingTask);
+      if (!_buffer.offer(pendingTask)) {
+         _buffered.remove(task.id);
+         _rejected.increment();
+         throw new IngestionBufferFullException(
+               "The task ingestion buffer is full. Please retry later.");
+      }
+      return pendingTask;
+   }
+
+   /**
+    * Tells what happened to an acknowledged task, which is not stored.
+    *
+    * @param taskId - The ID of the task.
+    * @return The state of the task, if it is still buffered, or was
+    * recently rejected.
+    */
+   public Optional<IngestionState> stateOf(final String taskId) {
+      if (_buffered.containsKey(taskId)) {
+         return Optional.of(IngestionState.BUFFERED);
+      }
+      synchronized (_rejections) {
+         final Rejection rejection = _rejections.get(taskId);
+         if (rejection == null) {
+            return Optional.empty();
+         }
+         if (rejection.expiresAt() - System.nanoTime() <= 0) {
+            _rejections.remove(taskId);
+            return Optional.empty();
+         }
+         return Optional.of(rejection.state());
+      }
+   }
+
+   @PostConstruct
+   public void start() {
+      if (!_enabled) {
+         return;
+      }
+      _running = true;
+      _writer = new Thread(this::write, "TaskIngestionWriter");
+      _writer.start();
+   }
+
+   /**
+    * Stops the writer once all buffered tasks are stored.
+    */
+   @PreDestroy
+   public void stop() throws InterruptedException {
+      _running = false;
+      if (_writer != null) {
+         _writer.join();
+      }
+   }
+
+   private void write() {
+      final List<PendingTask> group = new ArrayList<>(_flushSize);
+      while (_running || !_buffer.isEmpty()) {
+         try {
+            final PendingTask first = _buffer.poll(_flushIntervalMillis,
+                  TimeUnit.MILLISECONDS);
+            if (first == null) {
+               continue;
+            }
+            group.add(first);
+            final long flushAt = System.nanoTime()
+                  + TimeUnit.MILLISECONDS.toNanos(_flushIntervalMillis);
+            while (group.size() < _flushSize) {
+               _buffer.drainTo(group, _flushSize - group.size());
+               final long remaining = flushAt - System.nanoTime();
+               if (group.size() >= _flushSize || remaining <= 0) {
+                  break;
+               }
+               final PendingTask next = _buffer.poll(remaining,
+                     TimeUnit.NANOSECONDS);
+               if (next != null) {
+                  group.add(next);
+               }
+            }
+            flush(group);
+         } catch (final InterruptedException e) {
+            _logger.warn("The task ingestion writer was interrupted.");
+            Thread.currentThread().interrupt();
+            flush(group);
+            return;
+         } finally {
+            group.clear();
+         }
+      }
+   }
+
+   void flush(final List<PendingTask> group) {
+      if (group.isEmpty()) {
+         return;
+      }
+      _flushSizes.record(group.size());
+      final List<CreateContactTaskEntity> createdTasks;
+      try {
+         createdTasks = _createContactTaskService.createAll(
+               group.stream().map(PendingTask::task).toList());
+      } catch (final RuntimeException e) {
+         _logger.error("Failed to store {} ingested tasks.", group.size(), e);
+         for (final PendingTask pendingTask : group) {
+            pendingTask.result().completeExceptionally(e);
+            reject(pendingTask, IngestionState.FAILED);
+         }
+         return;
+      }
+      final Set<String> createdTaskIds = new HashSet<>();
+      createdTasks.forEach(task -> createdTaskIds.add(task.id));
+      for (final PendingTask pendingTask : group) {
+         if (createdTaskIds.contains(pendingTask.task().id)) {
+            pendingTask.result().complete(pendingTask.task());
+            _buffered.remove(pendingTask.task().id);
+         } else {
+            _duplicates.increment();
+            pendingTask.result().completeExceptionally(
+                  new DuplicateTaskException(
+                        "A duplicate pending task already exists."));
+            reject(pendingTask, IngestionState.DUPLICATE);
+         }
+      }
+   }
+
+   private void reject(final PendingTask pendingTask,
+         final IngestionState state) {
+      synchronized (_rejections) {
+         _rejections.put(pendingTask.task().id,
+               new Rejection(state, System.nanoTime() + _rejectedTtlNanos));
+      }
+      _buffered.remove(pendingTask.task().id);
+   }
+
+   /**
+    * The state of an acknowledged task, which is not stored.
+    */
+   public enum IngestionState {
+      /**
+       * Waiting to be stored.
+       */
+      BUFFERED,
+      /**
+       * Not stored, as a duplicate pending task already exists.
+       */
+      DUPLICATE,
+      /**
+       * Not stored, as the store failed.
+       */
+      FAILED
+   }
+
+   private record Rejection(IngestionState state, long expiresAt) {
+   }
+
+   /**
+    * A buffered task along with the future of its storage.
+    */
+   public record PendingTask(CreateContactTaskEntity task,
+                             CompletableFuture<CreateContactTaskEntity> result) {
+   }
+}
@@ -0,0 +1,138 @@
+package com.account.interceptor;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import com.account.deadline.TaskDeadline;
+import com.account.error.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * An interceptor that limits the concurrent calls to every upstream host with
+ * an {@link AimdConcurrencyLimit}, so the task executions follow the health of
+ * the upstream APIs instead of the static executor pool sizes.
+ * </p>
+ * A call waits up to {@code acquireTimeoutMillis}, or the time left by its
+ * {@link TaskDeadline}, for a permit and otherwise fails with a
+ * {@link ConcurrencyLimitExceededException}, so its task is retried later
+ * on without counting the attempt. Timeouts, 429 and 502-504 responses count as overload. The current
+ * limit of every upstream is published as the
+ * {@code upstream.concurrency.limit} gauge.
+ */
+@Component
+public class AdaptiveConcurrencyLimitInterceptor
+      implements ClientHttpRequestInterceptor {
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final Map<String, AimdConcurrencyLimit> _limits = new ConcurrentHashMap<>();
+   private final MeterRegistry _meterRegistry;
+   private final boolean _enabled;
+   private final int _initialLimit;
+   private final int _minLimit;
+   private final int _maxLimit;
+   private final double _backoffRatio;
+   private final long _latencyThresholdMillis;
+   private final long _acquireTimeoutMillis;
+
+   /**
+    * @param enabled                Whether the calls are limited at all.
+    * @param initialLimit           The limit of an upstream before any call.
+    * @param minLimit               The lowest limit of an upstream.
+    * @param maxLimit               The highest limit of an upstream.
+    * @param backoffRatio           The ratio the limit is multiplied by on
+    *                               overload.
+    * @param latencyThresholdMillis The latency above which a call counts as
+    *                               overload.
+    * @param acquireTimeoutMillis   The max time a call waits for a permit.
+    */
+   @Autowired
+   public AdaptiveConcurrencyLimitInterceptor(final MeterRegistry meterRegistry,
+         @Value("${upstream.concurrency.limit.enabled}") final boolean enabled,
+         @Value("${upstream.concurrency.limit.initial}") final int initialLimit,
+         @Value("${upstream.concurrency.limit.min}") final int minLimit,
+         @Value("${upstream.concurrency.limit.max}") final int maxLimit,
+         @Value("${upstream.concurrency.limit.backoff.ratio}") final double backoffRatio,
+         @Value("${upstream.concurrency.limit.latency.threshold.millis}") final long latencyThresholdMillis,
+         @Value("${upstream.concurrency.limit.acquire.timeout.millis}") final long acquireTimeoutMillis) {
+      _meterRegistry = meterRegistry;
+      _enabled = enabled;
+      _initialLimit = initialLimit;
+      _minLimit = minLimit;
+      _maxLimit = maxLimit;
+      _backoffRatio = backoffRatio;
+      _latencyThresholdMillis = latencyThresholdMillis;
+      _acquireTimeoutMillis = acquireTimeoutMillis;
+   }
+
+   @Override
+   public ClientHttpResponse intercept(final HttpRequest request,
+         final byte[] body, final ClientHttpRequestExecution execution)
+         throws IOException {
+      if (!_enabled) {
+         return execution.execute(request, body);
+      }
+      final String upstream = request.getURI().getHost();
+      final AimdConcurrencyLimit limit = _limits.computeIfAbsent(upstream,
+            this::newLimit);
+      acquire(upstream, limit);
+      final long start = System.nanoTime();
+      boolean overloaded = true;
+      try {
+         final ClientHttpResponse response = execution.execute(request, body);
+         overloaded = isOverloaded(response.getStatusCode());
+         return response;
+      } finally {
+         limit.release(System.nanoTime() - start, overloaded);
+      }
+   }
+
+   private void acquire(final String upstream,
+         final AimdConcurrencyLimit limit) {
+      try {
+         if (limit.acquire(
+               TaskDeadline.limitMillis(_acquireTimeoutMillis))) {
+            return;
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      _meterRegistry.counter("upstream.concurrency.rejected", "upstream",
+            upstream).increment();
+      _logger.debug("The concurrency limit of {} calls to {} is reached.",
+            limit.limit(), upstream);
+      throw new ConcurrencyLimitExceededException(
+            "The concurrency limit of " + upstream + " is reached.");
+   }
+
+   private AimdConcurrencyLimit newLimit(final String upstream) {
+      final AimdConcurrencyLimit limit = new AimdConcurrencyLimit(_initialLimit,
+            _minLimit, _maxLimit, _backoffRatio, _latencyThresholdMillis);
+      final Tags tags = Tags.of("upstream", upstream);
+      _meterRegistry.gauge("upstream.concurrency.limit", tags, limit,
+            AimdConcurrencyLimit::limit);
+      _meterRegistry.gauge("upstream.concurrency.in.flight", tags, limit,
+            AimdConcurrencyLimit::inFlight);
+      return limit;
+   }
+
+   private static boolean isOverloaded(final HttpStatusCode statusCode) {
+      return HttpStatus.TOO_MANY_REQUESTS.equals(statusCode)
+            || HttpStatus.BAD_GATEWAY.equals(statusCode)
+            || HttpStatus.SERVICE_UNAVAILABLE.equals(statusCode)
+            || HttpStatus.GATEWAY_TIMEOUT.equals(statusCode);
+   }
+}
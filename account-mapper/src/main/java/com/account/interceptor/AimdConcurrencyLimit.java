@@ -0,0 +1,78 @@
+package com.account.interceptor;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A concurrency limit adjusted with the additive increase / multiplicative
+ * decrease (AIMD) algorithm.
+ * </p>
+ * Every call completed within the latency threshold increases the limit by
+ * {@code 1 / limit}, so the limit grows by about one per round of calls.
+ * Every call that is slower than the threshold, or reports an overloaded
+ * upstream, multiplies the limit by the backoff ratio.
+ */
+class AimdConcurrencyLimit {
+
+   private final int _minLimit;
+   private final int _maxLimit;
+   private final double _backoffRatio;
+   private final long _latencyThresholdNanos;
+   private double _limit;
+   private int _inFlight;
+
+   AimdConcurrencyLimit(final int initialLimit, final int minLimit,
+         final int maxLimit, final double backoffRatio,
+         final long latencyThresholdMillis) {
+      _limit = initialLimit;
+      _minLimit = minLimit;
+      _maxLimit = maxLimit;
+      _backoffRatio = backoffRatio;
+      _latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(
+            latencyThresholdMillis);
+   }
+
+   /**
+    * Waits for a permit until the given timeout passes.
+    *
+    * @return Whether a permit is acquired.
+    */
+   synchronized boolean acquire(final long timeoutMillis)
+         throws InterruptedException {
+      final long deadline =
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      while (_inFlight >= limit()) {
+         final long remaining = deadline - System.nanoTime();
+         if (remaining <= 0) {
+            return false;
+         }
+         TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      }
+      _inFlight++;
+      return true;
+   }
+
+   /**
+    * Releases a permit and adjusts the limit to the outcome of the call.
+    *
+    * @param latencyNanos The latency of the call.
+    * @param overloaded   Whether the upstream reported to be overloaded.
+    */
+   synchronized void release(final long latencyNanos,
+         final boolean overloaded) {
+      _inFlight--;
+      if (overloaded || latencyNanos > _latencyThresholdNanos) {
+         _limit = Math.max(_minLimit, _limit * _backoffRatio);
+      } else {
+         _limit = Math.min(_maxLimit, _limit + 1 / _limit);
+      }
+      notifyAll();
+   }
+
+   synchronized int limit() {
+      return (int) _limit;
+   }
+
+   synchronized int inFlight() {
+      return _inFlight;
+   }
+}
@@ -0,0 +1,43 @@
+package com.account.interceptor;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import com.account.deadline.TaskDeadline;
+
+/**
+ * A request factory setting the timeouts of every upstream connection to the
+ * smaller of the configured timeout and the time left by the
+ * {@link TaskDeadline} of the calling task.
+ * </p>
+ * A call made once the deadline expired fails with a
+ * {@link com.account.error.DeadlineExceededException} before connecting.
+ */
+public class DeadlineClientHttpRequestFactory
+      extends SimpleClientHttpRequestFactory {
+
+   private final int _connectTimeoutMillis;
+   private final int _readTimeoutMillis;
+
+   /**
+    * @param connectTimeoutMillis The max time to connect to an upstream.
+    * @param readTimeoutMillis    The max time to wait for upstream data.
+    */
+   public DeadlineClientHttpRequestFactory(final int connectTimeoutMillis,
+         final int readTimeoutMillis) {
+      _connectTimeoutMillis = connectTimeoutMillis;
+      _readTimeoutMillis = readTimeoutMillis;
+   }
+
+   @Override
+   protected void prepareConnection(final HttpURLConnection connection,
+         final String httpMethod) throws IOException {
+      super.prepareConnection(connection, httpMethod);
+      connection.setConnectTimeout(
+            (int) TaskDeadline.limitMillis(_connectTimeoutMillis));
+      connection.setReadTimeout(
+            (int) TaskDeadline.limitMillis(_readTimeoutMillis));
+   }
+}
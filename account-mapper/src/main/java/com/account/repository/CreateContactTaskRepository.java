@@ -21,9 +21,4 @@ public interface CreateContactTaskRepository
          final String account, final Constants.AccountOrigin accountOrigin,
          final String freshdeskDomain);
 
-   List<CreateContactTaskEntity> findByStatusInOrAttemptsGreaterThanEqual(
-         List<Constants.CreateContactTaskStatus> statuses, int attemptsLimit);
-
-   List<CreateContactTaskEntity> findByStatusInOrderByUpdatedAsc(
-         List<Constants.CreateContactTaskStatus> statuses);
 }
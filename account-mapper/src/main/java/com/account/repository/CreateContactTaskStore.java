@@ -0,0 +1,103 @@
+package com.account.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.entity.CreateContactTaskStatistics;
+import com.account.entity.CreateContactTaskSummary;
+
+/**
+ * The storage abstraction of {@link CreateContactTaskEntity} used by the
+ * services and schedulers of the application.
+ * </p>
+ * The active implementation is selected via the
+ * {@code create.contact.task.store} property:
+ * * mongo - The default. Tasks are stored in a MongoDB collection.
+ * </p>
+ * * embedded - Tasks are kept in memory and journaled to a local file. Used
+ * for single-machine (e.g. CLI) runs that do not need a database.
+ * </p>
+ */
+public interface CreateContactTaskStore {
+   List<CreateContactTaskEntity> findByAccountAndAccountOriginAndFreshdeskDomain(
+         final String account, final Constants.AccountOrigin accountOrigin,
+         final String freshdeskDomain);
+
+   /**
+    * Finds the stored tasks in one of the given statuses for the same account,
+    * account origin and Freshdesk domain as any of the given tasks.
+    *
+    * @param tasks    The tasks to match the stored tasks with.
+    * @param statuses The statuses of the stored tasks.
+    * @return The matching stored tasks.
+    */
+   List<CreateContactTaskEntity> findMatchingByStatusIn(
+         Collection<CreateContactTaskEntity> tasks,
+         List<Constants.CreateContactTaskStatus> statuses);
+
+   /**
+    * Lazily scans the summaries of the tasks in one of the given statuses, or
+    * with at least the given number of attempts.
+    * </p>
+    * The returned stream may hold an open database cursor and must be closed.
+    *
+    * @param statuses      The statuses of the scanned tasks.
+    * @param attemptsLimit The min attempts of the scanned tasks.
+    * @return The stream of the task summaries.
+    */
+   Stream<CreateContactTaskSummary> streamSummariesByStatusInOrAttemptsGreaterThanEqual(
+         List<Constants.CreateContactTaskStatus> statuses, int attemptsLimit);
+
+   /**
+    * Lazily scans the summaries of the tasks in one of the given statuses in
+    * a (priority desc, updated asc) order.
+    * </p>
+    * The returned stream may hold an open database cursor and must be closed.
+    *
+    * @param statuses The statuses of the scanned tasks.
+    * @return The stream of the task summaries.
+    */
+   Stream<CreateContactTaskSummary> streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
+         List<Constants.CreateContactTaskStatus> statuses);
+
+   /**
+    * @return All stored tasks ordered by their last update date.
+    */
+   List<CreateContactTaskEntity> findAllOrderByUpdatedAsc();
+
+   /**
+    * Aggregates the task counts by status, Freshdesk domain and attempts
+    * without loading the tasks.
+    *
+    * @param pendingStatuses The statuses the oldest pending task is found in.
+    * @return The aggregated statistics of the stored tasks.
+    */
+   CreateContactTaskStatistics aggregateStatistics(
+         List<Constants.CreateContactTaskStatus> pendingStatuses);
+
+   Optional<CreateContactTaskEntity> findById(String id);
+
+   /**
+    * Saves the given task. A new ID is generated for tasks without one.
+    *
+    * @param task The task to save.
+    * @return The saved task.
+    */
+   CreateContactTaskEntity save(CreateContactTaskEntity task);
+
+   /**
+    * Stores multiple new tasks at once. A new ID is generated for tasks
+    * without one.
+    *
+    * @param tasks The tasks to insert.
+    * @return The inserted tasks.
+    */
+   List<CreateContactTaskEntity> insertAll(
+         Collection<CreateContactTaskEntity> tasks);
+
+   void deleteAllById(Collection<String> ids);
+}
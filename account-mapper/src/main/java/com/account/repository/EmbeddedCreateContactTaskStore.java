@@ -0,0 +1,283 @@
+package com.account.repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.entity.CreateContactTaskStatistics;
+import com.account.entity.CreateContactTaskSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A {@link CreateContactTaskStore} that keeps all tasks in memory and records
+ * every change in a memory-mapped {@link TaskJournal}, so no database is
+ * needed.
+ * </p>
+ * On startup the journal is replayed to recover the tasks of a previous run.
+ * The store hands out copies of the stored tasks, so callers cannot modify
+ * the stored state without saving it.
+ * </p>
+ * The IDs of the tasks are indexed by their account, account origin and
+ * Freshdesk domain, like the compound index of the MongoDB store, so the
+ * duplicate checks of an import do not scan all tasks.
+ */
+@Component
+@ConditionalOnProperty(name = "create.contact.task.store", havingValue = "embedded")
+public class EmbeddedCreateContactTaskStore implements CreateContactTaskStore {
+
+   private static final Comparator<CreateContactTaskEntity> BY_UPDATED = Comparator.comparing(
+         task -> task.updated, Comparator.nullsFirst(Comparator.naturalOrder()));
+   private static final Comparator<CreateContactTaskEntity> BY_PRIORITY_AND_UPDATED = Comparator.<CreateContactTaskEntity>comparingInt(
+         task -> task.priority).reversed().thenComparing(BY_UPDATED);
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final Map<String, CreateContactTaskEntity> _tasks = new ConcurrentHashMap<>();
+   private final Map<TaskKey, Set<String>> _idsByKey = new ConcurrentHashMap<>();
+   private final ObjectMapper _objectMapper = new ObjectMapper();
+   private final TaskJournal _journal;
+   private final Clock _clock;
+
+   public EmbeddedCreateContactTaskStore(
+         @Value("${create.contact.task.store.embedded.journal.path}") final String journalPath,
+         @Value("${create.contact.task.store.embedded.journal.initial.size.bytes}") final int journalInitialSize,
+         @Value("${create.contact.task.store.embedded.journal.sync}") final boolean journalSync,
+         final Clock clock) {
+      _clock = clock;
+      try {
+         _journal = new TaskJournal(Path.of(journalPath), journalInitialSize,
+               journalSync);
+         _journal.replay(this::apply);
+      } catch (final IOException e) {
+         throw new UncheckedIOException(
+               "Failed to open the task journal " + journalPath, e);
+      }
+      _logger.info("Recovered {} tasks from the task journal {}.",
+            _tasks.size(), journalPath);
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> findByAccountAndAccountOriginAndFreshdeskDomain(
+         final String account, final Constants.AccountOrigin accountOrigin,
+         final String freshdeskDomain) {
+      return copies(_idsByKey.getOrDefault(
+                  new TaskKey(account, accountOrigin, freshdeskDomain), Set.of())
+            .stream().map(_tasks::get).filter(Objects::nonNull));
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> findMatchingByStatusIn(
+         final Collection<CreateContactTaskEntity> tasks,
+         final List<Constants.CreateContactTaskStatus> statuses) {
+      return tasks.stream()
+            .flatMap(task -> findByAccountAndAccountOriginAndFreshdeskDomain(
+                  task.account, task.accountOrigin, task.freshdeskDomain).stream())
+            .filter(task -> statuses.contains(task.status)).toList();
+   }
+
+   @Override
+   public Stream<CreateContactTaskSummary> streamSummariesByStatusInOrAttemptsGreaterThanEqual(
+         final List<Constants.CreateContactTaskStatus> statuses,
+         final int attemptsLimit) {
+      return _tasks.values().stream()
+            .filter(task -> statuses.contains(task.status)
+                  || task.attempts >= attemptsLimit)
+            .map(CreateContactTaskSummary::of);
+   }
+
+   @Override
+   public Stream<CreateContactTaskSummary> streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
+         final List<Constants.CreateContactTaskStatus> statuses) {
+      // The sort buffers the references of the matching tasks only
+      return _tasks.values().stream()
+            .filter(task -> statuses.contains(task.status))
+            .sorted(BY_PRIORITY_AND_UPDATED)
+            .map(CreateContactTaskSummary::of);
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> findAllOrderByUpdatedAsc() {
+      return copies(_tasks.values().stream().sorted(BY_UPDATED));
+   }
+
+   @Override
+   public CreateContactTaskStatistics aggregateStatistics(
+         final List<Constants.CreateContactTaskStatus> pendingStatuses) {
+      final Map<Constants.CreateContactTaskStatus, Long> countsByStatus = new EnumMap<>(
+            Constants.CreateContactTaskStatus.class);
+      final Map<String, Map<Constants.CreateContactTaskStatus, Long>> countsByDomain = new LinkedHashMap<>();
+      final Map<Integer, Long> countsByAttempts = new TreeMap<>();
+      Date oldestPendingCreated = null;
+      for (final CreateContactTaskEntity task : _tasks.values()) {
+         countsByStatus.merge(task.status, 1L, Long::sum);
+         countsByDomain.computeIfAbsent(task.freshdeskDomain,
+                     domain -> new EnumMap<>(Constants.CreateContactTaskStatus.class))
+               .merge(task.status, 1L, Long::sum);
+         countsByAttempts.merge(task.attempts, 1L, Long::sum);
+         if (pendingStatuses.contains(task.status) && task.created != null
+               && (oldestPendingCreated == null
+               || task.created.before(oldestPendingCreated))) {
+            oldestPendingCreated = task.created;
+         }
+      }
+      return new CreateContactTaskStatistics(countsByStatus, countsByDomain,
+            countsByAttempts, oldestPendingCreated);
+   }
+
+   @Override
+   public Optional<CreateContactTaskEntity> findById(final String id) {
+      return Optional.ofNullable(_tasks.get(id))
+            .map(CreateContactTaskEntity::copy);
+   }
+
+   @Override
+   public synchronized CreateContactTaskEntity save(
+         final CreateContactTaskEntity task) {
+      final CreateContactTaskEntity stored = task.copy();
+      if (stored.id == null) {
+         stored.id = new ObjectId().toHexString();
+      }
+      // Emulate the auditing of the MongoDB store
+      final Date now = new Date(_clock.millis());
+      if (stored.created == null) {
+         stored.created = now;
+      }
+      stored.updated = now;
+      write(TaskJournal.PUT, serialize(stored));
+      put(stored);
+      return stored.copy();
+   }
+
+   @Override
+   public synchronized List<CreateContactTaskEntity> insertAll(
+         final Collection<CreateContactTaskEntity> tasks) {
+      return tasks.stream().map(this::save).toList();
+   }
+
+   @Override
+   public synchronized void deleteAllById(final Collection<String> ids) {
+      for (final String id : ids) {
+         if (remove(id) != null) {
+            write(TaskJournal.DELETE, id.getBytes(StandardCharsets.UTF_8));
+         }
+      }
+   }
+
+   @PreDestroy
+   public void close() throws IOException {
+      _journal.close();
+   }
+
+   private void write(final byte type, final byte[] payload) {
+      if (_journal.append(type, payload)) {
+         return;
+      }
+      _logger.debug("Compacting the task journal with {} live tasks.",
+            _tasks.size());
+      try {
+         // The writes are synchronized, so the tasks do not change in between
+         _journal.compact(() -> _tasks.values().stream().map(this::serialize),
+               payload.length);
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Failed to compact the task journal.",
+               e);
+      }
+      if (!_journal.append(type, payload)) {
+         throw new IllegalStateException(
+               "The task journal record does not fit after compaction.");
+      }
+   }
+
+   private void apply(final byte type, final byte[] payload) {
+      if (type == TaskJournal.DELETE) {
+         remove(new String(payload, StandardCharsets.UTF_8));
+         return;
+      }
+      try {
+         final CreateContactTaskEntity task = _objectMapper.readValue(payload,
+               CreateContactTaskEntity.class);
+         put(task);
+      } catch (final IOException e) {
+         throw new UncheckedIOException("Corrupted task journal record.", e);
+      }
+   }
+
+   /**
+    * Stores a task and indexes its ID, replacing the previous version.
+    */
+   private void put(final CreateContactTaskEntity task) {
+      final CreateContactTaskEntity previous = _tasks.put(task.id, task);
+      final TaskKey key = TaskKey.of(task);
+      if (previous != null && !TaskKey.of(previous).equals(key)) {
+         unindex(TaskKey.of(previous), previous.id);
+      }
+      _idsByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet())
+            .add(task.id);
+   }
+
+   private CreateContactTaskEntity remove(final String id) {
+      final CreateContactTaskEntity removed = _tasks.remove(id);
+      if (removed != null) {
+         unindex(TaskKey.of(removed), id);
+      }
+      return removed;
+   }
+
+   private void unindex(final TaskKey key, final String id) {
+      _idsByKey.computeIfPresent(key, (k, ids) -> {
+         ids.remove(id);
+         return ids.isEmpty() ? null : ids;
+      });
+   }
+
+   private byte[] serialize(final CreateContactTaskEntity task) {
+      try {
+         return _objectMapper.writeValueAsBytes(task);
+      } catch (final IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private static List<CreateContactTaskEntity> copies(
+         final Stream<CreateContactTaskEntity> tasks) {
+      return tasks.map(CreateContactTaskEntity::copy).toList();
+   }
+
+   /**
+    * The account, account origin and Freshdesk domain identifying the tasks
+    * of the same contact.
+    */
+   private record TaskKey(String account,
+                          Constants.AccountOrigin accountOrigin,
+                          String freshdeskDomain) {
+
+      static TaskKey of(final CreateContactTaskEntity task) {
+         return new TaskKey(task.account, task.accountOrigin,
+               task.freshdeskDomain);
+      }
+   }
+}
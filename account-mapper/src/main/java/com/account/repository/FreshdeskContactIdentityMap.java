@@ -0,0 +1,51 @@
+package com.account.repository;
+
+import java.util.Optional;
+
+/**
+ * Maps the unique external ID of a Freshdesk contact to the contact ID, per
+ * Freshdesk domain, so a contact mapped before is updated without looking it
+ * up again.
+ * </p>
+ * The fingerprint of the contact data last known to be stored in Freshdesk is
+ * kept next to the contact ID, so an unchanged contact is not updated again.
+ * </p>
+ * The active implementation follows the {@code create.contact.task.store}
+ * property:
+ * * mongo - The mappings are stored in a MongoDB collection shared by all
+ * nodes.
+ * </p>
+ * * embedded - The most recently used mappings are kept in memory.
+ * </p>
+ */
+public interface FreshdeskContactIdentityMap {
+
+   /**
+    * @return The contact mapped to the external ID, if any.
+    */
+   Optional<MappedContact> find(String freshdeskDomain, String externalId);
+
+   /**
+    * Maps the external ID to a contact ID, replacing the previous mapping.
+    *
+    * @param fingerprint The fingerprint of the contact data, or null when
+    *                    unknown.
+    */
+   void put(String freshdeskDomain, String externalId, long contactId,
+         String fingerprint);
+
+   /**
+    * Removes the mapping of an external ID, e.g. once its contact was deleted.
+    */
+   void remove(String freshdeskDomain, String externalId);
+
+   /**
+    * A contact mapped to an external ID.
+    *
+    * @param contactId   The ID of the contact.
+    * @param fingerprint The fingerprint of the contact data, or null when
+    *                    unknown.
+    */
+   record MappedContact(long contactId, String fingerprint) {
+   }
+}
@@ -0,0 +1,68 @@
+package com.account.repository;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * A {@link FreshdeskContactIdentityMap} keeping the {@code maxSize} most
+ * recently used mappings in memory, for the single-machine runs of the
+ * embedded task store.
+ */
+@Component
+@ConditionalOnProperty(name = "create.contact.task.store", havingValue = "embedded")
+public class InMemoryFreshdeskContactIdentityMap
+      implements FreshdeskContactIdentityMap {
+
+   private final Map<String, MappedContact> _contacts;
+
+   /**
+    * @param maxSize The max number of mappings kept.
+    */
+   @Autowired
+   public InMemoryFreshdeskContactIdentityMap(
+         @Value("${freshdesk.contact.identity.map.memory.max.size}") final int maxSize) {
+      _contacts = new LinkedHashMap<>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(
+               final Map.Entry<String, MappedContact> eldest) {
+            return size() > maxSize;
+         }
+      };
+   }
+
+   @Override
+   public Optional<MappedContact> find(final String freshdeskDomain,
+         final String externalId) {
+      synchronized (_contacts) {
+         return Optional.ofNullable(
+               _contacts.get(key(freshdeskDomain, externalId)));
+      }
+   }
+
+   @Override
+   public void put(final String freshdeskDomain, final String externalId,
+         final long contactId, final String fingerprint) {
+      synchronized (_contacts) {
+         _contacts.put(key(freshdeskDomain, externalId),
+               new MappedContact(contactId, fingerprint));
+      }
+   }
+
+   @Override
+   public void remove(final String freshdeskDomain, final String externalId) {
+      synchronized (_contacts) {
+         _contacts.remove(key(freshdeskDomain, externalId));
+      }
+   }
+
+   private static String key(final String freshdeskDomain,
+         final String externalId) {
+      return freshdeskDomain + '\n' + externalId;
+   }
+}
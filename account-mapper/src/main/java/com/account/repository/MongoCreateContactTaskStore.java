@@ -0,0 +1,221 @@
+package com.account.repository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.deadline.TaskDeadline;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.entity.CreateContactTaskStatistics;
+import com.account.entity.CreateContactTaskSummary;
+
+/**
+ * A {@link CreateContactTaskStore} backed by the MongoDB
+ * {@link CreateContactTaskRepository}.
+ * </p>
+ * The scans are streamed from a cursor fetching {@code scanBatchSize}
+ * documents per round trip, so a scan holds at most one batch in memory.
+ * </p>
+ * A task read by its ID is limited to {@code readMaxTimeMillis} on the
+ * server, or the time left by the {@link TaskDeadline} of the reading task.
+ * </p>
+ * The statistics are aggregated by the database in a single {@code $facet}
+ * pipeline, so only the counts are transferred.
+ * </p>
+ * The store is used only once the {@link MongoTaskSchemaMigration} has
+ * migrated the stored tasks.
+ */
+@Component
+@DependsOn("mongoTaskSchemaMigration")
+@ConditionalOnProperty(name = "create.contact.task.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoCreateContactTaskStore implements CreateContactTaskStore {
+
+   private final CreateContactTaskRepository _repository;
+   private final MongoTemplate _mongoTemplate;
+   private final int _scanBatchSize;
+   private final long _readMaxTimeMillis;
+
+   /**
+    * @param scanBatchSize     The documents fetched per cursor round trip.
+    * @param readMaxTimeMillis The max server time of a task read by its ID.
+    */
+   @Autowired
+   public MongoCreateContactTaskStore(
+         final CreateContactTaskRepository repository,
+         final MongoTemplate mongoTemplate,
+         @Value("${create.contact.task.store.scan.batch.size}") final int scanBatchSize,
+         @Value("${create.contact.task.store.read.max.time.millis}") final long readMaxTimeMillis) {
+      _repository = repository;
+      _mongoTemplate = mongoTemplate;
+      _scanBatchSize = scanBatchSize;
+      _readMaxTimeMillis = readMaxTimeMillis;
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> findByAccountAndAccountOriginAndFreshdeskDomain(
+         final String account, final Constants.AccountOrigin accountOrigin,
+         final String freshdeskDomain) {
+      return _repository.findByAccountAndAccountOriginAndFreshdeskDomain(
+            account, accountOrigin, freshdeskDomain);
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> findMatchingByStatusIn(
+         final Collection<CreateContactTaskEntity> tasks,
+         final List<Constants.CreateContactTaskStatus> statuses) {
+      if (tasks.isEmpty()) {
+         return List.of();
+      }
+      final Criteria[] accounts = tasks.stream()
+            .map(task -> Criteria.where("account").is(task.account)
+                  .and("accountOrigin").is(task.accountOrigin)
+                  .and("freshdeskDomain").is(task.freshdeskDomain))
+            .toArray(Criteria[]::new);
+      return _mongoTemplate.find(new Query(
+                  new Criteria().andOperator(Criteria.where("status").in(statuses),
+                        new Criteria().orOperator(accounts))),
+            CreateContactTaskEntity.class);
+   }
+
+   @Override
+   public Stream<CreateContactTaskSummary> streamSummariesByStatusInOrAttemptsGreaterThanEqual(
+         final List<Constants.CreateContactTaskStatus> statuses,
+         final int attemptsLimit) {
+      // The attempts condition is served by the cleanup_scan index
+      return scan(new Query(new Criteria().orOperator(
+            Criteria.where("status").in(statuses),
+            Criteria.where("attempts").gte(attemptsLimit))));
+   }
+
+   @Override
+   public Stream<CreateContactTaskSummary> streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
+         final List<Constants.CreateContactTaskStatus> statuses) {
+      // The summary fields are covered by the pending_scan index, so the scan
+      // is answered from the index alone
+      return scan(new Query(Criteria.where("status").in(statuses)).with(
+            Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("updated"))));
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> findAllOrderByUpdatedAsc() {
+      return _repository.findAll(Sort.by("updated"));
+   }
+
+   @Override
+   public CreateContactTaskStatistics aggregateStatistics(
+         final List<Constants.CreateContactTaskStatus> pendingStatuses) {
+      final Document facets = _mongoTemplate.getCollection(
+                  _mongoTemplate.getCollectionName(CreateContactTaskEntity.class))
+            .aggregate(statisticsPipeline(pendingStatuses)).first();
+      return statisticsOf(facets == null ? new Document() : facets);
+   }
+
+   @Override
+   public Optional<CreateContactTaskEntity> findById(final String id) {
+      return Optional.ofNullable(_mongoTemplate.findOne(
+            new Query(Criteria.where("id").is(id)).maxTime(Duration.ofMillis(
+                  TaskDeadline.limitMillis(_readMaxTimeMillis))),
+            CreateContactTaskEntity.class));
+   }
+
+   @Override
+   public CreateContactTaskEntity save(final CreateContactTaskEntity task) {
+      return _repository.save(task);
+   }
+
+   @Override
+   public List<CreateContactTaskEntity> insertAll(
+         final Collection<CreateContactTaskEntity> tasks) {
+      return _repository.insert(tasks);
+   }
+
+   @Override
+   public void deleteAllById(final Collection<String> ids) {
+      _repository.deleteAllById(ids);
+   }
+
+   /**
+    * Streams the {@link CreateContactTaskSummary} projection of the matching
+    * tasks, so only the summary fields are read from the documents.
+    */
+   private Stream<CreateContactTaskSummary> scan(final Query query) {
+      return _mongoTemplate.query(CreateContactTaskEntity.class)
+            .as(CreateContactTaskSummary.class)
+            .matching(query.cursorBatchSize(_scanBatchSize)).stream();
+   }
+
+   /**
+    * Counts the tasks by status and domain, and by attempts, and finds the
+    * oldest pending task, in one pass over the collection. The stored field
+    * names and status codes are used as is.
+    */
+   static List<Document> statisticsPipeline(
+         final List<Constants.CreateContactTaskStatus> pendingStatuses) {
+      final List<Integer> pendingCodes = pendingStatuses.stream()
+            .map(Constants.CreateContactTaskStatus::code).toList();
+      return List.of(new Document("$facet", new Document()
+            .append("byStatusAndDomain", List.of(new Document("$group",
+                  new Document("_id", new Document("s", "$s").append("d", "$d"))
+                        .append("count", new Document("$sum", 1)))))
+            .append("byAttempts", List.of(new Document("$group",
+                  new Document("_id", "$n")
+                        .append("count", new Document("$sum", 1)))))
+            .append("oldestPending", List.of(
+                  new Document("$match", new Document("s",
+                        new Document("$in", pendingCodes))),
+                  new Document("$group", new Document("_id", null)
+                        .append("created", new Document("$min", "$c")))))));
+   }
+
+   /**
+    * Maps the result document of the {@link #statisticsPipeline} back to the
+    * task statuses.
+    */
+   static CreateContactTaskStatistics statisticsOf(final Document facets) {
+      final Map<Constants.CreateContactTaskStatus, Long> countsByStatus = new EnumMap<>(
+            Constants.CreateContactTaskStatus.class);
+      final Map<String, Map<Constants.CreateContactTaskStatus, Long>> countsByDomain = new LinkedHashMap<>();
+      for (final Document group : facets.getList("byStatusAndDomain",
+            Document.class, List.of())) {
+         final Document id = group.get("_id", Document.class);
+         final Constants.CreateContactTaskStatus status = Constants.CreateContactTaskStatus.fromCode(
+               id.getInteger("s"));
+         final long count = group.get("count", Number.class).longValue();
+         countsByStatus.merge(status, count, Long::sum);
+         countsByDomain.computeIfAbsent(id.getString("d"),
+                     domain -> new EnumMap<>(Constants.CreateContactTaskStatus.class))
+               .merge(status, count, Long::sum);
+      }
+      final Map<Integer, Long> countsByAttempts = new TreeMap<>();
+      for (final Document group : facets.getList("byAttempts", Document.class,
+            List.of())) {
+         countsByAttempts.put(group.getInteger("_id", 0),
+               group.get("count", Number.class).longValue());
+      }
+      final List<Document> oldestPending = facets.getList("oldestPending",
+            Document.class, List.of());
+      final Date oldestPendingCreated = oldestPending.isEmpty() ? null
+            : oldestPending.get(0).getDate("created");
+      return new CreateContactTaskStatistics(countsByStatus, countsByDomain,
+            countsByAttempts, oldestPendingCreated);
+   }
+}
@@ -0,0 +1,77 @@
+package com.account.repository;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.account.deadline.TaskDeadline;
+import com.account.entity.FreshdeskContactIdentityEntity;
+
+/**
+ * A {@link FreshdeskContactIdentityMap} stored in the
+ * {@code freshdeskContactIdentity} collection, with a unique index on the
+ * Freshdesk domain and the external ID.
+ * </p>
+ * A lookup is limited to {@code readMaxTimeMillis} on the server, or the time
+ * left by the {@link TaskDeadline} of the looking up task.
+ */
+@Component
+@ConditionalOnProperty(name = "create.contact.task.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoFreshdeskContactIdentityMap
+      implements FreshdeskContactIdentityMap {
+
+   private final MongoTemplate _mongoTemplate;
+   private final long _readMaxTimeMillis;
+
+   /**
+    * @param readMaxTimeMillis The max server time of a lookup.
+    */
+   @Autowired
+   public MongoFreshdeskContactIdentityMap(final MongoTemplate mongoTemplate,
+         @Value("${freshdesk.contact.identity.map.read.max.time.millis}") final long readMaxTimeMillis) {
+      _mongoTemplate = mongoTemplate;
+      _readMaxTimeMillis = readMaxTimeMillis;
+   }
+
+   @Override
+   public Optional<MappedContact> find(final String freshdeskDomain,
+         final String externalId) {
+      final Query query = identity(freshdeskDomain, externalId);
+      query.fields().include("contactId", "fingerprint").exclude("id");
+      query.maxTime(Duration.ofMillis(
+            TaskDeadline.limitMillis(_readMaxTimeMillis)));
+      return Optional.ofNullable(
+                  _mongoTemplate.findOne(query, FreshdeskContactIdentityEntity.class))
+            .map(identity -> new MappedContact(identity.contactId,
+                  identity.fingerprint));
+   }
+
+   @Override
+   public void put(final String freshdeskDomain, final String externalId,
+         final long contactId, final String fingerprint) {
+      _mongoTemplate.upsert(identity(freshdeskDomain, externalId),
+            Update.update("contactId", contactId)
+                  .set("fingerprint", fingerprint),
+            FreshdeskContactIdentityEntity.class);
+   }
+
+   @Override
+   public void remove(final String freshdeskDomain, final String externalId) {
+      _mongoTemplate.remove(identity(freshdeskDomain, externalId),
+            FreshdeskContactIdentityEntity.class);
+   }
+
+   private static Query identity(final String freshdeskDomain,
+         final String externalId) {
+      return new Query(Criteria.where("freshdeskDomain").is(freshdeskDomain)
+            .and("externalId").is(externalId));
+   }
+}
@@ -0,0 +1,148 @@
+package com.account.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.result.UpdateResult;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Migrates the stored tasks to the current schema of
+ * {@link CreateContactTaskEntity} before the task store is used.
+ * </p>
+ * The schema version of the task collection is recorded in the
+ * {@code schemaMigrations} collection. The version 1 documents (long field
+ * names, string enums and a {@code _class} type hint) are rewritten in place
+ * by a single pipeline update, so no document is transferred to the
+ * application, and their indexes are dropped. The collection statistics are
+ * logged before and after the migration.
+ * </p>
+ * The migration runs while the application context is refreshed. It is
+ * switched off by {@code create.contact.task.store.migration.enabled=false}
+ * for the runs that must not reach MongoDB, like the AppCDS training run of
+ * the fast-startup build.
+ */
+@Component
+@ConditionalOnProperty(name = "create.contact.task.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoTaskSchemaMigration {
+
+   static final int SCHEMA_VERSION = 2;
+   static final String MIGRATIONS_COLLECTION = "schemaMigrations";
+   private static final List<String> LEGACY_INDEXES = List.of("pending_scan",
+         "cleanup_scan", "account");
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final MongoTemplate _mongoTemplate;
+   private final boolean _enabled;
+
+   /**
+    * @param enabled Whether the tasks are migrated on startup.
+    */
+   @Autowired
+   public MongoTaskSchemaMigration(final MongoTemplate mongoTemplate,
+         @Value("${create.contact.task.store.migration.enabled}") final boolean enabled) {
+      _mongoTemplate = mongoTemplate;
+      _enabled = enabled;
+   }
+
+   @PostConstruct
+   public void migrate() {
+      if (!_enabled) {
+         _logger.info("The task schema migration is disabled.");
+         return;
+      }
+      final String collectionName = _mongoTemplate.getCollectionName(
+            CreateContactTaskEntity.class);
+      final Query versionQuery = new Query(
+            Criteria.where("_id").is(collectionName));
+      final Document migration = _mongoTemplate.findOne(versionQuery,
+            Document.class, MIGRATIONS_COLLECTION);
+      if (migration != null
+            && migration.getInteger("version", 0) >= SCHEMA_VERSION) {
+         return;
+      }
+
+      logStatistics(collectionName, "before");
+      final MongoCollection<Document> collection = _mongoTemplate.getCollection(
+            collectionName);
+      final UpdateResult result = collection.updateMany(
+            new Document("status", new Document("$exists", true)),
+            migrationPipeline());
+      final List<String> indexes = new ArrayList<>();
+      collection.listIndexes()
+            .forEach(index -> indexes.add(index.getString("name")));
+      LEGACY_INDEXES.stream().filter(indexes::contains)
+            .forEach(collection::dropIndex);
+      _mongoTemplate.getCollection(MIGRATIONS_COLLECTION)
+            .replaceOne(new Document("_id", collectionName),
+                  new Document("_id", collectionName).append("version",
+                        SCHEMA_VERSION).append("migrated", new Date()),
+                  new ReplaceOptions().upsert(true));
+      _logger.info("Migrated {} tasks to the schema version {}.",
+            result.getModifiedCount(), SCHEMA_VERSION);
+      logStatistics(collectionName, "after");
+   }
+
+   /**
+    * @return The update pipeline renaming the version 1 fields to their
+    * version 2 names and replacing the enum names by their codes.
+    */
+   static List<Document> migrationPipeline() {
+      final Document renamed = new Document()
+            .append("s", codeOf("$status",
+                  Constants.CreateContactTaskStatus.values(),
+                  Constants.CreateContactTaskStatus::code))
+            .append("c", "$created").append("u", "$updated")
+            .append("n", "$attempts").append("p", new Document("$ifNull",
+                  Arrays.asList("$priority",
+                        Constants.TaskPriority.NORMAL.value())))
+            .append("d", "$freshdeskDomain")
+            .append("o", codeOf("$accountOrigin",
+                  Constants.AccountOrigin.values(),
+                  Constants.AccountOrigin::code))
+            .append("a", "$account").append("x", "$externalAccountId")
+            .append("e", "$email").append("ad", "$address");
+      return List.of(new Document("$set", renamed), new Document("$unset",
+            List.of("status", "created", "updated", "attempts", "priority",
+                  "freshdeskDomain", "accountOrigin", "account",
+                  "externalAccountId", "email", "address", "_class")));
+   }
+
+   private static <E extends Enum<E>> Document codeOf(final String field,
+         final E[] values, final ToIntFunction<E> code) {
+      final List<Document> branches = Arrays.stream(values)
+            .map(value -> new Document("case",
+                  new Document("$eq", Arrays.asList(field, value.name())))
+                  .append("then", code.applyAsInt(value))).toList();
+      return new Document("$switch",
+            new Document("branches", branches).append("default", field));
+   }
+
+   private void logStatistics(final String collectionName,
+         final String stage) {
+      final Document stats = _mongoTemplate.executeCommand(
+            new Document("collStats", collectionName));
+      _logger.info(
+            "Task collection {} the migration: {} documents, {} bytes on average, {} bytes of data, {} bytes of indexes.",
+            stage, stats.get("count"), stats.get("avgObjSize"),
+            stats.get("size"), stats.get("totalIndexSize"));
+   }
+}
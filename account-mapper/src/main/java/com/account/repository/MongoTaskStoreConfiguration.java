@@ -0,0 +1,103 @@
+package com.account.repository;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.config.EnableMongoAuditing;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.account.constants.Constants;
+
+/**
+ * Enables the MongoDB specific configuration only when the tasks are stored in
+ * MongoDB, so the application can start without MongoDB otherwise.
+ * </p>
+ * The task enums are stored as their numeric codes, and the documents are
+ * stored without the {@code _class} type hint, as the task collection holds a
+ * single type.
+ */
+@Configuration
+@EnableMongoAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+@ConditionalOnProperty(name = "create.contact.task.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoTaskStoreConfiguration {
+
+   /**
+    * Stamps the audited task dates from the application {@link Clock}.
+    */
+   @Bean
+   public DateTimeProvider auditingDateTimeProvider(final Clock clock) {
+      return () -> Optional.of(clock.instant());
+   }
+
+   @Bean
+   public MongoCustomConversions mongoCustomConversions() {
+      return new MongoCustomConversions(
+            List.of(new TaskStatusWritingConverter(),
+                  new TaskStatusReadingConverter(),
+                  new AccountOriginWritingConverter(),
+                  new AccountOriginReadingConverter()));
+   }
+
+   @Bean
+   public MappingMongoConverter mappingMongoConverter(
+         final MongoDatabaseFactory mongoDatabaseFactory,
+         final MongoMappingContext mongoMappingContext,
+         final MongoCustomConversions mongoCustomConversions) {
+      final MappingMongoConverter converter = new MappingMongoConverter(
+            new DefaultDbRefResolver(mongoDatabaseFactory),
+            mongoMappingContext);
+      converter.setCustomConversions(mongoCustomConversions);
+      converter.setCodecRegistryProvider(mongoDatabaseFactory);
+      converter.setTypeMapper(new DefaultMongoTypeMapper(null));
+      return converter;
+   }
+
+   @WritingConverter
+   static class TaskStatusWritingConverter
+         implements Converter<Constants.CreateContactTaskStatus, Integer> {
+      @Override
+      public Integer convert(final Constants.CreateContactTaskStatus status) {
+         return status.code();
+      }
+   }
+
+   @ReadingConverter
+   static class TaskStatusReadingConverter
+         implements Converter<Integer, Constants.CreateContactTaskStatus> {
+      @Override
+      public Constants.CreateContactTaskStatus convert(final Integer code) {
+         return Constants.CreateContactTaskStatus.fromCode(code);
+      }
+   }
+
+   @WritingConverter
+   static class AccountOriginWritingConverter
+         implements Converter<Constants.AccountOrigin, Integer> {
+      @Override
+      public Integer convert(final Constants.AccountOrigin origin) {
+         return origin.code();
+      }
+   }
+
+   @ReadingConverter
+   static class AccountOriginReadingConverter
+         implements Converter<Integer, Constants.AccountOrigin> {
+      @Override
+      public Constants.AccountOrigin convert(final Integer code) {
+         return Constants.AccountOrigin.fromCode(code);
+      }
+   }
+}
@@ -0,0 +1,155 @@
+package com.account.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * An append-only journal of task changes backed by a memory-mapped file.
+ * </p>
+ * Each record is laid out as {@code [int length][byte type][payload]}. The
+ * length is written last, so a record torn by a crash reads as the end of the
+ * journal and is ignored on replay.
+ * </p>
+ * When the mapped region is exhausted the journal is compacted by rewriting
+ * the live records into a new file, which atomically replaces the old one.
+ * The live records are streamed twice, to size and then to fill the new file,
+ * so the compaction holds a single record at a time.
+ */
+class TaskJournal implements Closeable {
+   static final byte PUT = 1;
+   static final byte DELETE = 2;
+
+   private static final int HEADER_BYTES = Integer.BYTES + Byte.BYTES;
+
+   private final Path _path;
+   private final int _initialSize;
+   private final boolean _sync;
+   private FileChannel _channel;
+   private MappedByteBuffer _buffer;
+
+   /**
+    * @param path        The location of the journal file.
+    * @param initialSize The initial size of the mapped region in bytes.
+    * @param sync        Whether to force every record to the storage device.
+    *                    When disabled, the records survive a process crash,
+    *                    but not an OS crash.
+    */
+   TaskJournal(final Path path, final int initialSize, final boolean sync)
+         throws IOException {
+      _path = path;
+      _initialSize = initialSize;
+      _sync = sync;
+      final long existingSize = Files.exists(path) ? Files.size(path) : 0;
+      map(path, (int) Math.max(existingSize, initialSize));
+   }
+
+   /**
+    * Replays all complete records from the start of the journal and leaves
+    * the journal positioned after the last one.
+    *
+    * @param consumer Accepts the type and the payload of each record.
+    */
+   synchronized void replay(final BiConsumer<Byte, byte[]> consumer) {
+      _buffer.position(0);
+      while (_buffer.remaining() >= HEADER_BYTES) {
+         final int start = _buffer.position();
+         final int length = _buffer.getInt();
+         final byte type = _buffer.get();
+         if (length <= 0 || length > _buffer.remaining()
+               || (type != PUT && type != DELETE)) {
+            _buffer.position(start);
+            return;
+         }
+         final byte[] payload = new byte[length];
+         _buffer.get(payload);
+         consumer.accept(type, payload);
+      }
+   }
+
+   /**
+    * Appends a record to the journal.
+    *
+    * @return false if the record does not fit in the mapped region and the
+    * journal must be compacted first.
+    */
+   synchronized boolean append(final byte type, final byte[] payload) {
+      if (_buffer.remaining() < HEADER_BYTES + payload.length) {
+         return false;
+      }
+      write(_buffer, type, payload);
+      if (_sync) {
+         _buffer.force();
+      }
+      return true;
+   }
+
+   /**
+    * Replaces the journal content with the given live {@code PUT} records.
+    * The new mapped region is sized to leave at least as much free space as
+    * the live records take.
+    *
+    * @param puts        Streams the payloads of all live records, the same
+    *                    ones on every call.
+    * @param extraBytes  Additional free space required after compaction.
+    */
+   synchronized void compact(final Supplier<Stream<byte[]>> puts,
+         final int extraBytes) throws IOException {
+      final long liveBytes = puts.get()
+            .mapToLong(payload -> HEADER_BYTES + payload.length).sum();
+      final long size = Math.max(_initialSize,
+            2 * (liveBytes + HEADER_BYTES + extraBytes));
+      if (size > Integer.MAX_VALUE) {
+         throw new IOException("The task journal exceeds the maximum size.");
+      }
+      final Path compacted = _path.resolveSibling(
+            _path.getFileName() + ".compact");
+      Files.deleteIfExists(compacted);
+      try (final FileChannel channel = FileChannel.open(compacted,
+            StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+         final MappedByteBuffer buffer = channel.map(
+               FileChannel.MapMode.READ_WRITE, 0, size);
+         puts.get().forEach(payload -> write(buffer, PUT, payload));
+         buffer.force();
+      }
+      _channel.close();
+      Files.move(compacted, _path, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      map(_path, (int) size);
+      replay((type, payload) -> {
+      });
+   }
+
+   @Override
+   public synchronized void close() throws IOException {
+      _buffer.force();
+      _channel.close();
+   }
+
+   private void map(final Path path, final int size) throws IOException {
+      _channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+      _buffer = _channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+   }
+
+   private static void write(final MappedByteBuffer buffer, final byte type,
+         final byte[] payload) {
+      final int start = buffer.position();
+      buffer.position(start + Integer.BYTES);
+      buffer.put(type);
+      buffer.put(payload);
+      final int end = buffer.position();
+      // Publish the record by writing its length last
+      buffer.putInt(start, payload.length);
+      buffer.position(end);
+   }
+}
@@ -1,20 +1,28 @@
 package com.account.schedule;
 
+import java.lang.management.ManagementFactory;
+import java.time.Clock;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import com.account.constants.Constants;
-import com.account.entity.CreateContactTaskEntity;
-import com.account.repository.CreateContactTaskRepository;
+import com.account.entity.CreateContactTaskSummary;
+import com.account.repository.CreateContactTaskStore;
 import com.account.service.CreateContactTaskService;
+import com.account.service.TaskPipeline;
 
 /**
  * The scheduler component responsible for scheduling of tasks for
@@ -24,8 +32,11 @@ import com.account.service.CreateContactTaskService;
 public class CreateContactTaskScheduler {
 
    private final Logger _logger = LoggerFactory.getLogger(getClass());
-   private final CreateContactTaskRepository _contactTaskRepository;
+   private final CreateContactTaskStore _contactTaskStore;
    private final CreateContactTaskService _createContactTaskService;
+   private final TaskPipeline _taskPipeline;
+   private final Clock _clock;
+   private final AtomicBoolean _firstDispatch = new AtomicBoolean(true);
 
    @Value("${create.contact.task.max.attempts}")
    private int _maxAttempts;
@@ -33,13 +44,26 @@ public class CreateContactTaskScheduler {
    private long _initialTimeoutValueMillis;
    @Value("${create.contact.task.timeout.step.millis}")
    private long _timeoutStepMillis;
+   @Value("${create.contact.task.scheduler.max.tasks.per.tick}")
+   private int _maxTasksToSchedulePerTick;
+   @Value("${create.contact.task.cleaner.max.tasks.per.tick}")
+   private int _maxTasksToCleanupPerTick;
+   @Value("${create.contact.task.cleaner.delete.batch.size}")
+   private int _deleteBatchSize;
 
+   /**
+    * @param taskPipeline The staged execution of the tasks, available when
+    *                     {@code task.pipeline.enabled}.
+    */
    @Autowired
    public CreateContactTaskScheduler(
-         final CreateContactTaskRepository contactTaskRepository,
-         final CreateContactTaskService createContactTaskService) {
-      _contactTaskRepository = contactTaskRepository;
+         final CreateContactTaskStore contactTaskStore,
+         final CreateContactTaskService createContactTaskService,
+         final ObjectProvider<TaskPipeline> taskPipeline, final Clock clock) {
+      _contactTaskStore = contactTaskStore;
       _createContactTaskService = createContactTaskService;
+      _taskPipeline = taskPipeline.getIfAvailable();
+      _clock = clock;
    }
 
    /**
@@ -47,67 +71,115 @@ public class CreateContactTaskScheduler {
     * yet, or that must be retried and have exceeded the configured timeout
     * for that.
     * Posts the eligible tasks for execution to the pre-defined
-    * {@code ExecutorService}.
+    * {@code ExecutorService}. Tasks are collected in a (priority, updated)
+    * order and high priority tasks are posted to the executor reserved for
+    * them. With the {@link TaskPipeline} enabled, the tasks are posted to its
+    * claim stage instead.
+    * </p>
+    * Only a {@link CreateContactTaskSummary} of each task is loaded, as the
+    * tasks are dispatched by their ID. The tasks are streamed and dispatched
+    * one by one, up to {@code maxTasksToSchedulePerTick} per run, so the
+    * memory used does not grow with the backlog.
     */
    @Scheduled(scheduler = "taskScheduler", fixedRateString = "${create.contact.task.scheduler.rate.millis}")
    public void scheduleTasks() {
       _logger.debug("Scanning for pending tasks.");
-      final List<CreateContactTaskEntity> pendingTasks = _contactTaskRepository.findByStatusInOrderByUpdatedAsc(
+      int dispatched = 0;
+      try (final Stream<CreateContactTaskSummary> pendingTasks = _contactTaskStore.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
             Arrays.asList(Constants.CreateContactTaskStatus.TO_RETRY,
-                  Constants.CreateContactTaskStatus.NOT_STARTED));
-      final List<CreateContactTaskEntity> eligibleTasksToRetry = pendingTasks.stream()
-            .filter(this::hasReachedTimeoutOfCurrentAttempt).toList();
-      if (eligibleTasksToRetry.isEmpty()) {
+                  Constants.CreateContactTaskStatus.NOT_STARTED))) {
+         final Iterator<CreateContactTaskSummary> eligibleTasks = pendingTasks
+               .filter(this::hasReachedTimeoutOfCurrentAttempt)
+               .limit(_maxTasksToSchedulePerTick).iterator();
+         while (eligibleTasks.hasNext()) {
+            if (!dispatch(eligibleTasks.next())) {
+               _logger.debug("The task pipeline is full.");
+               break;
+            }
+            dispatched++;
+         }
+      }
+      if (dispatched == 0) {
          _logger.debug("No pending tasks found.");
       } else {
-         _logger.debug("Found {} executable tasks.\n{}.",
-               eligibleTasksToRetry.size(), eligibleTasksToRetry);
-         for (final CreateContactTaskEntity task : eligibleTasksToRetry) {
-            _createContactTaskService.execute(task.id);
-         }
+         _logger.debug("Dispatched {} executable tasks.", dispatched);
       }
    }
 
    /**
     * Every {@code fixedRateString} collects all tasks that have completed, or
     * that have exceeded the pre-configured {@code maxAttempts} number,
-    * Cleans up the eligible tasks from the {@link CreateContactTaskRepository}.
+    * Cleans up the eligible tasks from the {@link CreateContactTaskStore}.
+    * </p>
+    * The tasks are streamed and deleted in batches of {@code deleteBatchSize},
+    * up to {@code maxTasksToCleanupPerTick} per run. The rest is cleaned up by
+    * the next runs.
     */
    @Scheduled(scheduler = "taskCleaner", fixedRateString = "${create.contact.task.cleaner.rate.millis}")
    public void cleanupTasks() {
       _logger.trace("Cleaning up completed, or timed out tasks.");
-      final List<CreateContactTaskEntity> tasks = _contactTaskRepository.findByStatusInOrAttemptsGreaterThanEqual(
+      int deleted = 0;
+      try (final Stream<CreateContactTaskSummary> tasks = _contactTaskStore.streamSummariesByStatusInOrAttemptsGreaterThanEqual(
             Arrays.asList(Constants.CreateContactTaskStatus.FAILED,
-                  Constants.CreateContactTaskStatus.COMPLETED), _maxAttempts);
-      if (tasks.isEmpty()) {
+                  Constants.CreateContactTaskStatus.COMPLETED), _maxAttempts)) {
+         final Iterator<String> taskIds = tasks.map(CreateContactTaskSummary::id)
+               .limit(_maxTasksToCleanupPerTick).iterator();
+         final List<String> batch = new ArrayList<>(_deleteBatchSize);
+         while (taskIds.hasNext()) {
+            batch.add(taskIds.next());
+            if (batch.size() == _deleteBatchSize || !taskIds.hasNext()) {
+               _logger.debug("Cleaning up {} completed tasks.\n{}.",
+                     batch.size(), batch);
+               _contactTaskStore.deleteAllById(List.copyOf(batch));
+               deleted += batch.size();
+               batch.clear();
+            }
+         }
+      }
+      if (deleted == 0) {
          _logger.debug("No completed tasks found.");
+      }
+   }
+
+   /**
+    * @return Whether the task was dispatched, or the task pipeline is full.
+    */
+   private boolean dispatch(final CreateContactTaskSummary task) {
+      if (_firstDispatch.compareAndSet(true, false)) {
+         _logger.info("First task dispatched {} ms after the JVM start.",
+               ManagementFactory.getRuntimeMXBean().getUptime());
+      }
+      if (_taskPipeline != null) {
+         return _taskPipeline.submit(task.id());
+      }
+      if (task.hasHighPriority()) {
+         _createContactTaskService.executeHighPriority(task.id());
       } else {
-         _logger.debug("Found {} completed tasks to cleanup.\n{}.",
-               tasks.size(), tasks);
-         _contactTaskRepository.deleteAll(tasks);
+         _createContactTaskService.execute(task.id());
       }
+      return true;
    }
 
    /**
-    * Determines whether the provided {@link CreateContactTaskEntity} has reached
+    * Determines whether the provided task has reached
     * the execution timeout of its current attempt.
     *
     * @param task - The task entity to test the timeout for.
     * @return Whether the task has reached its current attmept timeout.
     */
    private boolean hasReachedTimeoutOfCurrentAttempt(
-         final CreateContactTaskEntity task) {
-      final long attempts = task.attempts;
+         final CreateContactTaskSummary task) {
+      final long attempts = task.attempts();
       if (attempts >= _maxAttempts) {
          _logger.debug(
                "Task {} has already exceeded the configured attempts limit of {}.",
                task, _maxAttempts);
          return false;
       }
-      final long lastModified = task.updated.getTime();
+      final long lastModified = task.updated().getTime();
       final long currentTimeoutForTask =
             _initialTimeoutValueMillis + (_timeoutStepMillis * (attempts - 1));
-      final Date now = new Date();
+      final Date now = new Date(_clock.millis());
       if (lastModified + currentTimeoutForTask <= now.getTime()) {
          _logger.debug(
                "Task {} has ALREADY reached its current timeout (millis) of {} for attempt {} as of now {}.",
@@ -1,27 +1,46 @@
 package com.account.service;
 
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpStatusCodeException;
 
 import com.account.constants.Constants;
+import com.account.deadline.TaskDeadline;
+import com.account.deadline.TaskDeadlinePolicy;
 import com.account.entity.CreateContactTaskEntity;
+import com.account.entity.CreateContactTaskSummary;
+import com.account.error.DeadlineExceededException;
 import com.account.error.DuplicateTaskException;
+import com.account.error.RecoverableTaskException;
+import com.account.error.TaskRejectedException;
+import com.account.event.TaskStatusChangedEvent;
 import com.account.freshdesk.FreshdeskContactInfo;
 import com.account.freshdesk.FreshdeskContactService;
 import com.account.freshdesk.FreshdeskContactSpec;
+import com.account.freshdesk.FreshdeskContactUpsertBatcher;
+import com.account.github.GitHubAccountLookupBatcher;
+import com.account.github.GitHubAccountNotFoundCache;
 import com.account.github.GitHubAccountService;
 import com.account.github.GithubAccountInfo;
-import com.account.repository.CreateContactTaskRepository;
+import com.account.repository.CreateContactTaskStore;
+import com.account.repository.FreshdeskContactIdentityMap.MappedContact;
 
 /**
  * A service for managing the creation and execution of contact tasks.
@@ -32,19 +51,54 @@ import com.account.repository.CreateContactTaskRepository;
 @Service
 public class CreateContactTaskService {
 
+   private static final List<Constants.CreateContactTaskStatus> PENDING_STATUSES = List.of(
+         Constants.CreateContactTaskStatus.NOT_STARTED,
+         Constants.CreateContactTaskStatus.TO_RETRY,
+         Constants.CreateContactTaskStatus.RUNNING);
+
    private final Logger _logger = LoggerFactory.getLogger(getClass());
-   private final CreateContactTaskRepository _createContactTaskRepository;
+   private final CreateContactTaskStore _createContactTaskStore;
    private final GitHubAccountService _gitHubAccountService;
    private final FreshdeskContactService _freshdeskContactService;
+   private final FreshdeskContactUpsertBatcher _freshdeskContactUpsertBatcher;
+   private final GitHubAccountLookupBatcher _gitHubAccountLookupBatcher;
+   private final ApplicationEventPublisher _eventPublisher;
+   private final TaskStageBulkheads _taskStageBulkheads;
+   private final GitHubAccountNotFoundCache _gitHubAccountNotFoundCache;
+   private final TaskDeadlinePolicy _taskDeadlinePolicy;
+   private final Clock _clock;
 
    @Autowired
    public CreateContactTaskService(
-         final CreateContactTaskRepository createContactTaskRepository,
+         final CreateContactTaskStore createContactTaskStore,
          final GitHubAccountService gitHubAccountService,
-         final FreshdeskContactService freshdeskContactService) {
-      _createContactTaskRepository = createContactTaskRepository;
+         final FreshdeskContactService freshdeskContactService,
+         final FreshdeskContactUpsertBatcher freshdeskContactUpsertBatcher,
+         final GitHubAccountLookupBatcher gitHubAccountLookupBatcher,
+         final ApplicationEventPublisher eventPublisher,
+         final TaskStageBulkheads taskStageBulkheads,
+         final GitHubAccountNotFoundCache gitHubAccountNotFoundCache,
+         final TaskDeadlinePolicy taskDeadlinePolicy, final Clock clock) {
+      _createContactTaskStore = createContactTaskStore;
       _gitHubAccountService = gitHubAccountService;
       _freshdeskContactService = freshdeskContactService;
+      _freshdeskContactUpsertBatcher = freshdeskContactUpsertBatcher;
+      _gitHubAccountLookupBatcher = gitHubAccountLookupBatcher;
+      _eventPublisher = eventPublisher;
+      _taskStageBulkheads = taskStageBulkheads;
+      _gitHubAccountNotFoundCache = gitHubAccountNotFoundCache;
+      _taskDeadlinePolicy = taskDeadlinePolicy;
+      _clock = clock;
+   }
+
+   /**
+    * Creates a new task entity with a {@code NORMAL} priority in the DB layer.
+    *
+    * @see #create(String, String, String, String)
+    */
+   public CreateContactTaskEntity create(final String account,
+         final String origin, final String freshdeskDomain) {
+      return create(account, origin, freshdeskDomain, null);
    }
 
    /**
@@ -53,16 +107,57 @@ public class CreateContactTaskService {
     * @param account         - The account name to create a task for.
     * @param origin          - The account origin.
     * @param freshdeskDomain - The Freshdesk subdomain for account creation.
+    * @param priority        - The optional task priority. Defaults to
+    *                        {@code NORMAL}.
     * @return The newly created task in case of no conflict with a duplicate
     * pending task.
     * @throws IllegalArgumentException when null, or empty account, or account
-    *                                  origin, or an unsupported account origin
-    *                                  are provided.
+    *                                  origin, or an unsupported account origin,
+    *                                  or an unsupported priority are provided.
     * @throws DuplicateTaskException   when a duplicate pending task is being
     *                                  created.
     */
    public CreateContactTaskEntity create(final String account,
-         final String origin, final String freshdeskDomain) {
+         final String origin, final String freshdeskDomain,
+         final String priority) {
+      final CreateContactTaskEntity newTask = newTask(account, origin,
+            freshdeskDomain, priority);
+      // Duplicate task check
+      final List<CreateContactTaskEntity> matchingTasks = _createContactTaskStore.findByAccountAndAccountOriginAndFreshdeskDomain(
+            account, newTask.accountOrigin, freshdeskDomain);
+      _logger.debug("All matching tasks for {} @ {}: {}", account,
+            newTask.accountOrigin, matchingTasks);
+      if (matchingTasks.stream()
+            .anyMatch(CreateContactTaskEntity::hasNotCompleted)) {
+         final String message = "A duplicate pending task already exists.";
+         _logger.error(message);
+         throw new DuplicateTaskException(message);
+      }
+      // Create a new task
+      final CreateContactTaskEntity task = _createContactTaskStore.save(
+            newTask);
+      _logger.debug("Successfully created task {}.", task);
+      publishStatusChange(task);
+      return task;
+   }
+
+   /**
+    * Validates the task parameters and builds a new, not yet stored task
+    * entity out of them.
+    *
+    * @param account         - The account name to create a task for.
+    * @param origin          - The account origin.
+    * @param freshdeskDomain - The Freshdesk subdomain for account creation.
+    * @param priority        - The optional task priority. Defaults to
+    *                        {@code NORMAL}.
+    * @return The new task entity.
+    * @throws IllegalArgumentException when null, or empty account, or account
+    *                                  origin, or an unsupported account origin,
+    *                                  or an unsupported priority are provided.
+    */
+   public CreateContactTaskEntity newTask(final String account,
+         final String origin, final String freshdeskDomain,
+         final String priority) {
       // Empty account
       if (account == null || account.isBlank()) {
          final String message = "The account must not be null or empty.";
@@ -93,32 +188,90 @@ public class CreateContactTaskService {
          _logger.error(message);
          throw new IllegalArgumentException(message);
       }
-      // Duplicate task check
-      final List<CreateContactTaskEntity> matchingTasks = _createContactTaskRepository.findByAccountAndAccountOriginAndFreshdeskDomain(
-            account, accountOrigin, freshdeskDomain);
-      _logger.debug("All matching tasks for {} @ {}: {}", account,
-            accountOrigin, matchingTasks);
-      if (matchingTasks.stream()
-            .anyMatch(CreateContactTaskEntity::hasNotCompleted)) {
-         final String message = "A duplicate pending task already exists.";
+      // Recently not found account
+      if (Constants.AccountOrigin.GITHUB.equals(accountOrigin)
+            && _gitHubAccountNotFoundCache.isNotFound(account)) {
+         final String message = String.format(
+               "The GitHub account '%s' does not exist.", account);
          _logger.error(message);
-         throw new DuplicateTaskException(message);
+         throw new IllegalArgumentException(message);
       }
-      // Create a new task
-      final CreateContactTaskEntity task = _createContactTaskRepository.save(
-            new CreateContactTaskEntity(account, accountOrigin,
-                  freshdeskDomain));
-      _logger.debug("Successfully created task {}.", task);
+      // Unsupported priority
+      Constants.TaskPriority taskPriority = Constants.TaskPriority.NORMAL;
+      if (priority != null && !priority.isBlank()) {
+         try {
+            taskPriority = Constants.TaskPriority.valueOf(
+                  priority.toUpperCase());
+         } catch (final IllegalArgumentException e) {
+            final String message = String.format(
+                  "Unsupported task priority provided. Must be one of %s.",
+                  List.of(Constants.TaskPriority.values()));
+            _logger.error(message);
+            throw new IllegalArgumentException(message);
+         }
+      }
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            account, accountOrigin, freshdeskDomain);
+      task.priority = taskPriority.value();
       return task;
    }
 
+   /**
+    * Stores multiple new tasks with a single bulk insert.
+    * </p>
+    * Tasks duplicating a pending task in the DB layer, or another task of the
+    * same call, are skipped instead of failing the whole call.
+    *
+    * @param tasks - The new tasks built by
+    *              {@link #newTask(String, String, String, String)}.
+    * @return The stored tasks, in the order they were provided.
+    */
+   public List<CreateContactTaskEntity> createAll(
+         final List<CreateContactTaskEntity> tasks) {
+      final Set<String> pendingKeys = new HashSet<>();
+      _createContactTaskStore.findMatchingByStatusIn(tasks, PENDING_STATUSES)
+            .forEach(task -> pendingKeys.add(taskKey(task)));
+      final Date now = new Date(_clock.millis());
+      final List<CreateContactTaskEntity> newTasks = new ArrayList<>(
+            tasks.size());
+      for (final CreateContactTaskEntity task : tasks) {
+         if (!pendingKeys.add(taskKey(task))) {
+            _logger.debug("Skipping duplicate task {}.", task);
+            continue;
+         }
+         if (task.created == null) {
+            task.created = now;
+         }
+         newTasks.add(task);
+      }
+      if (newTasks.isEmpty()) {
+         return newTasks;
+      }
+      final List<CreateContactTaskEntity> createdTasks = _createContactTaskStore.insertAll(
+            newTasks);
+      _logger.debug("Successfully created {} of {} tasks.",
+            createdTasks.size(), tasks.size());
+      createdTasks.forEach(this::publishStatusChange);
+      return createdTasks;
+   }
+
+   /**
+    * @return Whether any task is still waiting for, or in, execution.
+    */
+   public boolean hasPendingTasks() {
+      try (final Stream<CreateContactTaskSummary> pendingTasks = _createContactTaskStore.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
+            PENDING_STATUSES)) {
+         return pendingTasks.findAny().isPresent();
+      }
+   }
+
    /**
     * Lists all tasks from the DB.
     *
     * @return A list of all available tasks in the Database.
     */
    public List<CreateContactTaskEntity> list() {
-      return _createContactTaskRepository.findAll(Sort.by("updated"));
+      return _createContactTaskStore.findAllOrderByUpdatedAsc();
    }
 
    /**
@@ -130,12 +283,34 @@ public class CreateContactTaskService {
     * call times out, or the API is currently not responding), the task moves to
     * {@code TO_RETRY} state and the task attempts are incremented.
     * The task will be scheduled for execution again following the configured
-    * progressive timeout logic.
+    * progressive timeout logic. A task rejected locally (see
+    * {@link TaskRejectedException}) is retried without counting the attempt.
+    * <p>
+    * The execution has a {@link TaskDeadline} resolved by the
+    * {@link TaskDeadlinePolicy}. Every upstream call and task read is limited
+    * to the time left, and a task out of time is retried later on.
     *
     * @param taskId - The task ID to assign for execution.
     */
    @Async
    public void execute(final String taskId) {
+      doExecute(taskId);
+   }
+
+   /**
+    * Asynchronously executes a high priority task by a given ID on the
+    * executor capacity reserved for high priority tasks, so it does not wait
+    * behind the queued normal priority tasks.
+    *
+    * @param taskId - The task ID to assign for execution.
+    * @see #execute(String)
+    */
+   @Async("highPriorityTaskExecutor")
+   public void executeHighPriority(final String taskId) {
+      doExecute(taskId);
+   }
+
+   private void doExecute(final String taskId) {
       _logger.info(
             "Asynchronously executing a FreshdeskCreateContact task with ID '{}'.",
             taskId);
@@ -144,28 +319,89 @@ public class CreateContactTaskService {
          // Task is already assigned, or does not exist.
          return;
       }
-      try {
-         final GithubAccountInfo gitHubAccountInfo = getGitHubUserInfo(
-               task.account);
+      final TaskDeadline deadline = deadlineOf(task);
+      try (TaskDeadline.Scope ignored = deadline.enter()) {
+         final String account = task.account;
+         final GithubAccountInfo gitHubAccountInfo = _taskStageBulkheads.inAccountOriginStage(
+               task.accountOrigin, () -> getGitHubUserInfo(account));
          // Cache the github data
          task = updateFreshdeskContactTaskEntity(task, gitHubAccountInfo);
-         createOrUpdateFreshdeskContact(task.freshdeskDomain,
+         final String freshdeskDomain = task.freshdeskDomain;
+         final FreshdeskContactSpec contactSpec = FreshdeskContactSpec.from(
                gitHubAccountInfo);
+         final Optional<MappedContact> mappedContact = findMappedFreshdeskContact(
+               freshdeskDomain, contactSpec);
+         if (mappedContact.isEmpty() || !updateMappedFreshdeskContact(
+               freshdeskDomain, mappedContact.get(), contactSpec)) {
+            upsertFreshdeskContact(freshdeskDomain, contactSpec,
+                  findFreshdeskContact(freshdeskDomain, contactSpec));
+         }
          task.status = Constants.CreateContactTaskStatus.COMPLETED;
-      } catch (final RecoverableTaskException e) {
+      } catch (final Exception e) {
+         failTask(task, deadline.failure(e));
+      } finally {
+         completeTask(task);
+      }
+   }
+
+   /**
+    * @param task - The assigned task.
+    * @return The deadline of the task execution, starting now.
+    */
+   TaskDeadline deadlineOf(final CreateContactTaskEntity task) {
+      return _taskDeadlinePolicy.deadlineOf(task);
+   }
+
+   /**
+    * Resolves the status of a task, which failed with the provided exception.
+    *
+    * @param taskId - The ID of the failed task.
+    * @param e      - The exception the task failed with.
+    * @return {@code TO_RETRY} when the task failed in a {@code Recoverable}
+    * way, or {@code FAILED} otherwise.
+    */
+   Constants.CreateContactTaskStatus failedStatus(final String taskId,
+         final Exception e) {
+      if (e instanceof DeadlineExceededException) {
+         _logger.debug(
+               "CreateFreshdeskContact task {} ran out of time. Will make another attempt to complete the task.",
+               taskId);
+         return Constants.CreateContactTaskStatus.TO_RETRY;
+      }
+      if (e instanceof RecoverableTaskException) {
          _logger.debug(
                "CreateFreshdeskContact task {} failed due to a slow, or a not responding API. "
                      + "Will make another attempt to complete the task.",
                taskId);
-         task.status = Constants.CreateContactTaskStatus.TO_RETRY;
-      } catch (final Exception e) {
-         _logger.debug(
-               "CreateFreshdeskContact task {} failed in an unrecoverable way. "
-                     + "The task will be dropped.", taskId);
-         task.status = Constants.CreateContactTaskStatus.FAILED;
-      } finally {
-         _createContactTaskRepository.save(task);
+         return Constants.CreateContactTaskStatus.TO_RETRY;
       }
+      _logger.debug(
+            "CreateFreshdeskContact task {} failed in an unrecoverable way. "
+                  + "The task will be dropped.", taskId);
+      return Constants.CreateContactTaskStatus.FAILED;
+   }
+
+   /**
+    * Sets the status of a task, which failed with the provided exception. A
+    * task rejected locally, before reaching an upstream API, is retried
+    * without counting the attempt, so local contention alone does not use up
+    * its max attempts.
+    *
+    * @param task - The failed task.
+    * @param e    - The exception the task failed with.
+    */
+   void failTask(final CreateContactTaskEntity task, final Exception e) {
+      task.status = failedStatus(task.id, e);
+      if (e instanceof TaskRejectedException && task.attempts > 0) {
+         task.attempts--;
+      }
+   }
+
+   /**
+    * Stores the final status of an executed task and publishes it.
+    */
+   void completeTask(final CreateContactTaskEntity task) {
+      publishStatusChange(_createContactTaskStore.save(task));
    }
 
    /**
@@ -176,9 +412,9 @@ public class CreateContactTaskService {
     * @return The assigned task, or null, if the task has already been assigned
     * to another thread.
     */
-   private synchronized CreateContactTaskEntity assignTask(
+   synchronized CreateContactTaskEntity assignTask(
          final String taskId) {
-      final Optional<CreateContactTaskEntity> optional = _createContactTaskRepository.findById(
+      final Optional<CreateContactTaskEntity> optional = _createContactTaskStore.findById(
             taskId);
       if (optional.isEmpty()) {
          _logger.info("No task with ID '{}' found in the database.", taskId);
@@ -193,14 +429,17 @@ public class CreateContactTaskService {
       }
       task.status = Constants.CreateContactTaskStatus.RUNNING;
       task.attempts++;
-      final CreateContactTaskEntity assignedTask = _createContactTaskRepository.save(
+      final CreateContactTaskEntity assignedTask = _createContactTaskStore.save(
             task);
       _logger.info("Assigned task ID {} for execution.", task.id);
+      publishStatusChange(assignedTask);
       return assignedTask;
    }
 
    /**
     * Retrieves information about the GitHub account using the configured API.
+    * The lookup joins a batched GraphQL query when the
+    * {@link GitHubAccountLookupBatcher} is enabled.
     *
     * @param account The GitHub account to lookup information for.
     * @return The retrieved {@link GithubAccountInfo}.
@@ -208,13 +447,20 @@ public class CreateContactTaskService {
     *                                  recoverable way (e.g. service unavailable,
     *                                  or the API call times out).
     */
-   private GithubAccountInfo getGitHubUserInfo(final String account) {
+   GithubAccountInfo getGitHubUserInfo(final String account) {
+      if (_gitHubAccountNotFoundCache.isNotFound(account)) {
+         _logger.info("Github Account '{}' is known not to exist.", account);
+         throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+      }
       try {
-         return _gitHubAccountService.get(account);
+         return _gitHubAccountLookupBatcher.isEnabled()
+               ? lookUpGitHubUserInBatch(account)
+               : _gitHubAccountService.get(account);
       } catch (final HttpStatusCodeException e) {
          handleRecoverableException(e);
          if (HttpStatus.NOT_FOUND.equals(e.getStatusCode())) {
             _logger.info("Github Account '{}' does not exist.", account);
+            _gitHubAccountNotFoundCache.markNotFound(account);
          }
          throw e;
       }
@@ -230,37 +476,108 @@ public class CreateContactTaskService {
     * @param gitHubAccountInfo The {@link GithubAccountInfo} retrieved.
     * @return The updated {@link CreateContactTaskEntity}.
     */
-   private CreateContactTaskEntity updateFreshdeskContactTaskEntity(
+   CreateContactTaskEntity updateFreshdeskContactTaskEntity(
          final CreateContactTaskEntity task,
          final GithubAccountInfo gitHubAccountInfo) {
       task.status = Constants.CreateContactTaskStatus.RUNNING;
       task.externalAccountId = gitHubAccountInfo.id;
       task.address = gitHubAccountInfo.location;
       task.email = gitHubAccountInfo.email;
-      return _createContactTaskRepository.save(task);
+      return _createContactTaskStore.save(task);
+   }
+
+   /**
+    * Retrieves the FreshdeskContact a contact to update was mapped to before,
+    * without calling the Freshdesk API. This holds when batching is enabled
+    * too: a mapped contact is updated directly, and only the unmapped ones
+    * join the batch of the Freshdesk domain, whose lookups and writes
+    * remember their mappings in turn.
+    *
+    * @param freshdeskDomain The target Freshdesk domain.
+    * @param contactSpec     The contact to update.
+    * @return The mapped contact, if any.
+    */
+   Optional<MappedContact> findMappedFreshdeskContact(
+         final String freshdeskDomain, final FreshdeskContactSpec contactSpec) {
+      return _freshdeskContactService.findMappedContact(freshdeskDomain,
+            contactSpec.uniqueExternalId);
+   }
+
+   /**
+    * Updates the FreshdeskContact mapped to the contact to update, unless its
+    * data is unchanged.
+    *
+    * @param freshdeskDomain The target Freshdesk domain.
+    * @param mappedContact   The contact found by
+    *                        {@link #findMappedFreshdeskContact}.
+    * @param contactSpec     The contact to update.
+    * @return Whether the contact was updated, or is unchanged, or it no
+    * longer exists and must be looked up.
+    * @throws RecoverableTaskException in case the API call fails in a
+    *                                  recoverable way (e.g. service unavailable,
+    *                                  or the API call times out).
+    */
+   boolean updateMappedFreshdeskContact(final String freshdeskDomain,
+         final MappedContact mappedContact,
+         final FreshdeskContactSpec contactSpec) {
+      try {
+         _freshdeskContactService.updateMappedIfChanged(freshdeskDomain,
+               mappedContact, contactSpec);
+         return true;
+      } catch (final HttpStatusCodeException e) {
+         if (HttpStatus.NOT_FOUND.equals(e.getStatusCode())) {
+            _logger.debug("The mapped Freshdesk contact {} no longer exists.",
+                  mappedContact.contactId());
+            return false;
+         }
+         handleRecoverableException(e);
+         throw e;
+      }
+   }
+
+   /**
+    * Looks up the existing FreshdeskContact of a contact to create, or update.
+    * If batching is enabled, the lookup is left to the batch of the Freshdesk
+    * domain.
+    *
+    * @param freshdeskDomain The target Freshdesk domain.
+    * @param contactSpec     The contact to look up.
+    * @return The existing contact, if any.
+    */
+   Optional<FreshdeskContactInfo> findFreshdeskContact(
+         final String freshdeskDomain, final FreshdeskContactSpec contactSpec) {
+      if (_freshdeskContactUpsertBatcher.isEnabled()) {
+         return Optional.empty();
+      }
+      return _freshdeskContactService.findByExternalId(freshdeskDomain,
+            contactSpec.uniqueExternalId, contactSpec.email);
    }
 
    /**
     * Creates or updates an existing FreshdeskContact out of the retrieved
     * {@link GithubAccountInfo}.
+    * If batching is enabled, the upsert joins the batch of its Freshdesk domain
+    * and the task waits for its own outcome.
     *
-    * @param freshdeskDomain   The target Freshdesk domain.
-    * @param gitHubAccountInfo The {@link GithubAccountInfo} to create the
-    *                          contact from.
+    * @param freshdeskDomain      The target Freshdesk domain.
+    * @param contactSpec          The contact to create, or update.
+    * @param freshdeskContactInfo The existing contact found by
+    *                             {@link #findFreshdeskContact}.
     * @throws RecoverableTaskException in case the API call fails in a
     *                                  recoverable way (e.g. service unavailable,
     *                                  or the API call times out).
     */
-   private void createOrUpdateFreshdeskContact(final String freshdeskDomain,
-         final GithubAccountInfo gitHubAccountInfo) {
-      final FreshdeskContactSpec contactSpec = FreshdeskContactSpec.from(
-            gitHubAccountInfo);
-      final Optional<FreshdeskContactInfo> freshdeskContactInfo = _freshdeskContactService.findByExternalId(
-            freshdeskDomain, contactSpec.uniqueExternalId);
+   void upsertFreshdeskContact(final String freshdeskDomain,
+         final FreshdeskContactSpec contactSpec,
+         final Optional<FreshdeskContactInfo> freshdeskContactInfo) {
+      if (_freshdeskContactUpsertBatcher.isEnabled()) {
+         upsertFreshdeskContactInBatch(freshdeskDomain, contactSpec);
+         return;
+      }
       try {
          if (freshdeskContactInfo.isPresent()) {
-            _freshdeskContactService.update(freshdeskDomain,
-                  freshdeskContactInfo.get().id, contactSpec);
+            _freshdeskContactService.updateIfChanged(freshdeskDomain,
+                  freshdeskContactInfo.get(), contactSpec);
          } else {
             _freshdeskContactService.create(freshdeskDomain, contactSpec);
          }
@@ -270,6 +587,47 @@ public class CreateContactTaskService {
       }
    }
 
+   private GithubAccountInfo lookUpGitHubUserInBatch(final String account) {
+      try {
+         return TaskDeadline.join(_gitHubAccountLookupBatcher.submit(account));
+      } catch (final CompletionException e) {
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+
+   private void upsertFreshdeskContactInBatch(final String freshdeskDomain,
+         final FreshdeskContactSpec contactSpec) {
+      try {
+         TaskDeadline.join(_freshdeskContactUpsertBatcher.submit(freshdeskDomain,
+               contactSpec));
+      } catch (final CompletionException e) {
+         if (e.getCause() instanceof HttpStatusCodeException cause) {
+            handleRecoverableException(cause);
+            throw cause;
+         }
+         if (e.getCause() instanceof RuntimeException cause) {
+            throw cause;
+         }
+         throw e;
+      }
+   }
+
+   /**
+    * Publishes a {@link TaskStatusChangedEvent} of a stored task, so
+    * subscribers learn about the new status without polling the tasks.
+    */
+   private void publishStatusChange(final CreateContactTaskEntity task) {
+      _eventPublisher.publishEvent(TaskStatusChangedEvent.of(task));
+   }
+
+   private static String taskKey(final CreateContactTaskEntity task) {
+      return task.account + '\n' + task.accountOrigin + '\n'
+            + task.freshdeskDomain;
+   }
+
    private void handleRecoverableException(final HttpStatusCodeException e) {
       final HttpStatusCode statusCode = e.getStatusCode();
       if (statusCode.is5xxServerError()) {
@@ -280,7 +638,4 @@ public class CreateContactTaskService {
          }
       }
    }
-
-   static class RecoverableTaskException extends RuntimeException {
-   }
 }
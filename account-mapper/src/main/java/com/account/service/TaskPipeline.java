@@ -0,0 +1,343 @@
+package com.account.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.deadline.TaskDeadline;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.freshdesk.FreshdeskContactInfo;
+import com.account.freshdesk.FreshdeskContactSpec;
+import com.account.github.GithubAccountInfo;
+import com.account.repository.FreshdeskContactIdentityMap.MappedContact;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * A staged (SEDA) execution of the tasks, as an alternative to executing a
+ * whole task on a single {@code @Async} executor thread.
+ * </p>
+ * A task goes through the claim, fetch (GitHub), persist, lookup (the
+ * identity map, or Freshdesk), upsert (Freshdesk) and finalise stages.
+ * Every stage has its own bounded queue and worker threads, so a slow stage
+ * only holds its own threads and the stages can be sized independently. The
+ * size of a stage is configured by
+ * {@code task.pipeline.stage.<stage>.threads} and
+ * {@code task.pipeline.stage.<stage>.queue.capacity}, which default to
+ * {@code task.pipeline.stage.threads} and
+ * {@code task.pipeline.stage.queue.capacity}.
+ * </p>
+ * A task dispatched while the claim queue is full is left pending for the
+ * next scheduler run. A stage handing a task over to a full queue waits for
+ * room, so a slow stage slows down the stages before it instead of buffering
+ * without bounds. A task failing in any stage goes straight to the finalise
+ * stage.
+ * </p>
+ * The {@link TaskDeadline} of a task starts once it is claimed and holds for
+ * all of its stages, including the time it waits in the stage queues. A task
+ * out of time skips its remaining stages and is retried later on.
+ */
+@Component
+@ConditionalOnProperty(name = "task.pipeline.enabled", havingValue = "true")
+public class TaskPipeline {
+
+   private static final String THREADS_PROPERTY = "task.pipeline.stage.%s.threads";
+   private static final String QUEUE_CAPACITY_PROPERTY = "task.pipeline.stage.%s.queue.capacity";
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   private final CreateContactTaskService _createContactTaskService;
+   private final TaskStageBulkheads _taskStageBulkheads;
+   private final Environment _environment;
+   private final MeterRegistry _meterRegistry;
+   private final int _threads;
+   private final int _queueCapacity;
+   private final Stage _claim;
+   private final Stage _fetch;
+   private final Stage _persist;
+   private final Stage _lookup;
+   private final Stage _upsert;
+   private final Stage _finalise;
+   private final List<Stage> _stages;
+   private volatile boolean _running;
+
+   /**
+    * @param threads       The default number of worker threads per stage.
+    * @param queueCapacity The default queue capacity per stage.
+    */
+   @Autowired
+   public TaskPipeline(final CreateContactTaskService createContactTaskService,
+         final TaskStageBulkheads taskStageBulkheads,
+         final Environment environment, final MeterRegistry meterRegistry,
+         @Value("${task.pipeline.stage.threads}") final int threads,
+         @Value("${task.pipeline.stage.queue.capacity}") final int queueCapacity) {
+      _createContactTaskService = createContactTaskService;
+      _taskStageBulkheads = taskStageBulkheads;
+      _environment = environment;
+      _meterRegistry = meterRegistry;
+      _threads = threads;
+      _queueCapacity = queueCapacity;
+      _claim = newStage("claim", this::claim);
+      _fetch = newStage("fetch", this::fetch);
+      _persist = newStage("persist", this::persist);
+      _lookup = newStage("lookup", this::lookUp);
+      _upsert = newStage("upsert", this::upsert);
+      _finalise = newStage("finalise", this::finalise);
+      _stages = List.of(_claim, _fetch, _persist, _lookup, _upsert, _finalise);
+   }
+
+   @PostConstruct
+   public void start() {
+      _running = true;
+      _stages.forEach(this::startWorkers);
+   }
+
+   /**
+    * Stops the stages once the queued tasks went through, stage by stage.
+    */
+   @PreDestroy
+   public void stop() throws InterruptedException {
+      _running = false;
+      for (final Stage stage : _stages) {
+         for (final Thread worker : stage.workers()) {
+            worker.join();
+         }
+      }
+   }
+
+   /**
+    * Queues a task to be claimed for execution.
+    *
+    * @param taskId - The task ID to execute.
+    * @return Whether the task was queued, or the claim queue is full.
+    */
+   public boolean submit(final String taskId) {
+      final boolean queued = _claim.queue().offer(new TaskWork(taskId));
+      if (!queued) {
+         _logger.debug("The claim stage is full. Task {} stays pending.",
+               taskId);
+      }
+      return queued;
+   }
+
+   private Stage claim(final TaskWork work) {
+      work.task = _createContactTaskService.assignTask(work.taskId);
+      // Null when the task is already assigned, or does not exist.
+      if (work.task == null) {
+         return null;
+      }
+      work.deadline = _createContactTaskService.deadlineOf(work.task);
+      return _fetch;
+   }
+
+   private Stage fetch(final TaskWork work) {
+      final String account = work.task.account;
+      work.accountInfo = _taskStageBulkheads.inAccountOriginStage(
+            work.task.accountOrigin,
+            () -> _createContactTaskService.getGitHubUserInfo(account));
+      return _persist;
+   }
+
+   private Stage persist(final TaskWork work) {
+      work.task = _createContactTaskService.updateFreshdeskContactTaskEntity(
+            work.task, work.accountInfo);
+      work.contactSpec = FreshdeskContactSpec.from(work.accountInfo);
+      return _lookup;
+   }
+
+   private Stage lookUp(final TaskWork work) {
+      final String freshdeskDomain = work.task.freshdeskDomain;
+      work.mappedContact = _createContactTaskService.findMappedFreshdeskContact(
+            freshdeskDomain, work.contactSpec);
+      if (work.mappedContact.isEmpty()) {
+         work.existingContact = _createContactTaskService.findFreshdeskContact(
+               freshdeskDomain, work.contactSpec);
+      }
+      return _upsert;
+   }
+
+   private Stage upsert(final TaskWork work) {
+      upsertFreshdeskContact(work);
+      work.task.status = Constants.CreateContactTaskStatus.COMPLETED;
+      return _finalise;
+   }
+
+   /**
+    * Updates the mapped contact, or creates, or updates the looked up one. A
+    * mapped contact, which no longer exists, is looked up here.
+    */
+   private void upsertFreshdeskContact(final TaskWork work) {
+      final String freshdeskDomain = work.task.freshdeskDomain;
+      if (work.mappedContact.isPresent()
+            && _createContactTaskService.updateMappedFreshdeskContact(
+            freshdeskDomain, work.mappedContact.get(), work.contactSpec)) {
+         return;
+      }
+      if (work.existingContact == null) {
+         work.existingContact = _createContactTaskService.findFreshdeskContact(
+               freshdeskDomain, work.contactSpec);
+      }
+      _createContactTaskService.upsertFreshdeskContact(freshdeskDomain,
+            work.contactSpec, work.existingContact);
+   }
+
+   private Stage finalise(final TaskWork work) {
+      _createContactTaskService.completeTask(work.task);
+      return null;
+   }
+
+   /**
+    * Hands a task over to the next stage, waiting for room in its queue.
+    */
+   private void forward(final Stage stage, final TaskWork work) {
+      try {
+         stage.queue().put(work);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException(
+               "Interrupted while handing task " + work.taskId + " over to the "
+                     + stage.name() + " stage.", e);
+      }
+   }
+
+   /**
+    * Runs a stage of a task within the deadline of the task and hands the
+    * task over to the next stage. The service time of the stage does not
+    * include the wait for the next stage.
+    */
+   private void handle(final Stage stage, final TaskWork work) {
+      final Stage nextStage;
+      try (TaskDeadline.Scope ignored = enterDeadline(stage, work)) {
+         nextStage = stage.serviceTime()
+               .record(() -> stage.handler().apply(work));
+      } catch (final Exception e) {
+         if (work.task == null || stage == _finalise) {
+            _logger.error("Task {} failed in the {} stage.", work.taskId,
+                  stage.name(), e);
+            return;
+         }
+         _createContactTaskService.failTask(work.task,
+               work.deadline == null ? e : work.deadline.failure(e));
+         forward(_finalise, work);
+         return;
+      }
+      if (nextStage != null) {
+         forward(nextStage, work);
+      }
+   }
+
+   /**
+    * Binds the deadline of a task to the stage worker, after checking the
+    * task did not run out of time while queued. The finalise stage always
+    * runs, so the task status is stored.
+    *
+    * @return The deadline scope, or null before the task is claimed.
+    */
+   private TaskDeadline.Scope enterDeadline(final Stage stage,
+         final TaskWork work) {
+      if (work.deadline == null) {
+         return null;
+      }
+      if (stage != _finalise) {
+         work.deadline.check();
+      }
+      return work.deadline.enter();
+   }
+
+   private Stage newStage(final String name,
+         final Function<TaskWork, Stage> handler) {
+      final Stage stage = new Stage(name, handler,
+            _environment.getProperty(String.format(THREADS_PROPERTY, name),
+                  Integer.class, _threads), new ArrayBlockingQueue<>(
+            _environment.getProperty(
+                  String.format(QUEUE_CAPACITY_PROPERTY, name), Integer.class,
+                  _queueCapacity)),
+            _meterRegistry.timer("task.pipeline.stage.service.time", "stage",
+                  name), new ArrayList<>());
+      _meterRegistry.gaugeCollectionSize("task.pipeline.stage.queue.size",
+            Tags.of("stage", name), stage.queue());
+      return stage;
+   }
+
+   private void startWorkers(final Stage stage) {
+      for (int i = 1; i <= stage.threads(); i++) {
+         final Thread worker = new Thread(() -> work(stage),
+               "TaskPipeline-" + stage.name() + "-" + i);
+         worker.start();
+         stage.workers().add(worker);
+      }
+   }
+
+   private void work(final Stage stage) {
+      while (_running || !stage.queue().isEmpty()
+            || hasRunningPreviousStage(stage)) {
+         try {
+            final TaskWork work = stage.queue()
+                  .poll(100, TimeUnit.MILLISECONDS);
+            if (work != null) {
+               handle(stage, work);
+            }
+         } catch (final InterruptedException e) {
+            _logger.warn("The {} stage worker was interrupted.", stage.name());
+            Thread.currentThread().interrupt();
+            return;
+         }
+      }
+   }
+
+   /**
+    * Whether a stage before the provided one may still hand tasks over to it.
+    */
+   private boolean hasRunningPreviousStage(final Stage stage) {
+      for (final Stage previousStage : _stages) {
+         if (previousStage == stage) {
+            return false;
+         }
+         if (previousStage.workers().stream().anyMatch(Thread::isAlive)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * A stage with its queue and worker threads.
+    */
+   private record Stage(String name, Function<TaskWork, Stage> handler,
+                        int threads, BlockingQueue<TaskWork> queue,
+                        Timer serviceTime, List<Thread> workers) {
+   }
+
+   /**
+    * The state of a task carried from one stage to the next.
+    */
+   private static class TaskWork {
+
+      final String taskId;
+      CreateContactTaskEntity task;
+      TaskDeadline deadline;
+      GithubAccountInfo accountInfo;
+      FreshdeskContactSpec contactSpec;
+      Optional<MappedContact> mappedContact;
+      Optional<FreshdeskContactInfo> existingContact;
+
+      TaskWork(final String taskId) {
+         this.taskId = taskId;
+      }
+   }
+}
@@ -0,0 +1,184 @@
+package com.account.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.deadline.TaskDeadline;
+import com.account.error.BulkheadFullException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Bulkheads limiting the number of executor threads a single upstream
+ * dependency of the tasks may occupy, so a slow dependency does not stall
+ * the unrelated tasks.
+ * </p>
+ * The account fetch stage has a bulkhead per {@link Constants.AccountOrigin}.
+ * The capacity of an origin is configured by
+ * {@code task.bulkhead.account.origin.<origin>.max.concurrent} and defaults
+ * to {@code task.bulkhead.account.origin.max.concurrent}.
+ * </p>
+ * The Freshdesk API calls have a bulkhead per Freshdesk domain with a
+ * capacity of {@code task.bulkhead.freshdesk.domain.max.concurrent}. The
+ * permit is held only for the call itself, so a task waiting for the batch
+ * of its contact does not hold one. The bulkhead of a domain only exists
+ * while calls to the domain are in flight, or waiting, so the bulkheads do
+ * not grow with the domains ever called.
+ * </p>
+ * The free permits of every bulkhead are published as the
+ * {@code task.bulkhead.available.permits} gauge, tagged with the origin, or
+ * with {@code FRESHDESK:<domain>}.
+ * </p>
+ * A stage waits up to {@code maxWaitMillis}, or the time left by its
+ * {@link TaskDeadline}, to enter its bulkhead and
+ * otherwise fails with a {@link BulkheadFullException}, so its task releases
+ * the thread and is retried later on. The rejection does not count as an
+ * attempt of the task.
+ */
+@Component
+public class TaskStageBulkheads {
+
+   private static final String ACCOUNT_ORIGIN_CAPACITY_PROPERTY = "task.bulkhead.account.origin.%s.max.concurrent";
+
+   private final Map<String, Semaphore> _bulkheads = new ConcurrentHashMap<>();
+   private final Map<String, DomainBulkhead> _domainBulkheads = new ConcurrentHashMap<>();
+   private final Environment _environment;
+   private final MeterRegistry _meterRegistry;
+   private final int _accountOriginCapacity;
+   private final int _freshdeskDomainCapacity;
+   private final long _maxWaitMillis;
+
+   /**
+    * @param accountOriginCapacity   The default max number of concurrent
+    *                                account fetches per account origin.
+    * @param freshdeskDomainCapacity The max number of concurrent Freshdesk
+    *                                API calls per Freshdesk domain.
+    * @param maxWaitMillis           The max time a stage waits to enter its
+    *                                bulkhead.
+    */
+   @Autowired
+   public TaskStageBulkheads(final Environment environment,
+         final MeterRegistry meterRegistry,
+         @Value("${task.bulkhead.account.origin.max.concurrent}") final int accountOriginCapacity,
+         @Value("${task.bulkhead.freshdesk.domain.max.concurrent}") final int freshdeskDomainCapacity,
+         @Value("${task.bulkhead.max.wait.millis}") final long maxWaitMillis) {
+      _environment = environment;
+      _meterRegistry = meterRegistry;
+      _accountOriginCapacity = accountOriginCapacity;
+      _freshdeskDomainCapacity = freshdeskDomainCapacity;
+      _maxWaitMillis = maxWaitMillis;
+   }
+
+   /**
+    * Runs the account fetch stage of a task in the bulkhead of its origin.
+    */
+   public <T> T inAccountOriginStage(final Constants.AccountOrigin origin,
+         final Supplier<T> stage) {
+      final Semaphore bulkhead = _bulkheads.computeIfAbsent(
+            "origin:" + origin, key -> newBulkhead(_environment.getProperty(
+                  String.format(ACCOUNT_ORIGIN_CAPACITY_PROPERTY,
+                        origin.name().toLowerCase()), Integer.class,
+                  _accountOriginCapacity), origin.name()));
+      return run(bulkhead, origin.name(), stage);
+   }
+
+   /**
+    * Runs a Freshdesk API call in the bulkhead of its domain.
+    */
+   public <T> T inFreshdeskDomainStage(final String freshdeskDomain,
+         final Supplier<T> call) {
+      final DomainBulkhead bulkhead = _domainBulkheads.compute(
+            freshdeskDomain, (domain, existing) -> (existing == null
+                  ? newDomainBulkhead(domain) : existing).enter());
+      try {
+         return run(bulkhead.semaphore, "FRESHDESK", call);
+      } finally {
+         _domainBulkheads.computeIfPresent(freshdeskDomain,
+               (domain, existing) -> existing.leave() ? existing
+                     : evict(existing));
+      }
+   }
+
+   private Semaphore newBulkhead(final int capacity, final String stage) {
+      final Semaphore bulkhead = new Semaphore(capacity);
+      _meterRegistry.gauge("task.bulkhead.available.permits",
+            Tags.of("stage", stage), bulkhead, Semaphore::availablePermits);
+      return bulkhead;
+   }
+
+   private DomainBulkhead newDomainBulkhead(final String freshdeskDomain) {
+      final Semaphore semaphore = new Semaphore(_freshdeskDomainCapacity);
+      return new DomainBulkhead(semaphore,
+            Gauge.builder("task.bulkhead.available.permits", semaphore,
+                        Semaphore::availablePermits)
+                  .tags("stage", "FRESHDESK:" + freshdeskDomain)
+                  .register(_meterRegistry));
+   }
+
+   private DomainBulkhead evict(final DomainBulkhead bulkhead) {
+      _meterRegistry.remove(bulkhead.gauge);
+      return null;
+   }
+
+   private <T> T run(final Semaphore bulkhead, final String stage,
+         final Supplier<T> action) {
+      try {
+         if (!bulkhead.tryAcquire(TaskDeadline.limitMillis(_maxWaitMillis),
+               TimeUnit.MILLISECONDS)) {
+            _meterRegistry.counter("task.bulkhead.rejected", "stage", stage)
+                  .increment();
+            throw new BulkheadFullException(
+                  "The bulkhead of the " + stage + " stage is full.");
+         }
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new BulkheadFullException(
+               "Interrupted while waiting for the bulkhead of the " + stage
+                     + " stage.");
+      }
+      try {
+         return action.get();
+      } finally {
+         bulkhead.release();
+      }
+   }
+
+   /**
+    * The bulkhead of a Freshdesk domain with the number of calls in flight,
+    * or waiting, which is only changed while the domain's map entry is
+    * computed.
+    */
+   private static final class DomainBulkhead {
+
+      final Semaphore semaphore;
+      final Gauge gauge;
+      int users;
+
+      DomainBulkhead(final Semaphore semaphore, final Gauge gauge) {
+         this.semaphore = semaphore;
+         this.gauge = gauge;
+      }
+
+      DomainBulkhead enter() {
+         users++;
+         return this;
+      }
+
+      /**
+       * @return Whether calls are still using the bulkhead.
+       */
+      boolean leave() {
+         return --users > 0;
+      }
+   }
+}
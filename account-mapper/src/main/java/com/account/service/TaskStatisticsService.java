@@ -0,0 +1,208 @@
+package com.account.service;
+
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskStatistics;
+import com.account.event.TaskStatusChangedEvent;
+import com.account.repository.CreateContactTaskStore;
+
+/**
+ * Serves the aggregated statistics of the tasks, so the dashboards do not
+ * need to load and count all tasks.
+ * </p>
+ * The task counts are aggregated by the {@link CreateContactTaskStore} and
+ * cached for {@code cacheTtlMillis}, so frequent dashboard refreshes cost a
+ * single aggregation per TTL. The aggregation holds a lock of its own, so it
+ * never blocks the task workers counting the finished tasks.
+ * </p>
+ * The finished tasks are removed by the cleaner shortly after they finish,
+ * so the completion rates can't be counted from the store. They are counted
+ * from the {@link TaskStatusChangedEvent}s of the tasks executed by this
+ * instance instead, in 10 second buckets. The completion rates are therefore
+ * those of this instance only, not of all the instances sharing the store.
+ */
+@Component
+public class TaskStatisticsService {
+
+   private static final List<Constants.CreateContactTaskStatus> PENDING_STATUSES = List.of(
+         Constants.CreateContactTaskStatus.NOT_STARTED,
+         Constants.CreateContactTaskStatus.TO_RETRY,
+         Constants.CreateContactTaskStatus.RUNNING);
+   private static final long BUCKET_MILLIS = 10_000;
+
+   private final CreateContactTaskStore _createContactTaskStore;
+   private final Clock _clock;
+   private final long _cacheTtlMillis;
+   private final int[] _windowsMinutes;
+   private final AtomicReferenceArray<Bucket> _buckets;
+   private final Object _aggregationLock = new Object();
+   private volatile CachedStatistics _cached;
+
+   /**
+    * @param cacheTtlMillis The time the statistics are served from the cache.
+    * @param windowsMinutes The lengths of the completion rate windows.
+    */
+   @Autowired
+   public TaskStatisticsService(
+         final CreateContactTaskStore createContactTaskStore,
+         final Clock clock,
+         @Value("${task.stats.cache.ttl.millis}") final long cacheTtlMillis,
+         @Value("${task.stats.completion.windows.minutes}") final int[] windowsMinutes) {
+      _createContactTaskStore = createContactTaskStore;
+      _clock = clock;
+      _cacheTtlMillis = cacheTtlMillis;
+      _windowsMinutes = windowsMinutes.clone();
+      final int buckets = (int) (Arrays.stream(windowsMinutes).max().orElse(1)
+            * 60_000L / BUCKET_MILLIS);
+      _buckets = new AtomicReferenceArray<>(buckets);
+   }
+
+   /**
+    * Retrieves the task statistics, aggregated again once the cached ones
+    * expired. Concurrent requests of expired statistics share a single
+    * aggregation.
+    *
+    * @return The latest statistics of the tasks.
+    */
+   public TaskStatistics get() {
+      CachedStatistics cached = _cached;
+      if (isFresh(cached, _clock.millis())) {
+         return cached.statistics();
+      }
+      synchronized (_aggregationLock) {
+         final long now = _clock.millis();
+         cached = _cached;
+         if (!isFresh(cached, now)) {
+            cached = new CachedStatistics(aggregate(now), now);
+            _cached = cached;
+         }
+         return cached.statistics();
+      }
+   }
+
+   @EventListener
+   public void onTaskStatusChanged(final TaskStatusChangedEvent event) {
+      if (Constants.CreateContactTaskStatus.COMPLETED.equals(event.status())) {
+         currentBucket().completed().increment();
+      } else if (Constants.CreateContactTaskStatus.FAILED.equals(
+            event.status())) {
+         currentBucket().failed().increment();
+      }
+   }
+
+   private boolean isFresh(final CachedStatistics cached, final long now) {
+      return cached != null && now - cached.cachedAtMillis() < _cacheTtlMillis;
+   }
+
+   private TaskStatistics aggregate(final long now) {
+      final CreateContactTaskStatistics statistics = _createContactTaskStore.aggregateStatistics(
+            PENDING_STATUSES);
+      final Long oldestPendingAgeMillis = statistics.oldestPendingCreated() == null
+            ? null : now - statistics.oldestPendingCreated().getTime();
+      final Map<String, CompletionWindow> completionWindows = new LinkedHashMap<>();
+      for (final int minutes : _windowsMinutes) {
+         completionWindows.put(minutes + "m", completionWindow(now, minutes));
+      }
+      return new TaskStatistics(new Date(now), statistics.total(),
+            statistics.countsByStatus(), statistics.countsByDomain(),
+            statistics.countsByAttempts(), oldestPendingAgeMillis,
+            completionWindows);
+   }
+
+   /**
+    * @return The bucket of the current time, which replaces the expired
+    * bucket of its slot without a lock.
+    */
+   private Bucket currentBucket() {
+      final long bucketId = _clock.millis() / BUCKET_MILLIS;
+      final int index = (int) (bucketId % _buckets.length());
+      while (true) {
+         final Bucket bucket = _buckets.get(index);
+         if (bucket != null && bucket.id() >= bucketId) {
+            return bucket;
+         }
+         final Bucket newBucket = new Bucket(bucketId, new LongAdder(),
+               new LongAdder());
+         if (_buckets.compareAndSet(index, bucket, newBucket)) {
+            return newBucket;
+         }
+      }
+   }
+
+   /**
+    * Sums the buckets of the window ending with the current bucket.
+    */
+   private CompletionWindow completionWindow(final long now,
+         final int minutes) {
+      final long lastBucketId = now / BUCKET_MILLIS;
+      final long firstBucketId = lastBucketId - minutes * 60_000L / BUCKET_MILLIS;
+      long completed = 0;
+      long failed = 0;
+      for (int i = 0; i < _buckets.length(); i++) {
+         final Bucket bucket = _buckets.get(i);
+         if (bucket != null && bucket.id() > firstBucketId
+               && bucket.id() <= lastBucketId) {
+            completed += bucket.completed().sum();
+            failed += bucket.failed().sum();
+         }
+      }
+      return new CompletionWindow(completed, failed,
+            (double) completed / minutes);
+   }
+
+   private record CachedStatistics(TaskStatistics statistics,
+                                   long cachedAtMillis) {
+   }
+
+   /**
+    * The tasks finished within a 10 second bucket.
+    */
+   private record Bucket(long id, LongAdder completed, LongAdder failed) {
+   }
+
+   /**
+    * The aggregated statistics of the tasks.
+    *
+    * @param computedAt             The time the statistics were aggregated.
+    * @param total                  The number of stored tasks.
+    * @param countsByStatus         The number of tasks per status.
+    * @param countsByDomain         The number of tasks per Freshdesk domain
+    *                               and status.
+    * @param countsByAttempts       The number of tasks per execution
+    *                               attempts.
+    * @param oldestPendingAgeMillis The age of the oldest pending task, or null
+    *                               when no task is pending.
+    * @param completionWindows      The tasks finished by this instance per
+    *                               window, e.g. {@code 5m}. Not those
+    *                               finished by the other instances.
+    */
+   public record TaskStatistics(Date computedAt, long total,
+                                Map<Constants.CreateContactTaskStatus, Long> countsByStatus,
+                                Map<String, Map<Constants.CreateContactTaskStatus, Long>> countsByDomain,
+                                Map<Integer, Long> countsByAttempts,
+                                Long oldestPendingAgeMillis,
+                                Map<String, CompletionWindow> completionWindows) {
+   }
+
+   /**
+    * @param completed          The tasks completed within the window.
+    * @param failed             The tasks failed within the window.
+    * @param completedPerMinute The average completion rate of the window.
+    */
+   public record CompletionWindow(long completed, long failed,
+                                  double completedPerMinute) {
+   }
+}
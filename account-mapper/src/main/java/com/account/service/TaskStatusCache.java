@@ -0,0 +1,137 @@
+package com.account.service;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.account.constants.Constants;
+import com.account.event.TaskStatusChangedEvent;
+import com.account.repository.CreateContactTaskStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * A bounded, least recently used cache of the latest status of the tasks.
+ * </p>
+ * The cache is kept up to date by the {@link TaskStatusChangedEvent}s of
+ * {@link CreateContactTaskService}, so the status polls of a task are served
+ * from memory. A missing task is read through from the
+ * {@link CreateContactTaskStore}. Tasks removed by the cleaner keep their
+ * final status in the cache until they are evicted.
+ * </p>
+ * The events are published by the node executing the task only, so a
+ * pending status (not COMPLETED, nor FAILED) is read through again once
+ * cached for longer than {@code pendingTtlMillis}. A final status never
+ * changes and is kept until evicted.
+ */
+@Component
+public class TaskStatusCache {
+
+   private final CreateContactTaskStore _createContactTaskStore;
+   private final Map<String, CachedStatus> _statuses;
+   private final Clock _clock;
+   private final long _pendingTtlMillis;
+   private final Counter _hits;
+   private final Counter _misses;
+
+   /**
+    * @param maxSize          The max number of cached task statuses.
+    * @param pendingTtlMillis The time a pending status is served from the
+    *                         cache.
+    */
+   @Autowired
+   public TaskStatusCache(final CreateContactTaskStore createContactTaskStore,
+         final MeterRegistry meterRegistry, final Clock clock,
+         @Value("${task.status.cache.max.size}") final int maxSize,
+         @Value("${task.status.cache.pending.ttl.millis}") final long pendingTtlMillis) {
+      _createContactTaskStore = createContactTaskStore;
+      _clock = clock;
+      _pendingTtlMillis = pendingTtlMillis;
+      _statuses = new LinkedHashMap<>(16, 0.75f, true) {
+         @Override
+         protected boolean removeEldestEntry(
+               final Map.Entry<String, CachedStatus> eldest) {
+            return size() > maxSize;
+         }
+      };
+      _hits = meterRegistry.counter("task.status.cache.requests", "result",
+            "hit");
+      _misses = meterRegistry.counter("task.status.cache.requests", "result",
+            "miss");
+      meterRegistry.gauge("task.status.cache.size", this,
+            TaskStatusCache::size);
+   }
+
+   /**
+    * Retrieves the latest status of a task.
+    *
+    * @param taskId The ID of the task.
+    * @return The latest status of the task, or empty if the task does not
+    * exist.
+    */
+   public Optional<TaskStatusChangedEvent> get(final String taskId) {
+      synchronized (_statuses) {
+         final CachedStatus cached = _statuses.get(taskId);
+         if (cached != null && isFresh(cached)) {
+            _hits.increment();
+            return Optional.of(cached.status());
+         }
+      }
+      _misses.increment();
+      final Optional<TaskStatusChangedEvent> status = _createContactTaskStore.findById(
+            taskId).map(TaskStatusChangedEvent::of);
+      status.ifPresent(this::put);
+      return status;
+   }
+
+   @EventListener
+   public void onTaskStatusChanged(final TaskStatusChangedEvent event) {
+      put(event);
+   }
+
+   /**
+    * Caches a status, unless a newer status of the task is cached already
+    * (e.g. a read through status racing with a status change).
+    */
+   private void put(final TaskStatusChangedEvent status) {
+      final CachedStatus cachedStatus = new CachedStatus(status,
+            _clock.millis());
+      synchronized (_statuses) {
+         _statuses.merge(status.taskId(), cachedStatus,
+               (cached, updated) -> isOlder(updated.status().updated(),
+                     cached.status().updated()) ? cached : updated);
+      }
+   }
+
+   private boolean isFresh(final CachedStatus cached) {
+      final Constants.CreateContactTaskStatus status = cached.status().status();
+      return status == Constants.CreateContactTaskStatus.COMPLETED
+            || status == Constants.CreateContactTaskStatus.FAILED
+            || _clock.millis() - cached.cachedMillis() < _pendingTtlMillis;
+   }
+
+   private int size() {
+      synchronized (_statuses) {
+         return _statuses.size();
+      }
+   }
+
+   private static boolean isOlder(final Date date, final Date other) {
+      return date != null && other != null && date.before(other);
+   }
+
+   /**
+    * @param status       The cached status.
+    * @param cachedMillis The time the status was cached at.
+    */
+   private record CachedStatus(TaskStatusChangedEvent status,
+                               long cachedMillis) {
+   }
+}
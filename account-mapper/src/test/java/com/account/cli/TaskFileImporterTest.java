@@ -0,0 +1,134 @@
+package com.account.cli;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.service.CreateContactTaskService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskFileImporterTest {
+
+   private final CreateContactTaskService _service = mock(
+         CreateContactTaskService.class);
+   private final TaskFileImporter _importer = new TaskFileImporter(_service,
+         new ObjectMapper(), 2, 1, 4, 1);
+   @TempDir
+   private Path _directory;
+
+   public TaskFileImporterTest() {
+      when(_service.newTask(any(), any(), any(), any())).thenAnswer(
+            invocation -> new CreateContactTaskEntity(invocation.getArgument(0),
+                  Constants.AccountOrigin.valueOf(
+                        invocation.<String>getArgument(1).toUpperCase()),
+                  invocation.getArgument(2)));
+   }
+
+   @Test
+   public void importFile_csv_storesValidRowsInBatches() throws IOException {
+      final List<Integer> batchSizes = new ArrayList<>();
+      when(_service.createAll(any())).thenAnswer(invocation -> {
+         final List<CreateContactTaskEntity> batch = invocation.getArgument(0);
+         batchSizes.add(batch.size());
+         return List.copyOf(batch);
+      });
+      final Path file = write("tasks.csv", """
+            origin,account,domain
+            GITHUB,first,domain
+            UNKNOWN,invalid,domain
+
+            github,second,domain
+            GITHUB,third,domain
+            """);
+
+      final TaskFileImporter.ImportReport report = _importer.importFile(file);
+
+      assertEquals(report.rows, 4);
+      assertEquals(report.created, 3);
+      assertEquals(report.invalid, 1);
+      assertEquals(batchSizes, List.of(2, 1));
+      assertFalse(report.isSuccessful());
+   }
+
+   @Test
+   public void importFile_beyondTheMaxRows_stopsTheImport() throws IOException {
+      when(_service.createAll(any())).thenAnswer(
+            invocation -> List.copyOf(invocation.getArgument(0)));
+      final Path file = write("tasks.csv", """
+            GITHUB,first,domain
+            GITHUB,second,domain
+            GITHUB,third,domain
+            GITHUB,fourth,domain
+            GITHUB,fifth,domain
+            """);
+
+      final TaskFileImporter.ImportReport report = _importer.importFile(file);
+
+      assertEquals(report.rows, 4);
+      assertEquals(report.created, 4);
+      assertTrue(report.truncated);
+      assertFalse(report.isSuccessful());
+   }
+
+   @Test
+   public void importFile_withOnlyValidRows_isSuccessful() throws IOException {
+      when(_service.createAll(any())).thenAnswer(
+            invocation -> List.copyOf(invocation.<List<?>>getArgument(0).subList(0, 1)));
+      final Path file = write("tasks.csv", """
+            GITHUB,first,domain
+            GITHUB,first,domain
+            """);
+
+      final TaskFileImporter.ImportReport report = _importer.importFile(file);
+
+      assertEquals(report.duplicates, 1);
+      assertTrue(report.isSuccessful());
+   }
+
+   @Test
+   public void importFile_ndjson_countsSkippedDuplicates() throws IOException {
+      when(_service.createAll(any())).thenAnswer(
+            invocation -> List.copyOf(invocation.<List<?>>getArgument(0).subList(0, 1)));
+      final Path file = write("tasks.ndjson", """
+            {"origin": "GITHUB", "account": "first", "freshdeskDomain": "domain"}
+            {"origin": "GITHUB", "account": "first", "freshdeskDomain": "domain"}
+            not a json
+            """);
+
+      final TaskFileImporter.ImportReport report = _importer.importFile(file);
+
+      assertEquals(report.rows, 3);
+      assertEquals(report.created, 1);
+      assertEquals(report.duplicates, 1);
+      assertEquals(report.invalid, 1);
+   }
+
+   @Test
+   public void awaitCompletion_returnsOnceNoTaskIsPending()
+         throws InterruptedException {
+      when(_service.hasPendingTasks()).thenReturn(true, true, false);
+      _importer.awaitCompletion();
+      verify(_service, times(3)).hasPendingTasks();
+   }
+
+   private Path write(final String name, final String content)
+         throws IOException {
+      return Files.writeString(_directory.resolve(name), content);
+   }
+}
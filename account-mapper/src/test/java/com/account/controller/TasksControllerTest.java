@@ -1,9 +1,14 @@
 package com.account.controller;
 
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -11,10 +16,18 @@ import com.account.constants.Constants;
 import com.account.entity.CreateContactTaskEntity;
 import com.account.error.DuplicateTaskException;
 import com.account.error.ErrorResponse;
+import com.account.error.IngestionBufferFullException;
+import com.account.event.TaskEventBroadcaster;
+import com.account.event.TaskStatusChangedEvent;
+import com.account.ingestion.TaskIngestionBuffer;
 import com.account.service.CreateContactTaskService;
+import com.account.service.TaskStatisticsService;
+import com.account.service.TaskStatusCache;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class TasksControllerTest {
@@ -24,6 +37,14 @@ public class TasksControllerTest {
 
    @Mock
    private CreateContactTaskService _taskService;
+   @Mock
+   private TaskIngestionBuffer _taskIngestionBuffer;
+   @Mock
+   private TaskEventBroadcaster _taskEventBroadcaster;
+   @Mock
+   private TaskStatusCache _taskStatusCache;
+   @Mock
+   private TaskStatisticsService _taskStatisticsService;
 
    public TasksControllerTest() {
       MockitoAnnotations.openMocks(this);
@@ -39,7 +60,7 @@ public class TasksControllerTest {
             freshdeskDomain);
       expectedTaskEntity.id = "1";
 
-      when(_taskService.create(account, origin, freshdeskDomain)).thenReturn(
+      when(_taskService.create(account, origin, freshdeskDomain, null)).thenReturn(
             expectedTaskEntity);
 
       final ResponseEntity<?> response = _tasksController.create(
@@ -63,7 +84,7 @@ public class TasksControllerTest {
 
       final DuplicateTaskException exceptionThrown = new DuplicateTaskException(
             "test-message");
-      when(_taskService.create(account, origin, freshdeskDomain)).thenThrow(
+      when(_taskService.create(account, origin, freshdeskDomain, null)).thenThrow(
             exceptionThrown);
 
       final ResponseEntity<?> response = _tasksController.create(
@@ -85,7 +106,7 @@ public class TasksControllerTest {
 
       final IllegalArgumentException exceptionThrown = new IllegalArgumentException(
             "test-message");
-      when(_taskService.create(account, origin, freshdeskDomain)).thenThrow(
+      when(_taskService.create(account, origin, freshdeskDomain, null)).thenThrow(
             exceptionThrown);
 
       final ResponseEntity<?> response = _tasksController.create(
@@ -106,7 +127,7 @@ public class TasksControllerTest {
       final String freshdeskDomain = "my-freshworks";
 
       final RuntimeException exception = new RuntimeException();
-      when(_taskService.create(account, origin, freshdeskDomain)).thenThrow(
+      when(_taskService.create(account, origin, freshdeskDomain, null)).thenThrow(
             exception);
 
       final ResponseEntity<?> response = _tasksController.create(
@@ -120,4 +141,146 @@ public class TasksControllerTest {
       assertEquals(body.details(),
             "Something went wrong. Please contact the support team for further assistance.");
    }
+
+   @Test
+   public void create_asyncIngestion_returnsAcceptedTask() {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "test-account", Constants.AccountOrigin.GITHUB, "my-freshworks");
+      when(_taskIngestionBuffer.isEnabled()).thenReturn(true);
+      when(_taskIngestionBuffer.durability()).thenReturn(
+            Constants.IngestionDurability.ACCEPTED);
+      when(_taskService.newTask("test-account", "github", "my-freshworks",
+            null)).thenReturn(task);
+      when(_taskIngestionBuffer.accept(task)).thenReturn(
+            new TaskIngestionBuffer.PendingTask(task,
+                  new CompletableFuture<>()));
+
+      final ResponseEntity<?> response = _tasksController.create(
+            new TasksController.CreateContactRequestBody("test-account",
+                  "github", "my-freshworks"));
+
+      assertEquals(response.getStatusCode(), HttpStatus.ACCEPTED);
+      assertEquals(response.getBody(), task);
+      verify(_taskIngestionBuffer).accept(task);
+   }
+
+   @Test
+   public void create_asyncIngestion_whenBufferIsFull_returnsTooManyRequests() {
+      when(_taskIngestionBuffer.isEnabled()).thenReturn(true);
+      when(_taskService.newTask("test-account", "github", "my-freshworks",
+            null)).thenReturn(new CreateContactTaskEntity());
+      when(_taskIngestionBuffer.accept(any())).thenThrow(
+            new IngestionBufferFullException("test-message"));
+
+      final ResponseEntity<?> response = _tasksController.create(
+            new TasksController.CreateContactRequestBody("test-account",
+                  "github", "my-freshworks"));
+
+      assertEquals(response.getStatusCode(), HttpStatus.TOO_MANY_REQUESTS);
+      final ErrorResponse body = (ErrorResponse) response.getBody();
+      assertNotNull(body);
+      assertEquals(body.details(), "test-message");
+   }
+
+   @Test
+   public void create_asyncIngestion_withPersistedDurability_waitsForTheStoredTask() {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "test-account", Constants.AccountOrigin.GITHUB, "my-freshworks");
+      when(_taskIngestionBuffer.isEnabled()).thenReturn(true);
+      when(_taskIngestionBuffer.durability()).thenReturn(
+            Constants.IngestionDurability.PERSISTED);
+      when(_taskService.newTask("test-account", "github", "my-freshworks",
+            null)).thenReturn(task);
+      when(_taskIngestionBuffer.accept(task)).thenReturn(
+            new TaskIngestionBuffer.PendingTask(task,
+                  CompletableFuture.failedFuture(
+                        new DuplicateTaskException("test-message"))));
+
+      final ResponseEntity<?> response = _tasksController.create(
+            new TasksController.CreateContactRequestBody("test-account",
+                  "github", "my-freshworks"));
+
+      assertEquals(response.getStatusCode(), HttpStatus.CONFLICT);
+   }
+
+   @Test
+   public void create_persistedDurability_whenTheTaskIsNotStoredInTime_returnsServiceUnavailable() {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "test-account", Constants.AccountOrigin.GITHUB, "my-freshworks");
+      when(_taskIngestionBuffer.isEnabled()).thenReturn(true);
+      when(_taskIngestionBuffer.durability()).thenReturn(
+            Constants.IngestionDurability.PERSISTED);
+      when(_taskIngestionBuffer.persistTimeoutMillis()).thenReturn(10L);
+      when(_taskService.newTask("test-account", "github", "my-freshworks",
+            null)).thenReturn(task);
+      when(_taskIngestionBuffer.accept(task)).thenReturn(
+            new TaskIngestionBuffer.PendingTask(task,
+                  new CompletableFuture<>()));
+
+      final ResponseEntity<?> response = _tasksController.create(
+            new TasksController.CreateContactRequestBody("test-account",
+                  "github", "my-freshworks"));
+
+      assertEquals(response.getStatusCode(), HttpStatus.SERVICE_UNAVAILABLE);
+      assertEquals(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER),
+            "1");
+   }
+
+   @Test
+   public void get_existingTask_returnsItsStatus() {
+      final TaskStatusChangedEvent status = new TaskStatusChangedEvent("1",
+            "account", Constants.AccountOrigin.GITHUB, "domain",
+            Constants.CreateContactTaskStatus.COMPLETED, 1, null);
+      when(_taskStatusCache.get("1")).thenReturn(Optional.of(status));
+
+      final ResponseEntity<?> response = _tasksController.get("1");
+
+      assertEquals(response.getStatusCode(), HttpStatus.OK);
+      assertEquals(response.getBody(), status);
+   }
+
+   @Test
+   public void get_missingTask_returnsNotFound() {
+      when(_taskStatusCache.get("1")).thenReturn(Optional.empty());
+
+      final ResponseEntity<?> response = _tasksController.get("1");
+
+      assertEquals(response.getStatusCode(), HttpStatus.NOT_FOUND);
+   }
+
+   @Test
+   public void get_bufferedTask_returnsAccepted() {
+      when(_taskStatusCache.get("1")).thenReturn(Optional.empty());
+      when(_taskIngestionBuffer.stateOf("1")).thenReturn(
+            Optional.of(TaskIngestionBuffer.IngestionState.BUFFERED));
+
+      final ResponseEntity<?> response = _tasksController.get("1");
+
+      assertEquals(response.getStatusCode(), HttpStatus.ACCEPTED);
+      assertEquals(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER),
+            "1");
+   }
+
+   @Test
+   public void get_taskRejectedAsDuplicate_returnsConflict() {
+      when(_taskStatusCache.get("1")).thenReturn(Optional.empty());
+      when(_taskIngestionBuffer.stateOf("1")).thenReturn(
+            Optional.of(TaskIngestionBuffer.IngestionState.DUPLICATE));
+
+      final ResponseEntity<?> response = _tasksController.get("1");
+
+      assertEquals(response.getStatusCode(), HttpStatus.CONFLICT);
+   }
+
+   @Test
+   public void stats_returnsTheTaskStatistics() {
+      final TaskStatisticsService.TaskStatistics statistics = new TaskStatisticsService.TaskStatistics(
+            null, 0, Map.of(), Map.of(), Map.of(), null, Map.of());
+      when(_taskStatisticsService.get()).thenReturn(statistics);
+
+      final ResponseEntity<?> response = _tasksController.stats();
+
+      assertEquals(response.getStatusCode(), HttpStatus.OK);
+      assertEquals(response.getBody(), statistics);
+   }
 }
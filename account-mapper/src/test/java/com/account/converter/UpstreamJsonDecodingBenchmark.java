@@ -0,0 +1,146 @@
+package com.account.converter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import com.account.freshdesk.FreshdeskContactInfo;
+import com.account.github.GithubAccountInfo;
+
+/**
+ * Compares the decoding of the upstream API responses by the default
+ * {@link MappingJackson2HttpMessageConverter} of a {@code RestTemplate} and by
+ * the {@link UpstreamJsonMessageConverter}.
+ * </p>
+ * Run it from the project directory with:
+ * <pre>
+ * mvnw test-compile dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp target/test-classes:target/classes:$(cat target/test.classpath) com.account.converter.UpstreamJsonDecodingBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UpstreamJsonDecodingBenchmark {
+
+   private static final Type CONTACT_LIST_TYPE = new ParameterizedTypeReference<List<FreshdeskContactInfo>>() {
+   }.getType();
+
+   private MappingJackson2HttpMessageConverter _defaultConverter;
+   private UpstreamJsonMessageConverter _upstreamConverter;
+   private byte[] _gitHubUser;
+   private byte[] _freshdeskContacts;
+
+   public static void main(final String[] args) throws RunnerException {
+      new Runner(new OptionsBuilder().include(
+            UpstreamJsonDecodingBenchmark.class.getSimpleName()).build()).run();
+   }
+
+   @Setup
+   public void setUp() {
+      _defaultConverter = new MappingJackson2HttpMessageConverter();
+      _upstreamConverter = new UpstreamJsonMessageConverter(
+            Jackson2ObjectMapperBuilder.json().build(),
+            List.of(GithubAccountInfo.class, CONTACT_LIST_TYPE));
+      _gitHubUser = gitHubUser(1).getBytes(StandardCharsets.UTF_8);
+      final StringBuilder contacts = new StringBuilder("[");
+      for (int i = 0; i < 100; i++) {
+         contacts.append(i == 0 ? "" : ",").append(freshdeskContact(i));
+      }
+      _freshdeskContacts = contacts.append(']').toString()
+            .getBytes(StandardCharsets.UTF_8);
+   }
+
+   @Benchmark
+   public Object defaultConverter_gitHubUser() throws IOException {
+      return _defaultConverter.read(GithubAccountInfo.class, null,
+            new MockHttpInputMessage(_gitHubUser));
+   }
+
+   @Benchmark
+   public Object upstreamConverter_gitHubUser() throws IOException {
+      return _upstreamConverter.read(GithubAccountInfo.class, null,
+            new MockHttpInputMessage(_gitHubUser));
+   }
+
+   @Benchmark
+   public Object defaultConverter_freshdeskContacts() throws IOException {
+      return _defaultConverter.read(CONTACT_LIST_TYPE, null,
+            new MockHttpInputMessage(_freshdeskContacts));
+   }
+
+   @Benchmark
+   public Object upstreamConverter_freshdeskContacts() throws IOException {
+      return _upstreamConverter.read(CONTACT_LIST_TYPE, null,
+            new MockHttpInputMessage(_freshdeskContacts));
+   }
+
+   /**
+    * A user as returned by the GitHub REST API, with all its public fields.
+    */
+   private static String gitHubUser(final int id) {
+      final String url = "https://api.github.com/users/user" + id;
+      return "{\"login\":\"user" + id + "\",\"id\":" + id
+            + ",\"node_id\":\"MDQ6VXNlcj" + id + "\",\"avatar_url\":"
+            + "\"https://avatars.githubusercontent.com/u/" + id + "?v=4\","
+            + "\"gravatar_id\":\"\",\"url\":\"" + url + "\",\"html_url\":"
+            + "\"https://github.com/user" + id + "\",\"followers_url\":\""
+            + url + "/followers\",\"following_url\":\"" + url
+            + "/following{/other_user}\",\"gists_url\":\"" + url
+            + "/gists{/gist_id}\",\"starred_url\":\"" + url
+            + "/starred{/owner}{/repo}\",\"subscriptions_url\":\"" + url
+            + "/subscriptions\",\"organizations_url\":\"" + url
+            + "/orgs\",\"repos_url\":\"" + url + "/repos\",\"events_url\":\""
+            + url + "/events{/privacy}\",\"received_events_url\":\"" + url
+            + "/received_events\",\"type\":\"User\",\"site_admin\":false,"
+            + "\"name\":\"User " + id + "\",\"company\":\"@github\","
+            + "\"blog\":\"https://github.blog\",\"location\":\"San Francisco\","
+            + "\"email\":\"user" + id + "@github.com\",\"hireable\":null,"
+            + "\"bio\":null,\"twitter_username\":null,\"public_repos\":8,"
+            + "\"public_gists\":8,\"followers\":12345,\"following\":9,"
+            + "\"created_at\":\"2011-01-25T18:44:36Z\","
+            + "\"updated_at\":\"2024-06-22T11:23:04Z\"}";
+   }
+
+   /**
+    * A contact as returned by the Freshdesk contacts API.
+    */
+   private static String freshdeskContact(final int id) {
+      return "{\"active\":true,\"address\":\"San Francisco\","
+            + "\"company_id\":null,\"view_all_tickets\":null,"
+            + "\"deleted\":false,\"description\":null,\"email\":\"user" + id
+            + "@github.com\",\"id\":" + (47000000000L + id)
+            + ",\"job_title\":null,\"language\":\"en\",\"mobile\":null,"
+            + "\"name\":\"User " + id + "\",\"phone\":null,"
+            + "\"time_zone\":\"Eastern Time (US & Canada)\","
+            + "\"twitter_id\":null,\"custom_fields\":{\"tier\":\"gold\","
+            + "\"region\":null},\"facebook_id\":null,"
+            + "\"created_at\":\"2024-06-22T11:23:04Z\","
+            + "\"updated_at\":\"2024-06-22T11:23:04Z\",\"csat_rating\":null,"
+            + "\"preferred_source\":null,\"unique_external_id\":\"" + id
+            + "\",\"other_emails\":[],\"other_companies\":[],\"tags\":[]}";
+   }
+}
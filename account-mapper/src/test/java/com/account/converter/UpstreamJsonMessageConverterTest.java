@@ -0,0 +1,74 @@
+package com.account.converter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+
+import com.account.freshdesk.FreshdeskContactInfo;
+import com.account.github.GithubAccountInfo;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UpstreamJsonMessageConverterTest {
+
+   private static final Type CONTACT_LIST_TYPE = new ParameterizedTypeReference<List<FreshdeskContactInfo>>() {
+   }.getType();
+
+   private final UpstreamJsonMessageConverter _converter = new UpstreamJsonMessageConverter(
+         Jackson2ObjectMapperBuilder.json().build(),
+         List.of(GithubAccountInfo.class, CONTACT_LIST_TYPE));
+
+   @Test
+   public void read_registeredType_skipsUnknownFields() throws IOException {
+      final GithubAccountInfo accountInfo = (GithubAccountInfo) _converter.read(
+            GithubAccountInfo.class, null, input(
+                  "{\"login\":\"octocat\",\"id\":\"1\",\"followers\":20,"
+                        + "\"plan\":{\"name\":\"pro\",\"space\":976562499},"
+                        + "\"email\":\"octocat@github.com\"}"));
+
+      assertEquals(accountInfo.name, "octocat");
+      assertEquals(accountInfo.id, "1");
+      assertEquals(accountInfo.email, "octocat@github.com");
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void read_registeredGenericType_decodesList() throws IOException {
+      final List<FreshdeskContactInfo> contacts = (List<FreshdeskContactInfo>) _converter.read(
+            CONTACT_LIST_TYPE, null, input(
+                  "[{\"id\":1,\"name\":\"first\",\"unique_external_id\":\"a\","
+                        + "\"other_emails\":[]},{\"id\":2,\"name\":\"second\"}]"));
+
+      assertEquals(contacts.size(), 2);
+      assertEquals(contacts.get(0).uniqueExternalId, "a");
+      assertEquals(contacts.get(1).id, 2L);
+   }
+
+   @Test
+   public void read_otherType_isDecodedByDefault() throws IOException {
+      final JsonNode node = (JsonNode) _converter.read(JsonNode.class, null,
+            input("{\"data\":{\"u0\":null}}"));
+
+      assertEquals(node.path("data").has("u0"), true);
+   }
+
+   @Test
+   public void read_malformedBody_throwsNotReadable() {
+      assertThrows(HttpMessageNotReadableException.class,
+            () -> _converter.read(GithubAccountInfo.class, null,
+                  input("{\"login\":")));
+   }
+
+   private MockHttpInputMessage input(final String body) {
+      return new MockHttpInputMessage(body.getBytes(StandardCharsets.UTF_8));
+   }
+}
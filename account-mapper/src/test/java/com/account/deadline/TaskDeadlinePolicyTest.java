@@ -0,0 +1,47 @@
+package com.account.deadline;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TaskDeadlinePolicyTest {
+
+   private final TaskDeadlinePolicy _policy = new TaskDeadlinePolicy(
+         new MockEnvironment()
+               .withProperty("task.deadline.priority.high.millis", "1000")
+               .withProperty("task.deadline.origin.github.millis", "2000"),
+         3000);
+
+   @Test
+   public void budgetMillis_ofAPriority_overridesTheOrigin() {
+      assertEquals(_policy.budgetMillis(task(Constants.TaskPriority.HIGH)),
+            1000L);
+   }
+
+   @Test
+   public void budgetMillis_ofAnOrigin_overridesTheDefault() {
+      assertEquals(_policy.budgetMillis(task(Constants.TaskPriority.NORMAL)),
+            2000L);
+   }
+
+   @Test
+   public void budgetMillis_withoutAnOverride_isTheDefault() {
+      final TaskDeadlinePolicy policy = new TaskDeadlinePolicy(
+            new MockEnvironment(), 3000);
+
+      assertEquals(policy.budgetMillis(task(Constants.TaskPriority.LOW)),
+            3000L);
+   }
+
+   private CreateContactTaskEntity task(
+         final Constants.TaskPriority priority) {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "account", Constants.AccountOrigin.GITHUB, "domain");
+      task.priority = priority.value();
+      return task;
+   }
+}
@@ -0,0 +1,88 @@
+package com.account.deadline;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.account.error.DeadlineExceededException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskDeadlineTest {
+
+   @Test
+   public void limitMillis_withoutADeadline_returnsTheTimeout() {
+      assertEquals(TaskDeadline.limitMillis(5000), 5000L);
+   }
+
+   @Test
+   public void limitMillis_returnsTheSmallerOfTheTimeoutAndTheTimeLeft() {
+      try (TaskDeadline.Scope ignored = TaskDeadline.after(1000).enter()) {
+         assertEquals(TaskDeadline.limitMillis(100), 100L);
+         final long limit = TaskDeadline.limitMillis(5000);
+         assertTrue(limit > 0 && limit <= 1000);
+      }
+      assertFalse(TaskDeadline.current().isPresent());
+   }
+
+   @Test
+   public void limitMillis_whenTheDeadlineExpired_throws() {
+      try (TaskDeadline.Scope ignored = TaskDeadline.after(0).enter()) {
+         assertThrows(DeadlineExceededException.class,
+               () -> TaskDeadline.limitMillis(5000));
+      }
+   }
+
+   @Test
+   public void failure_whenTheDeadlineExpired_isRecoverable() {
+      final ResourceAccessException timeout = new ResourceAccessException(
+            "Read timed out");
+
+      assertSame(TaskDeadline.after(1000).failure(timeout), timeout);
+      final Exception failure = TaskDeadline.after(0).failure(timeout);
+      assertInstanceOf(DeadlineExceededException.class, failure);
+      assertSame(failure.getCause(), timeout);
+   }
+
+   @Test
+   public void propagate_runsTheWorkWithTheDeadlineOfTheCaller()
+         throws Exception {
+      final TaskDeadline deadline = TaskDeadline.after(1000);
+      final Supplier<Boolean> work;
+      try (TaskDeadline.Scope ignored = deadline.enter()) {
+         work = TaskDeadline.propagate(
+               () -> TaskDeadline.current().orElseThrow() == deadline);
+      }
+
+      assertTrue(Executors.newSingleThreadExecutor().submit(work::get)
+            .get(1, TimeUnit.SECONDS));
+   }
+
+   @Test
+   public void join_waitsAtMostUntilTheDeadline() {
+      try (TaskDeadline.Scope ignored = TaskDeadline.after(50).enter()) {
+         assertThrows(DeadlineExceededException.class,
+               () -> TaskDeadline.join(new CompletableFuture<>()));
+      }
+   }
+
+   @Test
+   public void join_failedWork_throwsCompletionException() {
+      final IllegalStateException error = new IllegalStateException();
+      try (TaskDeadline.Scope ignored = TaskDeadline.after(1000).enter()) {
+         final CompletionException e = assertThrows(CompletionException.class,
+               () -> TaskDeadline.join(CompletableFuture.failedFuture(error)));
+         assertSame(e.getCause(), error);
+      }
+   }
+}
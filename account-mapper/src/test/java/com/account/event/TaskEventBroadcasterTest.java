@@ -0,0 +1,115 @@
+package com.account.event;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.account.constants.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskEventBroadcasterTest {
+
+   private final MeterRegistry _meterRegistry = new SimpleMeterRegistry();
+   private final TaskEventBroadcaster _broadcaster = new TaskEventBroadcaster(
+         _meterRegistry, 2, 60000, 1);
+
+   @AfterEach
+   public void cleanUp() {
+      _broadcaster.shutdown();
+   }
+
+   @Test
+   public void onTaskStatusChanged_sendsOnlyTheMatchingEvents()
+         throws InterruptedException {
+      final CapturingEmitter byTask = new CapturingEmitter();
+      final CapturingEmitter byDomain = new CapturingEmitter();
+      _broadcaster.subscribe("1", null, Optional::empty, byTask);
+      _broadcaster.subscribe(null, "domain", Optional::empty, byDomain);
+
+      _broadcaster.onTaskStatusChanged(event("1", "other"));
+      _broadcaster.onTaskStatusChanged(event("2", "domain"));
+
+      awaitUntil(() -> byTask.events.size() == 1
+            && byDomain.events.size() == 1);
+      assertEquals(byTask.events.get(0).taskId(), "1");
+      assertEquals(byDomain.events.get(0).taskId(), "2");
+   }
+
+   @Test
+   public void onTaskStatusChanged_disconnectedSubscriber_isRemoved()
+         throws InterruptedException {
+      final CapturingEmitter disconnected = new CapturingEmitter();
+      disconnected.complete();
+      _broadcaster.subscribe(null, null, Optional::empty, disconnected);
+
+      _broadcaster.onTaskStatusChanged(event("1", "domain"));
+
+      awaitUntil(() -> _meterRegistry.get("task.events.subscribers")
+            .gauge().value() == 0);
+   }
+
+   @Test
+   public void subscribe_toATask_sendsItsCurrentStatusFirst()
+         throws InterruptedException {
+      final CapturingEmitter byTask = new CapturingEmitter();
+
+      _broadcaster.subscribe("1", null,
+            () -> Optional.of(event("1", "domain")), byTask);
+
+      awaitUntil(() -> byTask.events.size() == 1);
+      assertEquals(byTask.events.get(0).status(),
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   private static void awaitUntil(final BooleanSupplier condition)
+         throws InterruptedException {
+      final long deadline = System.currentTimeMillis() + 5000;
+      while (!condition.getAsBoolean()
+            && System.currentTimeMillis() < deadline) {
+         Thread.sleep(10);
+      }
+      assertTrue(condition.getAsBoolean());
+   }
+
+   private TaskStatusChangedEvent event(final String taskId,
+         final String freshdeskDomain) {
+      return new TaskStatusChangedEvent(taskId, "account",
+            Constants.AccountOrigin.GITHUB, freshdeskDomain,
+            Constants.CreateContactTaskStatus.COMPLETED, 1, null);
+   }
+
+   /**
+    * An emitter capturing the sent events, as there is no HTTP response to
+    * write them to.
+    */
+   private static class CapturingEmitter extends SseEmitter {
+      private final List<TaskStatusChangedEvent> events = new CopyOnWriteArrayList<>();
+      private boolean _completed;
+
+      @Override
+      public void send(final SseEventBuilder builder) {
+         if (_completed) {
+            throw new IllegalStateException("The emitter is completed.");
+         }
+         builder.build().stream()
+               .map(ResponseBodyEmitter.DataWithMediaType::getData)
+               .filter(TaskStatusChangedEvent.class::isInstance)
+               .map(TaskStatusChangedEvent.class::cast).forEach(events::add);
+      }
+
+      @Override
+      public synchronized void complete() {
+         _completed = true;
+      }
+   }
+}
@@ -0,0 +1,344 @@
+package com.account.freshdesk;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.account.error.BulkheadFullException;
+import com.account.repository.FreshdeskContactIdentityMap;
+import com.account.repository.FreshdeskContactIdentityMap.MappedContact;
+import com.account.repository.InMemoryFreshdeskContactIdentityMap;
+import com.account.service.TaskStageBulkheads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class FreshdeskContactServiceTest {
+
+   private static final String CONTACTS_URL = "https://domain.freshdesk.com/api/v2/contacts/";
+   private static final String CONTACTS_PAGE_URL = CONTACTS_URL
+         + "?per_page=100&page=";
+   private static final String CONTACT_JSON = "[{\"id\":5,\"email\":\"user@gmail.com\",\"unique_external_id\":\"GITHUB:1\"}]";
+
+   private final RestTemplate _restTemplate = new RestTemplate();
+   private final MockRestServiceServer _server = MockRestServiceServer.bindTo(
+         _restTemplate).build();
+   private final MeterRegistry _meterRegistry = new SimpleMeterRegistry();
+   private final FreshdeskContactIdentityMap _identityMap = new InMemoryFreshdeskContactIdentityMap(
+         10);
+   private final FreshdeskContactService _service = service(1);
+
+   @Test
+   public void findByExternalId_externalIdFilterMatches_skipsOtherStrategies() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andExpect(method(HttpMethod.GET))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1", "user@gmail.com");
+
+      _server.verify();
+      assertTrue(contact.isPresent());
+      assertEquals(contact.get().id, 5L);
+      assertEquals(lookups("UNIQUE_EXTERNAL_ID", "hit"), 1);
+      assertEquals(mappedContactId("domain"),
+            Optional.of(5L));
+   }
+
+   @Test
+   public void findByExternalId_externalIdFilterMisses_isFinal() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1", "user@gmail.com");
+
+      _server.verify();
+      assertTrue(contact.isEmpty());
+      assertEquals(lookups("UNIQUE_EXTERNAL_ID", "miss"), 1);
+      assertEquals(lookups("EMAIL", "miss"), 0);
+      assertEquals(lookups("FULL_SCAN", "miss"), 0);
+   }
+
+   @Test
+   public void findByExternalId_externalIdFilterUnsupported_fallsBackToEmailFilter() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_URL + "?email=user@gmail.com"))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1", "user@gmail.com");
+
+      _server.verify();
+      assertTrue(contact.isPresent());
+      assertEquals(lookups("UNIQUE_EXTERNAL_ID", "miss"), 1);
+      assertEquals(lookups("EMAIL", "hit"), 1);
+   }
+
+   @Test
+   public void findByExternalId_plusAddressedEmail_encodesThePlus() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_URL + "?email=user%2Btag@gmail.com"))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1", "user+tag@gmail.com");
+
+      _server.verify();
+      assertTrue(contact.isPresent());
+   }
+
+   @Test
+   public void findByExternalId_emailFilterMatchesAnotherContact_fallsBackToFullScan() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:2"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_URL + "?email=user@gmail.com"))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 1))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:2", "user@gmail.com");
+
+      _server.verify();
+      assertTrue(contact.isEmpty());
+      assertEquals(lookups("EMAIL", "miss"), 1);
+      assertEquals(lookups("FULL_SCAN", "miss"), 1);
+   }
+
+   @Test
+   public void findByExternalId_withoutEmail_skipsEmailFilter() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 1))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1");
+
+      _server.verify();
+      assertTrue(contact.isPresent());
+      assertEquals(lookups("FULL_SCAN", "hit"), 1);
+   }
+
+   @Test
+   public void findByExternalId_fullScan_pagesThroughTheListing() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 1))
+            .andRespond(withSuccess(fullPage(), MediaType.APPLICATION_JSON));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 2))
+            .andRespond(withSuccess(CONTACT_JSON, MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1");
+
+      _server.verify();
+      assertEquals(contact.map(info -> info.id), Optional.of(5L));
+      assertEquals(mappedContactId("domain"), Optional.of(5L));
+      assertEquals(lookups("FULL_SCAN", "hit"), 1);
+   }
+
+   @Test
+   public void findByExternalId_fullScan_stopsPagingOnceFound() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:3"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 1))
+            .andRespond(withSuccess(fullPage(), MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:3");
+
+      _server.verify();
+      assertEquals(contact.map(info -> info.id), Optional.of(101L));
+   }
+
+   @Test
+   public void findByExternalId_fullScan_exhaustedListing_missesTheNewContact() {
+      _server.expect(requestTo(CONTACTS_URL + "?unique_external_id=GITHUB:1"))
+            .andRespond(withStatus(HttpStatus.BAD_REQUEST));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 1))
+            .andRespond(withSuccess(fullPage(), MediaType.APPLICATION_JSON));
+      _server.expect(requestTo(CONTACTS_PAGE_URL + 2))
+            .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+      final Optional<FreshdeskContactInfo> contact = _service.findByExternalId(
+            "domain", "GITHUB:1");
+
+      _server.verify();
+      assertTrue(contact.isEmpty());
+      assertEquals(lookups("FULL_SCAN", "miss"), 1);
+   }
+
+   @Test
+   public void updateIfChanged_unchangedContact_skipsTheUpdate() {
+      final FreshdeskContactInfo existing = contact("User@Gmail.com", null);
+      final FreshdeskContactSpec spec = spec("user@gmail.com", "");
+
+      final FreshdeskContactInfo contact = _service.updateIfChanged("domain",
+            existing, spec);
+
+      _server.verify();
+      assertSame(contact, existing);
+      assertEquals(_meterRegistry.counter("freshdesk.contact.updates.skipped")
+            .count(), 1);
+   }
+
+   @Test
+   public void updateIfChanged_changedContact_updatesTheContact() {
+      _server.expect(requestTo(CONTACTS_URL + "5"))
+            .andExpect(method(HttpMethod.PUT))
+            .andRespond(withSuccess("{\"id\":5}", MediaType.APPLICATION_JSON));
+
+      final FreshdeskContactInfo contact = _service.updateIfChanged("domain",
+            contact("user@gmail.com", null), spec("user@gmail.com", "Sofia"));
+
+      _server.verify();
+      assertEquals(contact.id, 5L);
+      assertEquals(_meterRegistry.counter("freshdesk.contact.updates.skipped")
+            .count(), 0);
+   }
+
+   @Test
+   public void create_mapsTheExternalIdToTheCreatedContact() {
+      _server.expect(requestTo(CONTACTS_URL))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withSuccess("{\"id\":7}", MediaType.APPLICATION_JSON));
+
+      _service.create("domain", spec("user@gmail.com", null));
+
+      _server.verify();
+      assertEquals(mappedContactId("domain"), Optional.of(7L));
+      assertEquals(mappedContactId("other"), Optional.empty());
+      assertEquals(_meterRegistry.counter(
+            "freshdesk.contact.identity.map.requests", "result", "hit")
+            .count(), 1);
+   }
+
+   @Test
+   public void create_whenTheDomainBulkheadIsFull_sendsNoRequest() {
+      final FreshdeskContactService service = service(0);
+
+      assertThrows(BulkheadFullException.class,
+            () -> service.create("domain", spec("user@gmail.com", null)));
+
+      _server.verify();
+   }
+
+   @Test
+   public void updateMappedIfChanged_unchangedContact_skipsTheUpdate() {
+      final FreshdeskContactSpec spec = spec("user@gmail.com", null);
+
+      final boolean updated = _service.updateMappedIfChanged("domain",
+            new MappedContact(5L, spec.fingerprint()), spec);
+
+      _server.verify();
+      assertFalse(updated);
+      assertEquals(_meterRegistry.counter("freshdesk.contact.updates.skipped")
+            .count(), 1);
+   }
+
+   @Test
+   public void updateMappedIfChanged_changedContact_remembersTheNewData() {
+      final FreshdeskContactSpec spec = spec("user@gmail.com", "Sofia");
+      _server.expect(requestTo(CONTACTS_URL + "5"))
+            .andExpect(method(HttpMethod.PUT))
+            .andRespond(withSuccess("{\"id\":5}", MediaType.APPLICATION_JSON));
+
+      final boolean updated = _service.updateMappedIfChanged("domain",
+            new MappedContact(5L, spec("user@gmail.com", null).fingerprint()),
+            spec);
+
+      _server.verify();
+      assertTrue(updated);
+      assertEquals(_service.findMappedContact("domain", "GITHUB:1"),
+            Optional.of(new MappedContact(5L, spec.fingerprint())));
+   }
+
+   @Test
+   public void update_deletedContact_removesTheMapping() {
+      _identityMap.put("domain", "GITHUB:1", 5L, null);
+      _server.expect(requestTo(CONTACTS_URL + "5"))
+            .andExpect(method(HttpMethod.PUT))
+            .andRespond(withStatus(HttpStatus.NOT_FOUND));
+
+      assertThrows(HttpClientErrorException.class,
+            () -> _service.update("domain", 5L, spec("user@gmail.com", null)));
+
+      _server.verify();
+      assertEquals(mappedContactId("domain"),
+            Optional.empty());
+   }
+
+   private FreshdeskContactService service(final int domainCapacity) {
+      return new FreshdeskContactService(_restTemplate, _meterRegistry,
+            _identityMap, new TaskStageBulkheads(new MockEnvironment(),
+            _meterRegistry, 1, domainCapacity, 0));
+   }
+
+   private Optional<Long> mappedContactId(final String freshdeskDomain) {
+      return _service.findMappedContact(freshdeskDomain, "GITHUB:1")
+            .map(MappedContact::contactId);
+   }
+
+   /**
+    * A full page of the contacts listing, of the contacts with the IDs 100
+    * to 199 mapped to the GitHub accounts 2 to 101.
+    */
+   private static String fullPage() {
+      return IntStream.range(0, FreshdeskContactService.CONTACTS_PAGE_SIZE)
+            .mapToObj(i -> String.format(
+                  "{\"id\":%d,\"unique_external_id\":\"GITHUB:%d\"}",
+                  100 + i, 2 + i))
+            .collect(Collectors.joining(",", "[", "]"));
+   }
+
+   private static FreshdeskContactInfo contact(final String email,
+         final String address) {
+      final FreshdeskContactInfo contact = new FreshdeskContactInfo();
+      contact.id = 5L;
+      contact.name = "User";
+      contact.email = email;
+      contact.address = address;
+      contact.uniqueExternalId = "GITHUB:1";
+      return contact;
+   }
+
+   private static FreshdeskContactSpec spec(final String email,
+         final String address) {
+      final FreshdeskContactSpec spec = new FreshdeskContactSpec();
+      spec.name = "User";
+      spec.email = email;
+      spec.address = address;
+      spec.uniqueExternalId = "GITHUB:1";
+      return spec;
+   }
+
+   private double lookups(final String strategy, final String result) {
+      return _meterRegistry.counter("freshdesk.contact.lookups", "strategy",
+            strategy, "result", result).count();
+   }
+}
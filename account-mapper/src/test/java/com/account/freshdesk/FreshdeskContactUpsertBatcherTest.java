@@ -0,0 +1,141 @@
+package com.account.freshdesk;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class FreshdeskContactUpsertBatcherTest {
+
+   private final FreshdeskContactService _freshdeskContactService = mock(
+         FreshdeskContactService.class);
+   private FreshdeskContactUpsertBatcher _batcher;
+
+   @AfterEach
+   public void cleanUp() {
+      _batcher.shutdown();
+   }
+
+   @Test
+   public void submit_fullBatch_looksUpEveryContactByItsExternalId() {
+      _batcher = batcher(3);
+      final FreshdeskContactInfo existing = contact(5L, "GITHUB:1");
+      when(_freshdeskContactService.findByExternalId(eq("domain"), anyString(),
+            any())).thenReturn(Optional.empty());
+      when(_freshdeskContactService.findByExternalId("domain", "GITHUB:1",
+            null)).thenReturn(Optional.of(existing));
+      when(_freshdeskContactService.updateIfChanged(eq("domain"), eq(existing),
+            any(FreshdeskContactSpec.class))).thenReturn(existing);
+      when(_freshdeskContactService.create(eq("domain"),
+            any(FreshdeskContactSpec.class))).thenReturn(
+            contact(6L, "GITHUB:2"), contact(7L, "GITHUB:3"));
+
+      final CompletableFuture<FreshdeskContactInfo> first = _batcher.submit(
+            "domain", spec("GITHUB:1"));
+      final CompletableFuture<FreshdeskContactInfo> second = _batcher.submit(
+            "domain", spec("GITHUB:2"));
+      final CompletableFuture<FreshdeskContactInfo> third = _batcher.submit(
+            "domain", spec("GITHUB:3"));
+
+      assertEquals(first.join().id, 5L);
+      assertEquals(second.join().id, 6L);
+      assertEquals(third.join().id, 7L);
+      verify(_freshdeskContactService, times(3)).findByExternalId(
+            eq("domain"), anyString(), any());
+   }
+
+   @Test
+   public void submit_duplicateContacts_areWrittenOnce() {
+      _batcher = batcher(2);
+      when(_freshdeskContactService.findByExternalId("domain", "GITHUB:1",
+            null)).thenReturn(Optional.empty());
+      final FreshdeskContactInfo created = contact(5L, "GITHUB:1");
+      when(_freshdeskContactService.create(eq("domain"),
+            any(FreshdeskContactSpec.class))).thenReturn(created);
+
+      final CompletableFuture<FreshdeskContactInfo> first = _batcher.submit(
+            "domain", spec("GITHUB:1"));
+      final CompletableFuture<FreshdeskContactInfo> second = _batcher.submit(
+            "domain", spec("GITHUB:1"));
+
+      assertEquals(first.join(), created);
+      assertEquals(second.join(), created);
+      verify(_freshdeskContactService, times(1)).create(eq("domain"),
+            any(FreshdeskContactSpec.class));
+   }
+
+   @Test
+   public void submit_failedWrite_failsOnlyTheAffectedUpserts() {
+      _batcher = batcher(2);
+      when(_freshdeskContactService.findByExternalId(eq("domain"), anyString(),
+            any())).thenReturn(Optional.empty());
+      final FreshdeskContactSpec failing = spec("GITHUB:1");
+      final FreshdeskContactSpec succeeding = spec("GITHUB:2");
+      final HttpServerErrorException error = new HttpServerErrorException(
+            HttpStatus.BAD_GATEWAY);
+      when(_freshdeskContactService.create("domain", failing)).thenThrow(
+            error);
+      when(_freshdeskContactService.create("domain", succeeding)).thenReturn(
+            contact(6L, "GITHUB:2"));
+
+      final CompletableFuture<FreshdeskContactInfo> first = _batcher.submit(
+            "domain", failing);
+      final CompletableFuture<FreshdeskContactInfo> second = _batcher.submit(
+            "domain", succeeding);
+
+      final CompletionException e = assertThrows(CompletionException.class,
+            first::join);
+      assertEquals(e.getCause(), error);
+      assertEquals(second.join().id, 6L);
+   }
+
+   @Test
+   public void submit_belowMaxSize_isFlushedAfterTheWindow() {
+      _batcher = batcher(10);
+      when(_freshdeskContactService.findByExternalId("domain", "GITHUB:1",
+            null)).thenReturn(Optional.empty());
+      when(_freshdeskContactService.create(eq("domain"),
+            any(FreshdeskContactSpec.class))).thenReturn(
+            contact(5L, "GITHUB:1"));
+
+      final CompletableFuture<FreshdeskContactInfo> result = _batcher.submit(
+            "domain", spec("GITHUB:1"));
+
+      assertEquals(result.join().id, 5L);
+   }
+
+   private FreshdeskContactUpsertBatcher batcher(final int maxSize) {
+      return new FreshdeskContactUpsertBatcher(_freshdeskContactService,
+            new SimpleMeterRegistry(), true, 50, maxSize, 1);
+   }
+
+   private FreshdeskContactSpec spec(final String externalId) {
+      final FreshdeskContactSpec spec = new FreshdeskContactSpec();
+      spec.uniqueExternalId = externalId;
+      return spec;
+   }
+
+   private FreshdeskContactInfo contact(final Long id,
+         final String externalId) {
+      final FreshdeskContactInfo contact = new FreshdeskContactInfo();
+      contact.id = id;
+      contact.uniqueExternalId = externalId;
+      return contact;
+   }
+}
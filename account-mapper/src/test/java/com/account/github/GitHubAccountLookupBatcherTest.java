@@ -0,0 +1,141 @@
+package com.account.github;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class GitHubAccountLookupBatcherTest {
+
+   private final GitHubAccountService _gitHubAccountService = mock(
+         GitHubAccountService.class);
+   private GitHubAccountLookupBatcher _batcher;
+
+   @AfterEach
+   public void cleanUp() {
+      _batcher.shutdown();
+   }
+
+   @Test
+   public void submit_fullBatch_resolvesAllAccountsWithASingleQuery() {
+      _batcher = batcher(3);
+      final GithubAccountInfo first = account("1", "first");
+      final GithubAccountInfo second = account("2", "second");
+      when(_gitHubAccountService.getAll(
+            Set.of("first", "second", "missing"))).thenReturn(
+            accounts(Map.of("first", first, "second", second),
+                  Set.of("missing")));
+
+      final CompletableFuture<GithubAccountInfo> firstResult = _batcher.submit(
+            "first");
+      final CompletableFuture<GithubAccountInfo> secondResult = _batcher.submit(
+            "second");
+      final CompletableFuture<GithubAccountInfo> missingResult = _batcher.submit(
+            "missing");
+
+      assertEquals(firstResult.join(), first);
+      assertEquals(secondResult.join(), second);
+      final CompletionException e = assertThrows(CompletionException.class,
+            missingResult::join);
+      assertInstanceOf(HttpClientErrorException.class, e.getCause());
+      assertEquals(((HttpClientErrorException) e.getCause()).getStatusCode(),
+            HttpStatus.NOT_FOUND);
+      verify(_gitHubAccountService, never()).get(anyString());
+   }
+
+   @Test
+   public void submit_duplicateAccounts_areLookedUpOnce() {
+      _batcher = batcher(2);
+      final GithubAccountInfo account = account("1", "user");
+      when(_gitHubAccountService.getAll(Set.of("user"))).thenReturn(
+            accounts(Map.of("user", account), Set.of()));
+
+      final CompletableFuture<GithubAccountInfo> first = _batcher.submit(
+            "user");
+      final CompletableFuture<GithubAccountInfo> second = _batcher.submit(
+            "user");
+
+      assertEquals(first.join(), account);
+      assertEquals(second.join(), account);
+      verify(_gitHubAccountService, times(1)).getAll(Set.of("user"));
+   }
+
+   @Test
+   public void submit_unresolvedAccount_fallsBackToTheRestApi() {
+      _batcher = batcher(2);
+      final GithubAccountInfo found = account("1", "found");
+      final GithubAccountInfo organization = account("2", "organization");
+      when(_gitHubAccountService.getAll(
+            Set.of("found", "organization"))).thenReturn(
+            accounts(Map.of("found", found), Set.of()));
+      when(_gitHubAccountService.get("organization")).thenReturn(organization);
+
+      final CompletableFuture<GithubAccountInfo> foundResult = _batcher.submit(
+            "found");
+      final CompletableFuture<GithubAccountInfo> organizationResult = _batcher.submit(
+            "organization");
+
+      assertEquals(foundResult.join(), found);
+      assertEquals(organizationResult.join(), organization);
+      verify(_gitHubAccountService, never()).get("found");
+   }
+
+   @Test
+   public void submit_rejectedQuery_fallsBackToTheRestApi() {
+      _batcher = batcher(10);
+      when(_gitHubAccountService.getAll(Set.of("user"))).thenThrow(
+            new HttpClientErrorException(HttpStatus.UNAUTHORIZED));
+      final GithubAccountInfo account = account("1", "user");
+      when(_gitHubAccountService.get("user")).thenReturn(account);
+
+      assertEquals(_batcher.submit("user").join(), account);
+   }
+
+   @Test
+   public void submit_rateLimitedQuery_failsTheLookupsWithoutFallback() {
+      _batcher = batcher(10);
+      when(_gitHubAccountService.getAll(Set.of("user"))).thenThrow(
+            new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+
+      final CompletableFuture<GithubAccountInfo> result = _batcher.submit(
+            "user");
+
+      assertThrows(CompletionException.class, result::join);
+      verify(_gitHubAccountService, never()).get(anyString());
+   }
+
+   private GitHubAccountLookupBatcher batcher(final int maxSize) {
+      return new GitHubAccountLookupBatcher(_gitHubAccountService,
+            new SimpleMeterRegistry(), true, 50, maxSize, 1);
+   }
+
+   private GitHubAccountService.Accounts accounts(
+         final Map<String, GithubAccountInfo> found,
+         final Set<String> notFound) {
+      return new GitHubAccountService.Accounts(found, notFound);
+   }
+
+   private GithubAccountInfo account(final String id, final String login) {
+      final GithubAccountInfo account = new GithubAccountInfo();
+      account.id = id;
+      account.name = login;
+      return account;
+   }
+}
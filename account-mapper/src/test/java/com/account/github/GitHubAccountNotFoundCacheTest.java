@@ -0,0 +1,60 @@
+package com.account.github;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GitHubAccountNotFoundCacheTest {
+
+   private final MeterRegistry _meterRegistry = new SimpleMeterRegistry();
+
+   @Test
+   public void isNotFound_markedLogin_isCaseInsensitive() {
+      final GitHubAccountNotFoundCache cache = cache(10, 60_000);
+      cache.markNotFound("Typo");
+
+      assertTrue(cache.isNotFound("typo"));
+      assertFalse(cache.isNotFound("other"));
+      assertEquals(requests("hit"), 1);
+      assertEquals(requests("miss"), 1);
+   }
+
+   @Test
+   public void isNotFound_expiredLogin_isLookedUpAgain() {
+      final GitHubAccountNotFoundCache cache = cache(10, 0);
+      cache.markNotFound("typo");
+
+      assertFalse(cache.isNotFound("typo"));
+      assertEquals(_meterRegistry.get("github.account.not.found.cache.size")
+            .gauge().value(), 0);
+   }
+
+   @Test
+   public void markNotFound_whenFull_evictsTheLeastRecentlyUsedLogin() {
+      final GitHubAccountNotFoundCache cache = cache(2, 60_000);
+      cache.markNotFound("first");
+      cache.markNotFound("second");
+      cache.isNotFound("first");
+      cache.markNotFound("third");
+
+      assertTrue(cache.isNotFound("first"));
+      assertFalse(cache.isNotFound("second"));
+      assertTrue(cache.isNotFound("third"));
+   }
+
+   private GitHubAccountNotFoundCache cache(final int maxSize,
+         final long ttlMillis) {
+      return new GitHubAccountNotFoundCache(_meterRegistry, maxSize,
+            ttlMillis);
+   }
+
+   private double requests(final String result) {
+      return _meterRegistry.counter("github.account.not.found.cache.requests",
+            "result", result).count();
+   }
+}
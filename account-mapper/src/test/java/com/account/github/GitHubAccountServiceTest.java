@@ -0,0 +1,91 @@
+package com.account.github;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class GitHubAccountServiceTest {
+
+   private static final String GRAPHQL_URL = "https://api.github.com/graphql";
+
+   private final RestTemplate _restTemplate = new RestTemplate();
+   private final MockRestServiceServer _server = MockRestServiceServer.bindTo(
+         _restTemplate).build();
+   private final GitHubAccountService _service = new GitHubAccountService(
+         _restTemplate, new GitHubRequestHedger(new SimpleMeterRegistry(),
+         false, 0.95, 50, 1000, 0.05, 10, 1, 0));
+
+   @Test
+   public void getAll_resolvesAllAccountsWithASingleAliasedQuery() {
+      _server.expect(requestTo(GRAPHQL_URL))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(jsonPath("$.variables.l0").value("octocat"))
+            .andExpect(jsonPath("$.variables.l1").value("missing"))
+            .andExpect(jsonPath("$.variables.l2").value("github"))
+            .andRespond(withSuccess("""
+                  {"data": {
+                     "u0": {"databaseId": 583231, "login": "octocat", "location": "San Francisco", "email": ""},
+                     "u1": null,
+                     "u2": {"databaseId": 9919, "login": "github", "location": null, "email": null}},
+                   "errors": [{"type": "NOT_FOUND", "path": ["u1"]}]}""",
+                  MediaType.APPLICATION_JSON));
+
+      final GitHubAccountService.Accounts accounts = _service.getAll(
+            List.of("octocat", "missing", "github"));
+
+      _server.verify();
+      assertEquals(accounts.found().keySet(), Set.of("octocat", "github"));
+      assertEquals(accounts.notFound(), Set.of("missing"));
+      final GithubAccountInfo octocat = accounts.found().get("octocat");
+      assertEquals(octocat.id, "583231");
+      assertEquals(octocat.name, "octocat");
+      assertEquals(octocat.location, "San Francisco");
+      assertNull(octocat.email);
+   }
+
+   @Test
+   public void getAll_failedField_leavesTheAccountUnresolved() {
+      _server.expect(requestTo(GRAPHQL_URL)).andRespond(withSuccess("""
+                  {"data": {"u0": null, "u1": null},
+                   "errors": [
+                     {"message": "Something went wrong", "path": ["u0"]},
+                     {"type": "NOT_FOUND", "path": ["u1"]}]}""",
+            MediaType.APPLICATION_JSON));
+
+      final GitHubAccountService.Accounts accounts = _service.getAll(
+            List.of("octocat", "missing"));
+
+      assertTrue(accounts.found().isEmpty());
+      assertEquals(accounts.notFound(), Set.of("missing"));
+   }
+
+   @Test
+   public void getAll_rateLimitedQuery_throwsTooManyRequests() {
+      _server.expect(requestTo(GRAPHQL_URL)).andRespond(withSuccess("""
+                  {"errors": [{"type": "RATE_LIMITED", "message": "API rate limit exceeded"}]}""",
+            MediaType.APPLICATION_JSON));
+
+      final HttpClientErrorException e = assertThrows(
+            HttpClientErrorException.class,
+            () -> _service.getAll(List.of("octocat")));
+      assertEquals(e.getStatusCode(), HttpStatus.TOO_MANY_REQUESTS);
+   }
+}
@@ -0,0 +1,172 @@
+package com.account.github;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GitHubRequestHedgerTest {
+
+   private final SimpleMeterRegistry _meterRegistry = new SimpleMeterRegistry();
+   private final CountDownLatch _release = new CountDownLatch(1);
+   private final AtomicInteger _calls = new AtomicInteger();
+
+   @AfterEach
+   public void releaseSlowRequests() {
+      _release.countDown();
+   }
+
+   @Test
+   public void execute_slowRequest_usesTheFirstAnswer() {
+      final GitHubRequestHedger hedger = hedger(1);
+
+      final String answer = hedger.execute(
+            request(() -> awaitRelease("primary"), () -> "hedge"));
+
+      assertEquals(answer, "hedge");
+      assertEquals(_calls.get(), 2);
+      assertEquals(count("github.request.hedging.requests", "result",
+            "hedged"), 1.0);
+      assertEquals(count("github.request.hedging.wins", "winner", "hedge"),
+            1.0);
+   }
+
+   @Test
+   public void execute_hedgeAnswersFirst_interruptsThePrimary()
+         throws InterruptedException {
+      final GitHubRequestHedger hedger = hedger(1);
+      final CountDownLatch interrupted = new CountDownLatch(1);
+
+      final String answer = hedger.execute(request(() -> {
+         try {
+            _release.await(10, TimeUnit.SECONDS);
+         } catch (final InterruptedException e) {
+            interrupted.countDown();
+         }
+         return "primary";
+      }, () -> "hedge"));
+
+      assertEquals(answer, "hedge");
+      assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+   }
+
+   @Test
+   public void execute_failedHedge_waitsForThePrimary() {
+      final GitHubRequestHedger hedger = hedger(1);
+
+      final String answer = hedger.execute(request(() -> {
+         sleep(200);
+         return "primary";
+      }, () -> {
+         throw new IllegalStateException("hedge");
+      }));
+
+      assertEquals(answer, "primary");
+      assertEquals(count("github.request.hedging.wins", "winner", "primary"),
+            1.0);
+   }
+
+   @Test
+   public void execute_bothRequestsFail_throwsTheLastFailure() {
+      final GitHubRequestHedger hedger = hedger(1);
+
+      final IllegalStateException e = assertThrows(
+            IllegalStateException.class, () -> hedger.execute(request(() -> {
+               sleep(200);
+               throw new IllegalStateException("primary");
+            }, () -> {
+               throw new IllegalStateException("hedge");
+            })));
+
+      assertEquals(e.getMessage(), "primary");
+   }
+
+   @Test
+   public void execute_withoutBudget_waitsForThePrimary() {
+      final GitHubRequestHedger hedger = hedger(0);
+
+      final String answer = hedger.execute(request(() -> {
+         sleep(200);
+         return "primary";
+      }, () -> "hedge"));
+
+      assertEquals(answer, "primary");
+      assertEquals(_calls.get(), 1);
+      assertEquals(count("github.request.hedging.requests", "result",
+            "budget.exhausted"), 1.0);
+   }
+
+   @Test
+   public void execute_noThreadForTheHedge_waitsForThePrimary() {
+      final GitHubRequestHedger hedger = new GitHubRequestHedger(
+            _meterRegistry, true, 0.9, 20, 10, 1, 1, 0, 0);
+
+      final String answer = hedger.execute(request(() -> {
+         sleep(200);
+         return "primary";
+      }, () -> "hedge"));
+
+      assertEquals(answer, "primary");
+      assertEquals(_calls.get(), 1);
+      assertEquals(count("github.request.hedging.requests", "result",
+            "rejected"), 1.0);
+   }
+
+   @Test
+   public void execute_fastRequests_raiseTheHedgingDelay() {
+      final GitHubRequestHedger hedger = hedger(1);
+      for (int i = 0; i < 10; i++) {
+         hedger.execute(() -> {
+            sleep(100);
+            return "primary";
+         });
+      }
+
+      assertEquals(hedger.delayMillis() >= 100, true);
+   }
+
+   private GitHubRequestHedger hedger(final double budgetRatio) {
+      return new GitHubRequestHedger(_meterRegistry, true, 0.9, 20, 10,
+            budgetRatio, 1, 1, 0);
+   }
+
+   /**
+    * A request answering with the primary on the first call and with the
+    * hedge on the next calls.
+    */
+   private Supplier<String> request(final Supplier<String> primary,
+         final Supplier<String> hedge) {
+      return () -> _calls.getAndIncrement() == 0 ? primary.get() : hedge.get();
+   }
+
+   private String awaitRelease(final String answer) {
+      try {
+         _release.await(10, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      return answer;
+   }
+
+   private double count(final String name, final String tag,
+         final String value) {
+      return _meterRegistry.get(name).tag(tag, value).counter().count();
+   }
+
+   private static void sleep(final long millis) {
+      try {
+         Thread.sleep(millis);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
@@ -0,0 +1,170 @@
+package com.account.ingestion;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.service.CreateContactTaskService;
+import io.lettuce.core.Consumer;
+import io.lettuce.core.Range;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.StreamMessage;
+import io.lettuce.core.XGroupCreateArgs;
+import io.lettuce.core.XReadArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.sync.RedisCommands;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers(disabledWithoutDocker = true)
+public class RedisStreamTaskIngesterTest {
+
+   private static final String STREAM = "accounts:events";
+   private static final String GROUP = "account-mapper";
+   private static final String DEAD_LETTER_STREAM = "accounts:events:dead";
+
+   @Container
+   private static final GenericContainer<?> redisContainer = new GenericContainer<>(
+         "redis:7-alpine").withExposedPorts(6379);
+
+   private final CreateContactTaskService _service = mock(
+         CreateContactTaskService.class);
+   private final List<String> _createdAccounts = new CopyOnWriteArrayList<>();
+   private RedisClient _client;
+   private StatefulRedisConnection<String, String> _connection;
+   private RedisCommands<String, String> _commands;
+   private RedisStreamTaskIngester _ingester;
+
+   @BeforeEach
+   public void setup() {
+      _client = RedisClient.create(uri());
+      _connection = _client.connect();
+      _commands = _connection.sync();
+      _commands.flushall();
+      when(_service.newTask(any(), any(), any(), any())).thenAnswer(
+            invocation -> new CreateContactTaskEntity(invocation.getArgument(0),
+                  Constants.AccountOrigin.valueOf(
+                        invocation.<String>getArgument(1).toUpperCase()),
+                  invocation.getArgument(2)));
+      when(_service.createAll(any())).thenAnswer(invocation -> {
+         final List<CreateContactTaskEntity> tasks = invocation.getArgument(0);
+         tasks.forEach(task -> _createdAccounts.add(task.account));
+         return tasks;
+      });
+   }
+
+   @AfterEach
+   public void cleanUp() throws InterruptedException {
+      if (_ingester != null) {
+         _ingester.stop();
+      }
+      _connection.close();
+      _client.shutdown();
+   }
+
+   @Test
+   public void newEntries_areCreatedInBulk_andAcknowledged() {
+      _ingester = ingester(60_000);
+      _ingester.start();
+      publish("first", "GITHUB");
+      publish("invalid", "UNKNOWN");
+      publish("second", "GITHUB");
+
+      awaitUntil(() -> _createdAccounts.size() == 2 && pending() == 0);
+      assertEquals(_createdAccounts, List.of("first", "second"));
+   }
+
+   @Test
+   public void entriesLeftPendingByACrashedConsumer_areReclaimed() {
+      _commands.xgroupCreate(XReadArgs.StreamOffset.from(STREAM, "$"), GROUP,
+            XGroupCreateArgs.Builder.mkstream());
+      publish("orphan", "GITHUB");
+      // A consumer reads the entry and crashes before acknowledging it
+      _commands.xreadgroup(Consumer.from(GROUP, "crashed"),
+            XReadArgs.StreamOffset.lastConsumed(STREAM));
+      assertEquals(pending(), 1);
+
+      _ingester = ingester(0);
+      _ingester.start();
+
+      awaitUntil(() -> pending() == 0);
+      assertTrue(_createdAccounts.contains("orphan"));
+   }
+
+   @Test
+   public void poisonEntry_isDeadLettered_andTheOthersAreCreated() {
+      when(_service.createAll(any())).thenAnswer(invocation -> {
+         final List<CreateContactTaskEntity> tasks = invocation.getArgument(0);
+         if (tasks.stream().anyMatch(task -> "poison".equals(task.account))) {
+            throw new IllegalStateException("Poison");
+         }
+         tasks.forEach(task -> _createdAccounts.add(task.account));
+         return tasks;
+      });
+      _commands.xgroupCreate(XReadArgs.StreamOffset.from(STREAM, "$"), GROUP,
+            XGroupCreateArgs.Builder.mkstream());
+      publish("first", "GITHUB");
+      publish("poison", "GITHUB");
+      publish("second", "GITHUB");
+
+      _ingester = ingester(60_000);
+      _ingester.start();
+
+      awaitUntil(() -> pending() == 0);
+      assertEquals(_createdAccounts, List.of("first", "second"));
+      final List<StreamMessage<String, String>> deadLetters = _commands.xrange(
+            DEAD_LETTER_STREAM, Range.create("-", "+"));
+      assertEquals(deadLetters.size(), 1);
+      assertEquals(deadLetters.get(0).getBody().get("account"), "poison");
+   }
+
+   private RedisStreamTaskIngester ingester(final long claimIdleMillis) {
+      return new RedisStreamTaskIngester(_service, new SimpleMeterRegistry(),
+            uri(), STREAM, GROUP, "test", 100, 100, claimIdleMillis, 2,
+            DEAD_LETTER_STREAM);
+   }
+
+   private void publish(final String account, final String origin) {
+      _commands.xadd(STREAM,
+            Map.of("origin", origin, "account", account, "domain", "domain"));
+   }
+
+   private long pending() {
+      return _commands.xpending(STREAM, GROUP).getCount();
+   }
+
+   private static String uri() {
+      return String.format("redis://%s:%d", redisContainer.getHost(),
+            redisContainer.getMappedPort(6379));
+   }
+
+   private static void awaitUntil(final BooleanSupplier condition) {
+      final long deadline = System.nanoTime() + Duration.ofSeconds(10)
+            .toNanos();
+      while (!condition.getAsBoolean()) {
+         assertTrue(System.nanoTime() < deadline, "Timed out waiting.");
+         try {
+            Thread.sleep(20);
+         } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+         }
+      }
+   }
+}
@@ -0,0 +1,134 @@
+package com.account.ingestion;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.error.DuplicateTaskException;
+import com.account.error.IngestionBufferFullException;
+import com.account.service.CreateContactTaskService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskIngestionBufferTest {
+
+   private final CreateContactTaskService _service = mock(
+         CreateContactTaskService.class);
+
+   @Test
+   public void accept_assignsATaskId() {
+      final TaskIngestionBuffer buffer = buffer(10, 10);
+      final TaskIngestionBuffer.PendingTask pendingTask = buffer.accept(
+            task("account"));
+      assertNotNull(pendingTask.task().id);
+   }
+
+   @Test
+   public void accept_whenBufferIsFull_throwsException() {
+      final TaskIngestionBuffer buffer = buffer(1, 10);
+      buffer.accept(task("first"));
+      assertThrows(IngestionBufferFullException.class,
+            () -> buffer.accept(task("second")));
+   }
+
+   @Test
+   public void writer_storesBufferedTasksInGroups() throws InterruptedException {
+      when(_service.createAll(any())).thenAnswer(
+            invocation -> invocation.getArgument(0));
+      final TaskIngestionBuffer buffer = buffer(10, 2);
+      final TaskIngestionBuffer.PendingTask first = buffer.accept(
+            task("first"));
+      final TaskIngestionBuffer.PendingTask second = buffer.accept(
+            task("second"));
+      buffer.start();
+
+      assertEquals(first.result().join(), first.task());
+      assertEquals(second.result().join(), second.task());
+      buffer.stop();
+      verify(_service, times(1)).createAll(
+            List.of(first.task(), second.task()));
+   }
+
+   @Test
+   public void flush_skippedDuplicates_failWithDuplicateTaskException() {
+      final TaskIngestionBuffer buffer = buffer(10, 10);
+      final TaskIngestionBuffer.PendingTask created = buffer.accept(
+            task("created"));
+      final TaskIngestionBuffer.PendingTask duplicate = buffer.accept(
+            task("duplicate"));
+      when(_service.createAll(any())).thenReturn(List.of(created.task()));
+
+      buffer.flush(List.of(created, duplicate));
+
+      assertEquals(created.result().join(), created.task());
+      final CompletionException e = assertThrows(CompletionException.class,
+            () -> duplicate.result().join());
+      assertInstanceOf(DuplicateTaskException.class, e.getCause());
+   }
+
+   @Test
+   public void stateOf_tracksTheTasksUntilStoredOrRejected() {
+      final TaskIngestionBuffer buffer = buffer(10, 10);
+      final TaskIngestionBuffer.PendingTask created = buffer.accept(
+            task("created"));
+      final TaskIngestionBuffer.PendingTask duplicate = buffer.accept(
+            task("duplicate"));
+      assertEquals(buffer.stateOf(duplicate.task().id),
+            Optional.of(TaskIngestionBuffer.IngestionState.BUFFERED));
+      when(_service.createAll(any())).thenReturn(List.of(created.task()));
+
+      buffer.flush(List.of(created, duplicate));
+
+      assertEquals(buffer.stateOf(created.task().id), Optional.empty());
+      assertEquals(buffer.stateOf(duplicate.task().id),
+            Optional.of(TaskIngestionBuffer.IngestionState.DUPLICATE));
+   }
+
+   @Test
+   public void stateOf_whenTheStoreFails_reportsTheTasksAsFailed() {
+      final TaskIngestionBuffer buffer = buffer(10, 10);
+      final TaskIngestionBuffer.PendingTask failed = buffer.accept(
+            task("failed"));
+      when(_service.createAll(any())).thenThrow(new IllegalStateException());
+
+      buffer.flush(List.of(failed));
+
+      assertEquals(buffer.stateOf(failed.task().id),
+            Optional.of(TaskIngestionBuffer.IngestionState.FAILED));
+   }
+
+   @Test
+   public void stateOf_whenTheBufferIsFull_forgetsTheRejectedTask() {
+      final TaskIngestionBuffer buffer = buffer(1, 10);
+      buffer.accept(task("first"));
+      final CreateContactTaskEntity second = task("second");
+      assertThrows(IngestionBufferFullException.class,
+            () -> buffer.accept(second));
+      assertEquals(buffer.stateOf(second.id), Optional.empty());
+   }
+
+   private TaskIngestionBuffer buffer(final int capacity,
+         final int flushSize) {
+      return new TaskIngestionBuffer(_service, new SimpleMeterRegistry(), true,
+            Constants.IngestionDurability.ACCEPTED, capacity, flushSize, 50,
+            5000, 10, 60000);
+   }
+
+   private CreateContactTaskEntity task(final String account) {
+      return new CreateContactTaskEntity(account,
+            Constants.AccountOrigin.GITHUB, "domain");
+   }
+}
@@ -0,0 +1,103 @@
+package com.account.interceptor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import com.account.error.ConcurrencyLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class AdaptiveConcurrencyLimitInterceptorTest {
+
+   private static final String URL = "https://domain.freshdesk.com/api/v2/contacts/";
+
+   private final MeterRegistry _meterRegistry = new SimpleMeterRegistry();
+   private final RestTemplate _restTemplate = new RestTemplate();
+   private final MockRestServiceServer _server = MockRestServiceServer.bindTo(
+         _restTemplate).build();
+
+   public AdaptiveConcurrencyLimitInterceptorTest() {
+      _restTemplate.getInterceptors().add(
+            new AdaptiveConcurrencyLimitInterceptor(_meterRegistry, true, 10, 1,
+                  50, 0.5, 2000, 0));
+   }
+
+   @Test
+   public void intercept_overloadedUpstream_decreasesItsLimit() {
+      _server.expect(ExpectedCount.times(2), requestTo(URL))
+            .andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+
+      for (int i = 0; i < 2; i++) {
+         assertThrows(HttpServerErrorException.class,
+               () -> _restTemplate.getForObject(URL, String.class));
+      }
+
+      assertEquals(limit(), 2.0);
+   }
+
+   @Test
+   public void intercept_healthyUpstream_increasesItsLimit() {
+      // About one limit worth of successful calls raises the limit by one
+      _server.expect(ExpectedCount.times(11), requestTo(URL))
+            .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON));
+
+      for (int i = 0; i < 11; i++) {
+         _restTemplate.getForObject(URL, String.class);
+      }
+
+      assertEquals(limit(), 11.0);
+   }
+
+   @Test
+   public void acquire_whenTheLimitIsReached_timesOut()
+         throws InterruptedException {
+      final AimdConcurrencyLimit limit = new AimdConcurrencyLimit(1, 1, 10,
+            0.5, 2000);
+      assertTrue(limit.acquire(0));
+      assertFalse(limit.acquire(10));
+      limit.release(0, false);
+      assertTrue(limit.acquire(0));
+   }
+
+   @Test
+   public void intercept_whenTheLimitIsReached_failsRecoverably()
+         throws InterruptedException {
+      final RestTemplate restTemplate = new RestTemplate();
+      final AdaptiveConcurrencyLimitInterceptor interceptor = new AdaptiveConcurrencyLimitInterceptor(
+            _meterRegistry, true, 1, 1, 1, 0.5, 2000, 0);
+      restTemplate.getInterceptors().add(interceptor);
+      final MockRestServiceServer server = MockRestServiceServer.bindTo(
+            restTemplate).build();
+      // Hold the only permit of the upstream while the next call is made
+      server.expect(requestTo(URL)).andRespond(request -> {
+         assertThrows(ConcurrencyLimitExceededException.class,
+               () -> restTemplate.getForObject(URL, String.class));
+         return withSuccess("[]", MediaType.APPLICATION_JSON).createResponse(
+               request);
+      });
+
+      restTemplate.getForObject(URL, String.class);
+
+      server.verify();
+      assertEquals(_meterRegistry.get("upstream.concurrency.rejected")
+            .tag("upstream", "domain.freshdesk.com").counter().count(), 1.0);
+   }
+
+   private double limit() {
+      return _meterRegistry.get("upstream.concurrency.limit")
+            .tag("upstream", "domain.freshdesk.com").gauge().value();
+   }
+}
@@ -0,0 +1,63 @@
+package com.account.interceptor;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+
+import org.junit.jupiter.api.Test;
+
+import com.account.deadline.TaskDeadline;
+import com.account.error.DeadlineExceededException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeadlineClientHttpRequestFactoryTest {
+
+   private final DeadlineClientHttpRequestFactory _factory = new DeadlineClientHttpRequestFactory(
+         5000, 10000);
+
+   @Test
+   public void prepareConnection_withoutADeadline_setsTheTimeouts()
+         throws IOException {
+      final HttpURLConnection connection = connection();
+
+      _factory.prepareConnection(connection, "GET");
+
+      assertEquals(connection.getConnectTimeout(), 5000);
+      assertEquals(connection.getReadTimeout(), 10000);
+   }
+
+   @Test
+   public void prepareConnection_limitsTheTimeoutsToTheTimeLeft()
+         throws IOException {
+      final HttpURLConnection connection = connection();
+
+      try (TaskDeadline.Scope ignored = TaskDeadline.after(1000).enter()) {
+         _factory.prepareConnection(connection, "GET");
+      }
+
+      assertTrue(connection.getConnectTimeout() <= 1000);
+      assertTrue(connection.getReadTimeout() <= 1000);
+   }
+
+   @Test
+   public void prepareConnection_whenTheDeadlineExpired_throws()
+         throws IOException {
+      final HttpURLConnection connection = connection();
+
+      try (TaskDeadline.Scope ignored = TaskDeadline.after(0).enter()) {
+         assertThrows(DeadlineExceededException.class,
+               () -> _factory.prepareConnection(connection, "GET"));
+      }
+   }
+
+   /**
+    * An unconnected connection, so no request is sent.
+    */
+   private HttpURLConnection connection() throws IOException {
+      return (HttpURLConnection) URI.create("http://localhost/")
+            .toURL().openConnection();
+   }
+}
@@ -0,0 +1,183 @@
+package com.account.repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.entity.CreateContactTaskStatistics;
+import com.account.entity.CreateContactTaskSummary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EmbeddedCreateContactTaskStoreTest {
+
+   @TempDir
+   private Path _dir;
+
+   @Test
+   public void save_assignsIdAndAuditDates() throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity task = store.save(task("account"));
+      assertNotNull(task.id);
+      assertNotNull(task.created);
+      assertNotNull(task.updated);
+      store.close();
+   }
+
+   @Test
+   public void findById_returnsADetachedCopy() throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity saved = store.save(task("account"));
+      final CreateContactTaskEntity found = store.findById(saved.id)
+            .orElseThrow();
+      found.status = Constants.CreateContactTaskStatus.RUNNING;
+      assertNotSame(saved, found);
+      assertEquals(store.findById(saved.id).orElseThrow().status,
+            Constants.CreateContactTaskStatus.NOT_STARTED);
+      store.close();
+   }
+
+   @Test
+   public void restart_recoversTasksFromTheJournal() throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity kept = store.save(task("kept"));
+      kept.status = Constants.CreateContactTaskStatus.TO_RETRY;
+      kept.attempts = 2;
+      store.save(kept);
+      final CreateContactTaskEntity deleted = store.save(task("deleted"));
+      store.deleteAllById(List.of(deleted.id));
+      store.close();
+
+      final EmbeddedCreateContactTaskStore recovered = store(4096);
+      final List<CreateContactTaskEntity> tasks = recovered.findAllOrderByUpdatedAsc();
+      assertEquals(tasks.size(), 1);
+      assertEquals(tasks.get(0).id, kept.id);
+      assertEquals(tasks.get(0).status,
+            Constants.CreateContactTaskStatus.TO_RETRY);
+      assertEquals(tasks.get(0).attempts, 2);
+      recovered.close();
+   }
+
+   @Test
+   public void save_whenJournalIsFull_compactsTheJournal() throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(512);
+      final CreateContactTaskEntity task = store.save(task("account"));
+      for (int i = 0; i < 100; i++) {
+         task.attempts = i;
+         store.save(task);
+      }
+      final CreateContactTaskEntity other = store.save(task("other"));
+      store.close();
+
+      final EmbeddedCreateContactTaskStore recovered = store(512);
+      assertEquals(recovered.findById(task.id).orElseThrow().attempts, 99);
+      assertTrue(recovered.findById(other.id).isPresent());
+      recovered.close();
+   }
+
+   @Test
+   public void streamSummariesByStatusInOrderByPriorityDescUpdatedAsc_filtersByStatus()
+         throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity pending = store.save(task("pending"));
+      final CreateContactTaskEntity completed = task("completed");
+      completed.status = Constants.CreateContactTaskStatus.COMPLETED;
+      store.save(completed);
+
+      final List<CreateContactTaskSummary> tasks = store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
+            List.of(Constants.CreateContactTaskStatus.NOT_STARTED)).toList();
+      assertEquals(tasks.size(), 1);
+      assertEquals(tasks.get(0).id(), pending.id);
+      store.close();
+   }
+
+   @Test
+   public void streamSummariesByStatusInOrderByPriorityDescUpdatedAsc_ordersHighPriorityFirst()
+         throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity normal = store.save(task("normal"));
+      final CreateContactTaskEntity high = task("high");
+      high.priority = Constants.TaskPriority.HIGH.value();
+      final CreateContactTaskEntity savedHigh = store.save(high);
+
+      final List<CreateContactTaskSummary> tasks = store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(
+            List.of(Constants.CreateContactTaskStatus.NOT_STARTED)).toList();
+      assertEquals(tasks.get(0).id(), savedHigh.id);
+      assertEquals(tasks.get(1).id(), normal.id);
+      store.close();
+   }
+
+   @Test
+   public void aggregateStatistics_countsTheStoredTasks() throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity pending = store.save(task("pending"));
+      final CreateContactTaskEntity retried = task("retried");
+      retried.status = Constants.CreateContactTaskStatus.TO_RETRY;
+      retried.attempts = 2;
+      store.save(retried);
+      final CreateContactTaskEntity completed = new CreateContactTaskEntity(
+            "completed", Constants.AccountOrigin.GITHUB, "other");
+      completed.status = Constants.CreateContactTaskStatus.COMPLETED;
+      completed.attempts = 1;
+      store.save(completed);
+
+      final CreateContactTaskStatistics statistics = store.aggregateStatistics(
+            List.of(Constants.CreateContactTaskStatus.NOT_STARTED,
+                  Constants.CreateContactTaskStatus.TO_RETRY));
+      assertEquals(statistics.total(), 3L);
+      assertEquals(statistics.countsByStatus().get(
+            Constants.CreateContactTaskStatus.TO_RETRY), 1L);
+      assertEquals(statistics.countsByDomain().get("domain").get(
+            Constants.CreateContactTaskStatus.NOT_STARTED), 1L);
+      assertEquals(statistics.countsByDomain().get("other").get(
+            Constants.CreateContactTaskStatus.COMPLETED), 1L);
+      assertEquals(statistics.countsByAttempts(), Map.of(0, 1L, 1, 1L, 2, 1L));
+      assertEquals(statistics.oldestPendingCreated(), pending.created);
+      store.close();
+   }
+
+   @Test
+   public void findMatchingByStatusIn_followsTheSavedAndDeletedTasks()
+         throws IOException {
+      final EmbeddedCreateContactTaskStore store = store(4096);
+      final CreateContactTaskEntity running = store.save(task("account"));
+      running.status = Constants.CreateContactTaskStatus.RUNNING;
+      store.save(running);
+      final CreateContactTaskEntity deleted = store.save(task("account"));
+      store.deleteAllById(List.of(deleted.id));
+      store.save(task("other"));
+      store.close();
+
+      final EmbeddedCreateContactTaskStore recovered = store(4096);
+      final List<CreateContactTaskEntity> matching = recovered.findMatchingByStatusIn(
+            List.of(task("account"), task("missing")),
+            List.of(Constants.CreateContactTaskStatus.NOT_STARTED,
+                  Constants.CreateContactTaskStatus.RUNNING));
+      assertEquals(matching.size(), 1);
+      assertEquals(matching.get(0).id, running.id);
+      assertEquals(recovered.findByAccountAndAccountOriginAndFreshdeskDomain(
+            "other", Constants.AccountOrigin.GITHUB, "domain").size(), 1);
+      recovered.close();
+   }
+
+   private EmbeddedCreateContactTaskStore store(final int journalSize) {
+      return new EmbeddedCreateContactTaskStore(
+            _dir.resolve("tasks.journal").toString(), journalSize, false,
+            Clock.systemUTC());
+   }
+
+   private CreateContactTaskEntity task(final String account) {
+      return new CreateContactTaskEntity(account,
+            Constants.AccountOrigin.GITHUB, "domain");
+   }
+}
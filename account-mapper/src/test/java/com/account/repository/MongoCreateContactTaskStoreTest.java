@@ -0,0 +1,71 @@
+package com.account.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskStatistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MongoCreateContactTaskStoreTest {
+
+   @Test
+   public void statisticsPipeline_matchesThePendingStatusCodes() {
+      final List<Document> pipeline = MongoCreateContactTaskStore.statisticsPipeline(
+            List.of(Constants.CreateContactTaskStatus.NOT_STARTED,
+                  Constants.CreateContactTaskStatus.TO_RETRY));
+
+      final Document facets = pipeline.get(0).get("$facet", Document.class);
+      final Document match = facets.getList("oldestPending", Document.class)
+            .get(0).get("$match", Document.class);
+      assertEquals(match.get("s", Document.class).getList("$in", Integer.class),
+            List.of(0, 1));
+   }
+
+   @Test
+   public void statisticsOf_mapsTheStatusCodesBack() {
+      final Date created = new Date(1000);
+      final Document facets = new Document()
+            .append("byStatusAndDomain", List.of(
+                  group(new Document("s", 0).append("d", "domain"), 2),
+                  group(new Document("s", 4).append("d", "domain"), 1),
+                  group(new Document("s", 0).append("d", "other"), 3)))
+            .append("byAttempts", List.of(group(0, 5), group(2, 1)))
+            .append("oldestPending", List.of(new Document("_id", null)
+                  .append("created", created)));
+
+      final CreateContactTaskStatistics statistics = MongoCreateContactTaskStore.statisticsOf(
+            facets);
+
+      assertEquals(statistics.total(), 6L);
+      assertEquals(statistics.countsByStatus(),
+            Map.of(Constants.CreateContactTaskStatus.NOT_STARTED, 5L,
+                  Constants.CreateContactTaskStatus.COMPLETED, 1L));
+      assertEquals(statistics.countsByDomain().get("domain"),
+            Map.of(Constants.CreateContactTaskStatus.NOT_STARTED, 2L,
+                  Constants.CreateContactTaskStatus.COMPLETED, 1L));
+      assertEquals(statistics.countsByAttempts(), Map.of(0, 5L, 2, 1L));
+      assertEquals(statistics.oldestPendingCreated(), created);
+   }
+
+   @Test
+   public void statisticsOf_emptyCollection_hasNoOldestPendingTask() {
+      final CreateContactTaskStatistics statistics = MongoCreateContactTaskStore.statisticsOf(
+            new Document().append("byStatusAndDomain", List.of())
+                  .append("byAttempts", List.of())
+                  .append("oldestPending", List.of()));
+
+      assertEquals(statistics.total(), 0L);
+      assertNull(statistics.oldestPendingCreated());
+   }
+
+   private Document group(final Object id, final int count) {
+      return new Document("_id", id).append("count", count);
+   }
+}
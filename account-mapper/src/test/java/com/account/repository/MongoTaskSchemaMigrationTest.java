@@ -0,0 +1,151 @@
+package com.account.repository;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.result.UpdateResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+public class MongoTaskSchemaMigrationTest {
+
+   private final MongoTemplate _mongoTemplate = mock(MongoTemplate.class);
+
+   @Test
+   public void migrate_whenDisabled_doesNotReachMongo() {
+      new MongoTaskSchemaMigration(_mongoTemplate, false).migrate();
+
+      verifyNoInteractions(_mongoTemplate);
+   }
+
+   @Test
+   @SuppressWarnings("unchecked")
+   public void migrate_rewritesTheTasksAndDropsTheLegacyIndexes() {
+      final MongoCollection<Document> tasks = mock(MongoCollection.class);
+      final MongoCollection<Document> migrations = mock(MongoCollection.class);
+      final ListIndexesIterable<Document> indexes = mock(
+            ListIndexesIterable.class);
+      when(_mongoTemplate.getCollectionName(CreateContactTaskEntity.class))
+            .thenReturn("createContactTask");
+      when(_mongoTemplate.getCollection("createContactTask")).thenReturn(tasks);
+      when(_mongoTemplate.getCollection(
+            MongoTaskSchemaMigration.MIGRATIONS_COLLECTION)).thenReturn(
+            migrations);
+      when(_mongoTemplate.executeCommand(any(Document.class))).thenReturn(
+            new Document());
+      when(tasks.updateMany(any(Document.class), any(List.class))).thenReturn(
+            UpdateResult.acknowledged(1, 1L, null));
+      when(tasks.listIndexes()).thenReturn(indexes);
+      doAnswer(invocation -> {
+         final Consumer<Document> consumer = invocation.getArgument(0);
+         List.of("_id_", "pending_scan", "cleanup_scan", "status_scan")
+               .forEach(name -> consumer.accept(new Document("name", name)));
+         return null;
+      }).when(indexes).forEach(any());
+
+      new MongoTaskSchemaMigration(_mongoTemplate, true).migrate();
+
+      final ArgumentCaptor<List<Document>> pipeline = ArgumentCaptor.forClass(
+            List.class);
+      verify(tasks).updateMany(
+            eq(new Document("status", new Document("$exists", true))),
+            pipeline.capture());
+      assertEquals(pipeline.getValue(),
+            MongoTaskSchemaMigration.migrationPipeline());
+      verify(tasks).dropIndex("pending_scan");
+      verify(tasks).dropIndex("cleanup_scan");
+      verify(tasks, never()).dropIndex("account");
+      verify(tasks, never()).dropIndex("status_scan");
+      final ArgumentCaptor<Document> version = ArgumentCaptor.forClass(
+            Document.class);
+      verify(migrations).replaceOne(
+            eq(new Document("_id", "createContactTask")), version.capture(),
+            any(ReplaceOptions.class));
+      assertEquals(version.getValue().get("version"),
+            MongoTaskSchemaMigration.SCHEMA_VERSION);
+   }
+
+   @Test
+   public void migrate_whenAlreadyMigrated_leavesTheTasksAlone() {
+      when(_mongoTemplate.getCollectionName(CreateContactTaskEntity.class))
+            .thenReturn("createContactTask");
+      when(_mongoTemplate.findOne(any(Query.class), eq(Document.class),
+            eq(MongoTaskSchemaMigration.MIGRATIONS_COLLECTION))).thenReturn(
+            new Document("version", MongoTaskSchemaMigration.SCHEMA_VERSION));
+
+      new MongoTaskSchemaMigration(_mongoTemplate, true).migrate();
+
+      verify(_mongoTemplate, never()).getCollection(anyString());
+   }
+
+   @Test
+   public void migrationPipeline_mapsEveryStatusToItsStoredCode() {
+      final MongoTaskStoreConfiguration.TaskStatusWritingConverter converter = new MongoTaskStoreConfiguration.TaskStatusWritingConverter();
+      final List<Document> branches = branchesOf("s");
+
+      assertEquals(branches.size(),
+            Constants.CreateContactTaskStatus.values().length);
+      for (final Constants.CreateContactTaskStatus status : Constants.CreateContactTaskStatus.values()) {
+         assertEquals(codeOf(branches, status.name()),
+               converter.convert(status));
+      }
+   }
+
+   @Test
+   public void migrationPipeline_mapsEveryAccountOriginToItsStoredCode() {
+      final MongoTaskStoreConfiguration.AccountOriginWritingConverter converter = new MongoTaskStoreConfiguration.AccountOriginWritingConverter();
+      final List<Document> branches = branchesOf("o");
+
+      assertEquals(branches.size(), Constants.AccountOrigin.values().length);
+      for (final Constants.AccountOrigin origin : Constants.AccountOrigin.values()) {
+         assertEquals(codeOf(branches, origin.name()),
+               converter.convert(origin));
+      }
+   }
+
+   @Test
+   public void migrationPipeline_unsetsTheVersion1FieldsAndTheTypeHint() {
+      final List<Document> pipeline = MongoTaskSchemaMigration.migrationPipeline();
+
+      assertEquals(pipeline.get(1).get("$unset"),
+            List.of("status", "created", "updated", "attempts", "priority",
+                  "freshdeskDomain", "accountOrigin", "account",
+                  "externalAccountId", "email", "address", "_class"));
+   }
+
+   @SuppressWarnings("unchecked")
+   private static List<Document> branchesOf(final String field) {
+      final Document set = MongoTaskSchemaMigration.migrationPipeline().get(0)
+            .get("$set", Document.class);
+      return (List<Document>) set.get(field, Document.class)
+            .get("$switch", Document.class).get("branches");
+   }
+
+   private static Object codeOf(final List<Document> branches,
+         final String name) {
+      return branches.stream()
+            .filter(branch -> branch.get("case", Document.class)
+                  .getList("$eq", Object.class).get(1).equals(name))
+            .findFirst().orElseThrow().get("then");
+   }
+}
@@ -0,0 +1,205 @@
+package com.account.repository;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.projection.EntityProjectionIntrospector;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.entity.CreateContactTaskSummary;
+import com.mongodb.MongoClientSettings;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class MongoTaskStoreConfigurationTest {
+
+   private final MongoTaskStoreConfiguration _configuration = new MongoTaskStoreConfiguration();
+   private final MongoCustomConversions _conversions = _configuration.mongoCustomConversions();
+   private final MongoMappingContext _mappingContext = mappingContext();
+   private final MappingMongoConverter _converter = converter();
+
+   @Test
+   public void write_storesShortFieldNamesAndCodes_withoutTypeHint() {
+      final Document document = new Document();
+      _converter.write(task(), document);
+
+      assertEquals(document.get("s"),
+            Constants.CreateContactTaskStatus.TO_RETRY.code());
+      assertEquals(document.get("o"), Constants.AccountOrigin.GITHUB.code());
+      assertEquals(document.get("a"), "account");
+      assertEquals(document.get("d"), "domain");
+      assertEquals(document.get("n"), 2);
+      assertFalse(document.containsKey("_class"));
+      assertFalse(document.containsKey("status"));
+   }
+
+   @Test
+   public void read_restoresTheWrittenTask() {
+      final CreateContactTaskEntity task = task();
+      final Document document = new Document();
+      _converter.write(task, document);
+
+      final CreateContactTaskEntity read = _converter.read(
+            CreateContactTaskEntity.class, document);
+
+      assertEquals(read.status, task.status);
+      assertEquals(read.accountOrigin, task.accountOrigin);
+      assertEquals(read.account, task.account);
+      assertEquals(read.updated, task.updated);
+   }
+
+   @Test
+   public void queryMapper_mapsPropertiesAndEnumsToTheStoredForm() {
+      final MongoPersistentEntity<?> entity = _mappingContext.getRequiredPersistentEntity(
+            CreateContactTaskEntity.class);
+      final QueryMapper queryMapper = new QueryMapper(_converter);
+      final Query query = new Query(Criteria.where("status")
+            .in(List.of(Constants.CreateContactTaskStatus.NOT_STARTED))
+            .and("accountOrigin").is(Constants.AccountOrigin.GITHUB));
+
+      assertEquals(queryMapper.getMappedObject(query.getQueryObject(), entity),
+            new Document("s", new Document("$in", List.of(0))).append("o", 0));
+      assertEquals(queryMapper.getMappedSort(
+                  new Query().with(Sort.by(Sort.Order.desc("priority"),
+                        Sort.Order.asc("updated"))).getSortObject(), entity),
+            new Document("p", -1).append("u", 1));
+   }
+
+   @Test
+   public void project_readsTheSummaryFromTheStoredFields() {
+      final Document document = new Document();
+      _converter.write(task(), document);
+
+      final CreateContactTaskSummary summary = _converter.project(
+            EntityProjectionIntrospector.create(
+                        _converter.getProjectionFactory(),
+                        EntityProjectionIntrospector.ProjectionPredicate.typeHierarchy(),
+                        _mappingContext)
+                  .introspect(CreateContactTaskSummary.class,
+                        CreateContactTaskEntity.class), document);
+
+      assertEquals(summary.status(), Constants.CreateContactTaskStatus.TO_RETRY);
+      assertEquals(summary.attempts(), 2);
+   }
+
+   @Test
+   public void read_restoresATaskMigratedFromTheVersion1Schema() {
+      final Document version1 = new Document("_id", "1")
+            .append("_class", CreateContactTaskEntity.class.getName())
+            .append("status", "TO_RETRY").append("created", new Date(1_000))
+            .append("updated", new Date(2_000)).append("attempts", 2)
+            .append("freshdeskDomain", "domain")
+            .append("accountOrigin", "GITHUB").append("account", "account");
+
+      final Document migrated = migrate(version1);
+      final CreateContactTaskEntity read = _converter.read(
+            CreateContactTaskEntity.class, migrated);
+
+      final CreateContactTaskEntity task = task();
+      task.id = "1";
+      final Document written = new Document();
+      _converter.write(task, written);
+      assertEquals(migrated, written);
+      assertEquals(read.status, task.status);
+      assertEquals(read.accountOrigin, task.accountOrigin);
+      assertEquals(read.priority, Constants.TaskPriority.NORMAL.value());
+      assertEquals(read.attempts, task.attempts);
+      assertEquals(read.created, task.created);
+      assertNull(read.email);
+   }
+
+   /**
+    * Applies {@link MongoTaskSchemaMigration#migrationPipeline()} the way
+    * MongoDB does, for the expressions it uses.
+    */
+   private static Document migrate(final Document document) {
+      final List<Document> pipeline = MongoTaskSchemaMigration.migrationPipeline();
+      final Document migrated = new Document(document);
+      for (final Map.Entry<String, Object> field : pipeline.get(0)
+            .get("$set", Document.class).entrySet()) {
+         final Object value = evaluate(field.getValue(), document);
+         if (value != null) {
+            migrated.put(field.getKey(), value);
+         }
+      }
+      pipeline.get(1).getList("$unset", String.class)
+            .forEach(migrated::remove);
+      return migrated;
+   }
+
+   private static Object evaluate(final Object expression,
+         final Document document) {
+      if (expression instanceof String field && field.startsWith("$")) {
+         return document.get(field.substring(1));
+      }
+      if (!(expression instanceof Document operator)) {
+         return expression;
+      }
+      if (operator.containsKey("$ifNull")) {
+         final List<Object> operands = operator.getList("$ifNull",
+               Object.class);
+         final Object value = evaluate(operands.get(0), document);
+         return value != null ? value : evaluate(operands.get(1), document);
+      }
+      final Document switchOperator = operator.get("$switch", Document.class);
+      for (final Document branch : switchOperator.getList("branches",
+            Document.class)) {
+         final List<Object> operands = branch.get("case", Document.class)
+               .getList("$eq", Object.class);
+         if (operands.get(1).equals(evaluate(operands.get(0), document))) {
+            return branch.get("then");
+         }
+      }
+      return evaluate(switchOperator.get("default"), document);
+   }
+
+   private MongoMappingContext mappingContext() {
+      final MongoMappingContext mappingContext = new MongoMappingContext();
+      mappingContext.setInitialEntitySet(Set.of(CreateContactTaskEntity.class));
+      mappingContext.setSimpleTypeHolder(_conversions.getSimpleTypeHolder());
+      mappingContext.afterPropertiesSet();
+      return mappingContext;
+   }
+
+   private MappingMongoConverter converter() {
+      final MongoDatabaseFactory mongoDatabaseFactory = mock(
+            MongoDatabaseFactory.class);
+      when(mongoDatabaseFactory.getExceptionTranslator()).thenReturn(
+            new MongoExceptionTranslator());
+      when(mongoDatabaseFactory.getCodecRegistry()).thenReturn(
+            MongoClientSettings.getDefaultCodecRegistry());
+      final MappingMongoConverter converter = _configuration.mappingMongoConverter(
+            mongoDatabaseFactory, _mappingContext, _conversions);
+      converter.afterPropertiesSet();
+      return converter;
+   }
+
+   private static CreateContactTaskEntity task() {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "account", Constants.AccountOrigin.GITHUB, "domain");
+      task.status = Constants.CreateContactTaskStatus.TO_RETRY;
+      task.attempts = 2;
+      task.created = new Date(1_000);
+      task.updated = new Date(2_000);
+      return task;
+   }
+}
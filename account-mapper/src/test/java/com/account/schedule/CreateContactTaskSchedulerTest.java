@@ -1,7 +1,9 @@
 package com.account.schedule;
 
+import java.time.Clock;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,17 +11,22 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import com.account.constants.Constants;
-import com.account.entity.CreateContactTaskEntity;
-import com.account.repository.CreateContactTaskRepository;
+import com.account.entity.CreateContactTaskSummary;
+import com.account.repository.CreateContactTaskStore;
 import com.account.service.CreateContactTaskService;
+import com.account.service.TaskPipeline;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,9 +37,13 @@ public class CreateContactTaskSchedulerTest {
    @InjectMocks
    private CreateContactTaskScheduler _scheduler;
    @Mock
-   private CreateContactTaskRepository _repository;
+   private CreateContactTaskStore _store;
    @Mock
    private CreateContactTaskService _service;
+   @Mock
+   private ObjectProvider<TaskPipeline> _taskPipeline;
+   @Spy
+   private Clock _clock = Clock.systemUTC();
 
    public CreateContactTaskSchedulerTest() {
       MockitoAnnotations.openMocks(this);
@@ -44,33 +55,38 @@ public class CreateContactTaskSchedulerTest {
       ReflectionTestUtils.setField(_scheduler, "_initialTimeoutValueMillis",
             10000);
       ReflectionTestUtils.setField(_scheduler, "_timeoutStepMillis", 10000);
+      ReflectionTestUtils.setField(_scheduler, "_maxTasksToSchedulePerTick",
+            100);
+      ReflectionTestUtils.setField(_scheduler, "_maxTasksToCleanupPerTick",
+            100);
+      ReflectionTestUtils.setField(_scheduler, "_deleteBatchSize", 10);
    }
 
    @Test
    public void scheduleTasks_newTasks_areImmediatelyScheduled() {
-      final CreateContactTaskEntity task1 = task("1", 0, new Date());
-      final CreateContactTaskEntity task2 = task("2", 0, new Date());
-      final CreateContactTaskEntity task3 = task("3", 0, new Date());
-      final CreateContactTaskEntity task4 = task("4", 0, new Date());
-      when(_repository.findByStatusInOrderByUpdatedAsc(any())).thenReturn(
-            List.of(task1, task2, task3, task4));
+      final CreateContactTaskSummary task1 = task("1", 0, new Date());
+      final CreateContactTaskSummary task2 = task("2", 0, new Date());
+      final CreateContactTaskSummary task3 = task("3", 0, new Date());
+      final CreateContactTaskSummary task4 = task("4", 0, new Date());
+      when(_store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(any())).thenReturn(
+            Stream.of(task1, task2, task3, task4));
       _scheduler.scheduleTasks();
       // Verify all tasks were executed
       final ArgumentCaptor<String> taskIds = ArgumentCaptor.forClass(
             String.class);
       verify(_service, times(4)).execute(taskIds.capture());
       assertEquals(taskIds.getAllValues(),
-            List.of(task1.id, task2.id, task3.id, task4.id));
+            List.of(task1.id(), task2.id(), task3.id(), task4.id()));
    }
 
    @Test
    public void scheduleTasks_tasksWithExceededAttempts_areNotScheduled() {
-      final CreateContactTaskEntity task1 = task("1", 5, new Date());
-      final CreateContactTaskEntity task2 = task("2", 5, new Date());
-      final CreateContactTaskEntity task3 = task("3", 5, new Date());
-      final CreateContactTaskEntity task4 = task("4", 5, new Date());
-      when(_repository.findByStatusInOrderByUpdatedAsc(any())).thenReturn(
-            List.of(task1, task2, task3, task4));
+      final CreateContactTaskSummary task1 = task("1", 5, new Date());
+      final CreateContactTaskSummary task2 = task("2", 5, new Date());
+      final CreateContactTaskSummary task3 = task("3", 5, new Date());
+      final CreateContactTaskSummary task4 = task("4", 5, new Date());
+      when(_store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(any())).thenReturn(
+            Stream.of(task1, task2, task3, task4));
       _scheduler.scheduleTasks();
       // Verify no tasks were executed
       final ArgumentCaptor<String> taskIds = ArgumentCaptor.forClass(
@@ -81,20 +97,20 @@ public class CreateContactTaskSchedulerTest {
 
    @Test
    public void scheduleTasks_onlyTasksWithReachedTimeout_areExecuted() {
-      final CreateContactTaskEntity task1 = task("1", 1,
+      final CreateContactTaskSummary task1 = task("1", 1,
             getLastUpdatedToPassTimeout(1));
-      final CreateContactTaskEntity task2 = task("2", 1, new Date());
-      final CreateContactTaskEntity task3 = task("3", 2,
+      final CreateContactTaskSummary task2 = task("2", 1, new Date());
+      final CreateContactTaskSummary task3 = task("3", 2,
             getLastUpdatedToPassTimeout(2));
-      final CreateContactTaskEntity task4 = task("4", 3, new Date());
-      final CreateContactTaskEntity task5 = task("5", 3,
+      final CreateContactTaskSummary task4 = task("4", 3, new Date());
+      final CreateContactTaskSummary task5 = task("5", 3,
             getLastUpdatedToPassTimeout(3));
-      final CreateContactTaskEntity task6 = task("6", 4, new Date());
-      final CreateContactTaskEntity task7 = task("7", 4,
+      final CreateContactTaskSummary task6 = task("6", 4, new Date());
+      final CreateContactTaskSummary task7 = task("7", 4,
             getLastUpdatedToPassTimeout(4));
-      final CreateContactTaskEntity task8 = task("8", 4, new Date());
-      when(_repository.findByStatusInOrderByUpdatedAsc(any())).thenReturn(
-            List.of(task1, task2, task3, task4, task5, task6, task7, task8));
+      final CreateContactTaskSummary task8 = task("8", 4, new Date());
+      when(_store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(any())).thenReturn(
+            Stream.of(task1, task2, task3, task4, task5, task6, task7, task8));
       _scheduler.scheduleTasks();
       // Verify the correct tasks were executed
       final ArgumentCaptor<String> taskIds = ArgumentCaptor.forClass(
@@ -105,31 +121,79 @@ public class CreateContactTaskSchedulerTest {
    }
 
    @Test
-   public void cleanup_cleansUpAllReturnedValues() {
-      final List<CreateContactTaskEntity> tasks = List.of(
+   public void scheduleTasks_highPriorityTasks_areExecutedOnTheReservedExecutor() {
+      final CreateContactTaskSummary task1 = new CreateContactTaskSummary("1",
+            Constants.CreateContactTaskStatus.NOT_STARTED, 0,
+            Constants.TaskPriority.HIGH.value(), new Date());
+      final CreateContactTaskSummary task2 = task("2", 0, new Date());
+      when(_store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(any())).thenReturn(
+            Stream.of(task1, task2));
+      _scheduler.scheduleTasks();
+      verify(_service, times(1)).executeHighPriority("1");
+      verify(_service, times(1)).execute("2");
+   }
+
+   @Test
+   public void scheduleTasks_moreTasksThanThePerTickLimit_schedulesOnlyTheLimit() {
+      ReflectionTestUtils.setField(_scheduler, "_maxTasksToSchedulePerTick", 2);
+      when(_store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(any())).thenReturn(
+            Stream.of(task("1", 0, new Date()), task("2", 0, new Date()),
+                  task("3", 0, new Date())));
+      _scheduler.scheduleTasks();
+      verify(_service, times(1)).execute("1");
+      verify(_service, times(1)).execute("2");
+      verify(_service, times(0)).execute("3");
+   }
+
+   @Test
+   public void scheduleTasks_withTaskPipeline_stopsOnceThePipelineIsFull() {
+      final TaskPipeline taskPipeline = mock(TaskPipeline.class);
+      when(_taskPipeline.getIfAvailable()).thenReturn(taskPipeline);
+      when(taskPipeline.submit("1")).thenReturn(true);
+      when(taskPipeline.submit("2")).thenReturn(false);
+      _scheduler = new CreateContactTaskScheduler(_store, _service,
+            _taskPipeline, _clock);
+      setup();
+      when(_store.streamSummariesByStatusInOrderByPriorityDescUpdatedAsc(any())).thenReturn(
+            Stream.of(task("1", 0, new Date()), task("2", 0, new Date()),
+                  task("3", 0, new Date())));
+      _scheduler.scheduleTasks();
+      verify(taskPipeline, times(0)).submit("3");
+      verify(_service, times(0)).execute(any());
+   }
+
+   @Test
+   public void cleanup_deletesTasksInBatches() {
+      ReflectionTestUtils.setField(_scheduler, "_deleteBatchSize", 2);
+      ReflectionTestUtils.setField(_scheduler, "_maxTasksToCleanupPerTick", 3);
+      when(_store.streamSummariesByStatusInOrAttemptsGreaterThanEqual(any(),
+            eq(5))).thenReturn(
+            Stream.of(task("1", 5, new Date()), task("2", 5, new Date()),
+                  task("3", 5, new Date()), task("4", 5, new Date())));
+      _scheduler.cleanupTasks();
+      verify(_store, times(1)).deleteAllById(List.of("1", "2"));
+      verify(_store, times(1)).deleteAllById(List.of("3"));
+   }
+
+   @Test
+   public void cleanup_cleansUpAllReturnedValuesById() {
+      final Stream<CreateContactTaskSummary> tasks = Stream.of(
             task("1", 4, new Date()), task("2", 4, new Date()),
             task("3", 4, new Date()), task("4", 4, new Date()));
-      when(_repository.findByStatusInOrAttemptsGreaterThanEqual(
+      when(_store.streamSummariesByStatusInOrAttemptsGreaterThanEqual(
             List.of(Constants.CreateContactTaskStatus.FAILED,
                   Constants.CreateContactTaskStatus.COMPLETED), 5)).thenReturn(
             tasks);
       _scheduler.cleanupTasks();
       // Verify the correct tasks were executed
-      Class<List<CreateContactTaskEntity>> listClass = (Class<List<CreateContactTaskEntity>>) (Class) List.class;
-      final ArgumentCaptor<List<CreateContactTaskEntity>> capturedTasks = ArgumentCaptor.forClass(
-            listClass);
-      verify(_repository, times(1)).deleteAll(capturedTasks.capture());
-      assertEquals(capturedTasks.getAllValues().size(), 1);
-      assertEquals(capturedTasks.getAllValues().get(0), tasks);
+      verify(_store, times(1)).deleteAllById(List.of("1", "2", "3", "4"));
    }
 
-   private CreateContactTaskEntity task(final String id, final int attempts,
+   private CreateContactTaskSummary task(final String id, final int attempts,
          final Date updated) {
-      final CreateContactTaskEntity task = new CreateContactTaskEntity();
-      task.id = id;
-      task.attempts = attempts;
-      task.updated = updated;
-      return task;
+      return new CreateContactTaskSummary(id,
+            Constants.CreateContactTaskStatus.NOT_STARTED, attempts,
+            Constants.TaskPriority.NORMAL.value(), updated);
    }
 
    private Date getLastUpdatedToPassTimeout(int attempt) {
@@ -1,8 +1,11 @@
 package com.account.service;
 
+import java.time.Clock;
 import java.util.Collections;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -10,18 +13,33 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
 
 import com.account.constants.Constants;
+import com.account.deadline.TaskDeadline;
+import com.account.deadline.TaskDeadlinePolicy;
 import com.account.entity.CreateContactTaskEntity;
+import com.account.error.BulkheadFullException;
+import com.account.error.ConcurrencyLimitExceededException;
 import com.account.error.DuplicateTaskException;
+import com.account.event.TaskStatusChangedEvent;
 import com.account.freshdesk.FreshdeskContactInfo;
 import com.account.freshdesk.FreshdeskContactService;
 import com.account.freshdesk.FreshdeskContactSpec;
+import com.account.freshdesk.FreshdeskContactUpsertBatcher;
+import com.account.github.GitHubAccountLookupBatcher;
+import com.account.github.GitHubAccountNotFoundCache;
 import com.account.github.GitHubAccountService;
 import com.account.github.GithubAccountInfo;
-import com.account.repository.CreateContactTaskRepository;
+import com.account.repository.CreateContactTaskStore;
+import com.account.repository.FreshdeskContactIdentityMap.MappedContact;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -38,14 +56,33 @@ import static org.mockito.Mockito.when;
 
 public class CreateContactTaskServiceTest {
 
+   private static final MappedContact MAPPED_CONTACT = new MappedContact(5L,
+         "fingerprint");
+
    @InjectMocks
    private CreateContactTaskService _service;
    @Mock
-   private CreateContactTaskRepository _repository;
+   private CreateContactTaskStore _store;
    @Mock
    private GitHubAccountService _gitHubAccountService;
    @Mock
    private FreshdeskContactService _freshdeskContactService;
+   @Mock
+   private FreshdeskContactUpsertBatcher _freshdeskContactUpsertBatcher;
+   @Mock
+   private GitHubAccountLookupBatcher _gitHubAccountLookupBatcher;
+   @Mock
+   private ApplicationEventPublisher _eventPublisher;
+   @Spy
+   private TaskStageBulkheads _taskStageBulkheads = new TaskStageBulkheads(
+         new MockEnvironment(), new SimpleMeterRegistry(), 10, 10, 0);
+   @Mock
+   private GitHubAccountNotFoundCache _gitHubAccountNotFoundCache;
+   @Spy
+   private TaskDeadlinePolicy _taskDeadlinePolicy = new TaskDeadlinePolicy(
+         new MockEnvironment(), 30000);
+   @Mock
+   private Clock _clock;
 
    public CreateContactTaskServiceTest() {
       MockitoAnnotations.openMocks(this);
@@ -96,7 +133,7 @@ public class CreateContactTaskServiceTest {
       final CreateContactTaskEntity task = mock(CreateContactTaskEntity.class);
       when(task.hasNotCompleted()).thenReturn(true);
 
-      when(_repository.findByAccountAndAccountOriginAndFreshdeskDomain(account,
+      when(_store.findByAccountAndAccountOriginAndFreshdeskDomain(account,
             Constants.AccountOrigin.valueOf(origin.toUpperCase()),
             domain)).thenReturn(List.of(task));
 
@@ -117,14 +154,14 @@ public class CreateContactTaskServiceTest {
             CreateContactTaskEntity.class);
       when(existingTask.hasNotCompleted()).thenReturn(false);
 
-      when(_repository.findByAccountAndAccountOriginAndFreshdeskDomain(account,
+      when(_store.findByAccountAndAccountOriginAndFreshdeskDomain(account,
             Constants.AccountOrigin.valueOf(origin.toUpperCase()),
             domain)).thenReturn(List.of(existingTask));
 
       final CreateContactTaskEntity expected = new CreateContactTaskEntity(
             account, Constants.AccountOrigin.valueOf(origin.toUpperCase()),
             domain);
-      when(_repository.save(any(CreateContactTaskEntity.class))).thenReturn(
+      when(_store.save(any(CreateContactTaskEntity.class))).thenReturn(
             expected);
 
       final CreateContactTaskEntity task = _service.create(account, origin,
@@ -137,14 +174,14 @@ public class CreateContactTaskServiceTest {
       final String account = "duplicate-account";
       final String origin = "github";
       final String domain = "domain";
-      when(_repository.findByAccountAndAccountOriginAndFreshdeskDomain(account,
+      when(_store.findByAccountAndAccountOriginAndFreshdeskDomain(account,
             Constants.AccountOrigin.valueOf(origin.toUpperCase()),
             domain)).thenReturn(Collections.emptyList());
 
       final CreateContactTaskEntity expected = new CreateContactTaskEntity(
             account, Constants.AccountOrigin.valueOf(origin.toUpperCase()),
             domain);
-      when(_repository.save(any(CreateContactTaskEntity.class))).thenReturn(
+      when(_store.save(any(CreateContactTaskEntity.class))).thenReturn(
             expected);
 
       final CreateContactTaskEntity task = _service.create(account, origin,
@@ -152,12 +189,57 @@ public class CreateContactTaskServiceTest {
       assertSame(expected, task);
    }
 
+   @Test
+   public void create_unsupportedPriority_throwsException() {
+      final IllegalArgumentException expectedException = assertThrows(
+            IllegalArgumentException.class,
+            () -> _service.create("account", "github", "domain", "urgent"));
+      assertEquals(expectedException.getMessage(),
+            "Unsupported task priority provided. Must be one of [LOW, NORMAL, HIGH].");
+   }
+
+   @Test
+   public void create_withPriority_storesTheTaskPriority() {
+      when(_store.findByAccountAndAccountOriginAndFreshdeskDomain("account",
+            Constants.AccountOrigin.GITHUB, "domain")).thenReturn(
+            Collections.emptyList());
+      when(_store.save(any(CreateContactTaskEntity.class))).thenAnswer(
+            invocation -> invocation.getArgument(0));
+
+      final CreateContactTaskEntity task = _service.create("account", "github",
+            "domain", "high");
+      assertEquals(task.priority, Constants.TaskPriority.HIGH.value());
+   }
+
+   @Test
+   public void createAll_skipsTasksDuplicatingPendingOrBatchedTasks() {
+      final CreateContactTaskEntity pending = _service.newTask("pending",
+            "github", "domain", null);
+      final CreateContactTaskEntity first = _service.newTask("new", "github",
+            "domain", null);
+      final CreateContactTaskEntity second = _service.newTask("new", "github",
+            "domain", null);
+      final CreateContactTaskEntity stored = _service.newTask("pending",
+            "github", "domain", null);
+      when(_store.findMatchingByStatusIn(any(), any())).thenReturn(
+            List.of(stored));
+      when(_store.insertAll(any())).thenAnswer(
+            invocation -> List.copyOf(invocation.getArgument(0)));
+      when(_clock.millis()).thenReturn(1000L);
+
+      final List<CreateContactTaskEntity> created = _service.createAll(
+            List.of(pending, first, second));
+
+      assertEquals(created, List.of(first));
+      assertEquals(first.created, new Date(1000));
+   }
+
    @Test
    public void execute_ifTaskDoesNotExists_skipsTaskExecution() {
       final String taskId = "task-id";
-      when(_repository.findById(taskId)).thenReturn(Optional.empty());
+      when(_store.findById(taskId)).thenReturn(Optional.empty());
       _service.execute(taskId);
-      verify(_repository, Mockito.never()).save(
+      verify(_store, Mockito.never()).save(
             any(CreateContactTaskEntity.class));
       verifyNoInteractions(_gitHubAccountService, _freshdeskContactService);
    }
@@ -167,9 +249,9 @@ public class CreateContactTaskServiceTest {
       final String taskId = "task-id";
       final CreateContactTaskEntity assignedTask = new CreateContactTaskEntity();
       assignedTask.status = Constants.CreateContactTaskStatus.RUNNING;
-      when(_repository.findById(taskId)).thenReturn(Optional.of(assignedTask));
+      when(_store.findById(taskId)).thenReturn(Optional.of(assignedTask));
       _service.execute(taskId);
-      verify(_repository, Mockito.never()).save(
+      verify(_store, Mockito.never()).save(
             any(CreateContactTaskEntity.class));
       verifyNoInteractions(_gitHubAccountService, _freshdeskContactService);
    }
@@ -220,9 +302,240 @@ public class CreateContactTaskServiceTest {
 
       // Verify a contact update call
       _service.execute(task.id);
-      verify(_freshdeskContactService, times(1)).update(
-            eq(assignedTask.freshdeskDomain), eq(info.id),
+      verify(_freshdeskContactService, times(1)).updateIfChanged(
+            eq(assignedTask.freshdeskDomain), eq(info),
+            any(FreshdeskContactSpec.class));
+   }
+
+   @Test
+   public void execute_whenTheContactIsMapped_updatesItWithoutALookup() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      final GithubAccountInfo githubAccountInfo = mockGithubApiCall(
+            assignedTask);
+      mockTaskUpdateAfterGithubAccountApiCall(assignedTask, githubAccountInfo);
+      when(_freshdeskContactService.findMappedContact("domain",
+            "GITHUB:1")).thenReturn(Optional.of(MAPPED_CONTACT));
+
+      _service.execute(task.id);
+
+      verify(_freshdeskContactService, times(1)).updateMappedIfChanged(
+            eq("domain"), eq(MAPPED_CONTACT), any(FreshdeskContactSpec.class));
+      verify(_freshdeskContactService, times(0)).findByExternalId(anyString(),
+            anyString(), any());
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   @Test
+   public void execute_whenTheMappedContactWasDeleted_looksTheContactUp() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      final GithubAccountInfo githubAccountInfo = mockGithubApiCall(
+            assignedTask);
+      mockTaskUpdateAfterGithubAccountApiCall(assignedTask, githubAccountInfo);
+      when(_freshdeskContactService.findMappedContact("domain",
+            "GITHUB:1")).thenReturn(Optional.of(MAPPED_CONTACT));
+      when(_freshdeskContactService.updateMappedIfChanged(eq("domain"),
+            eq(MAPPED_CONTACT), any())).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+      mockCheckContactExistence(assignedTask, githubAccountInfo, null);
+
+      _service.execute(task.id);
+
+      verify(_freshdeskContactService, times(1)).create(eq("domain"),
             any(FreshdeskContactSpec.class));
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   @Test
+   public void execute_whenUpsertBatchingIsEnabled_submitsTheContactToTheBatch() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      final GithubAccountInfo githubAccountInfo = mockGithubApiCall(
+            assignedTask);
+      mockTaskUpdateAfterGithubAccountApiCall(assignedTask, githubAccountInfo);
+      when(_freshdeskContactUpsertBatcher.isEnabled()).thenReturn(true);
+      when(_freshdeskContactUpsertBatcher.submit(eq(assignedTask.freshdeskDomain),
+            any(FreshdeskContactSpec.class))).thenReturn(
+            CompletableFuture.completedFuture(new FreshdeskContactInfo()));
+
+      _service.execute(task.id);
+
+      verify(_freshdeskContactUpsertBatcher, times(1)).submit(
+            eq(assignedTask.freshdeskDomain), any(FreshdeskContactSpec.class));
+      verify(_freshdeskContactService, times(0)).findByExternalId(anyString(),
+            anyString(), any());
+      verify(_freshdeskContactService, times(0)).create(anyString(), any());
+      // The task holds no Freshdesk permit while waiting for the batch
+      verify(_taskStageBulkheads, Mockito.never()).inFreshdeskDomainStage(
+            anyString(), any());
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   @Test
+   public void execute_whenUpsertBatchingIsEnabled_andTheContactIsMapped_updatesItWithoutTheBatch() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      final GithubAccountInfo githubAccountInfo = mockGithubApiCall(
+            assignedTask);
+      mockTaskUpdateAfterGithubAccountApiCall(assignedTask, githubAccountInfo);
+      when(_freshdeskContactUpsertBatcher.isEnabled()).thenReturn(true);
+      when(_freshdeskContactService.findMappedContact("domain",
+            "GITHUB:1")).thenReturn(Optional.of(MAPPED_CONTACT));
+
+      _service.execute(task.id);
+
+      verify(_freshdeskContactService, times(1)).updateMappedIfChanged(
+            eq("domain"), eq(MAPPED_CONTACT), any(FreshdeskContactSpec.class));
+      verify(_freshdeskContactUpsertBatcher, times(0)).submit(anyString(),
+            any());
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   @Test
+   public void execute_publishesTheStatusChangesOfTheTask() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      final GithubAccountInfo githubAccountInfo = mockGithubApiCall(
+            assignedTask);
+      mockTaskUpdateAfterGithubAccountApiCall(assignedTask, githubAccountInfo);
+      mockCheckContactExistence(assignedTask, githubAccountInfo, null);
+
+      _service.execute(task.id);
+
+      final ArgumentCaptor<TaskStatusChangedEvent> events = ArgumentCaptor.forClass(
+            TaskStatusChangedEvent.class);
+      verify(_eventPublisher, times(2)).publishEvent(events.capture());
+      assertEquals(events.getAllValues().get(0).taskId(), task.id);
+      assertEquals(events.getAllValues().get(1).status(),
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   @Test
+   public void execute_whenLookupBatchingIsEnabled_andTheAccountDoesNotExist_failsTheTask() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      when(_gitHubAccountLookupBatcher.isEnabled()).thenReturn(true);
+      when(_gitHubAccountLookupBatcher.submit(assignedTask.account)).thenReturn(
+            CompletableFuture.failedFuture(
+                  new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+
+      _service.execute(task.id);
+
+      verifyNoInteractions(_gitHubAccountService, _freshdeskContactService);
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.FAILED);
+   }
+
+   @Test
+   public void execute_whenTheAccountDoesNotExist_remembersTheAccount() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      mockAssignedTaskUpdate(task);
+      mockGithubApiCallFailure(
+            new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+      _service.execute(task.id);
+
+      verify(_gitHubAccountNotFoundCache, times(1)).markNotFound(task.account);
+   }
+
+   @Test
+   public void execute_whenTheAccountIsKnownNotToExist_failsWithoutAnApiCall() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      when(_gitHubAccountNotFoundCache.isNotFound(task.account)).thenReturn(
+            true);
+
+      _service.execute(task.id);
+
+      verifyNoInteractions(_gitHubAccountService, _freshdeskContactService);
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.FAILED);
+   }
+
+   @Test
+   public void create_accountKnownNotToExist_throwsException() {
+      when(_gitHubAccountNotFoundCache.isNotFound("typo")).thenReturn(true);
+      assertThrows(IllegalArgumentException.class,
+            () -> _service.create("typo", "GITHUB", "domain"));
+      verify(_store, Mockito.never()).save(any(CreateContactTaskEntity.class));
+   }
+
+   @Test
+   public void execute_whenTheUpstreamConcurrencyLimitIsReached_retriesTheTask() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      when(_gitHubAccountService.get(anyString())).thenThrow(
+            new ConcurrencyLimitExceededException("limit reached"));
+
+      _service.execute(task.id);
+
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.TO_RETRY);
+   }
+
+   @Test
+   public void execute_rejectedByTheConcurrencyLimitMoreThanMaxAttemptsTimes_staysRetryable() {
+      // The default create.contact.task.max.attempts
+      final int maxAttempts = 5;
+      final CreateContactTaskEntity task = mockStoredTask();
+      when(_gitHubAccountService.get(anyString())).thenThrow(
+            new ConcurrencyLimitExceededException("limit reached"));
+
+      for (int i = 0; i <= maxAttempts; i++) {
+         _service.execute(task.id);
+
+         assertEquals(task.status, Constants.CreateContactTaskStatus.TO_RETRY);
+      }
+
+      assertEquals(task.attempts, 0);
+      verify(_gitHubAccountService, times(maxAttempts + 1)).get("account");
+   }
+
+   @Test
+   public void execute_whenTheBulkheadIsFull_retriesTheTaskWithoutCountingTheAttempt() {
+      final CreateContactTaskEntity task = mockStoredTask();
+      Mockito.doThrow(new BulkheadFullException("full"))
+            .when(_taskStageBulkheads).inAccountOriginStage(any(), any());
+
+      _service.execute(task.id);
+
+      assertEquals(task.status, Constants.CreateContactTaskStatus.TO_RETRY);
+      assertEquals(task.attempts, 0);
+   }
+
+   @Test
+   public void execute_whenTheDeadlineExpired_retriesTheTaskWithoutUpstreamCalls() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      Mockito.doReturn(TaskDeadline.after(0)).when(_taskDeadlinePolicy)
+            .deadlineOf(any());
+
+      _service.execute(task.id);
+
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.TO_RETRY);
+      verifyNoInteractions(_gitHubAccountService, _freshdeskContactService);
+   }
+
+   @Test
+   public void execute_whenACallIsCutShortByTheDeadline_retriesTheTask() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      final CreateContactTaskEntity assignedTask = mockAssignedTaskUpdate(task);
+      Mockito.doReturn(TaskDeadline.after(50)).when(_taskDeadlinePolicy)
+            .deadlineOf(any());
+      when(_gitHubAccountService.get(anyString())).thenAnswer(invocation -> {
+         Thread.sleep(100);
+         throw new ResourceAccessException("Read timed out");
+      });
+
+      _service.execute(task.id);
+
+      assertEquals(assignedTask.status,
+            Constants.CreateContactTaskStatus.TO_RETRY);
    }
 
    @Test
@@ -242,7 +555,7 @@ public class CreateContactTaskServiceTest {
 
       ArgumentCaptor<CreateContactTaskEntity> assignedTaskCaptor = ArgumentCaptor.forClass(
             CreateContactTaskEntity.class);
-      verify(_repository, times(2)).save(assignedTaskCaptor.capture());
+      verify(_store, times(2)).save(assignedTaskCaptor.capture());
 
       assertNotNull(assignedTaskCaptor.getValue());
       assertEquals(assignedTaskCaptor.getValue().status,
@@ -266,7 +579,7 @@ public class CreateContactTaskServiceTest {
 
       ArgumentCaptor<CreateContactTaskEntity> assignedTaskCaptor = ArgumentCaptor.forClass(
             CreateContactTaskEntity.class);
-      verify(_repository, times(2)).save(assignedTaskCaptor.capture());
+      verify(_store, times(2)).save(assignedTaskCaptor.capture());
 
       assertNotNull(assignedTaskCaptor.getValue());
       assertEquals(assignedTaskCaptor.getValue().status,
@@ -280,7 +593,17 @@ public class CreateContactTaskServiceTest {
       task.account = "account";
       task.accountOrigin = Constants.AccountOrigin.GITHUB;
       task.freshdeskDomain = "domain";
-      when(_repository.findById("task-id")).thenReturn(Optional.of(task));
+      when(_store.findById("task-id")).thenReturn(Optional.of(task));
+      return task;
+   }
+
+   /**
+    * A task stored by the mocked store, which keeps the saved changes.
+    */
+   private CreateContactTaskEntity mockStoredTask() {
+      final CreateContactTaskEntity task = mockTaskAssignment();
+      when(_store.save(any(CreateContactTaskEntity.class))).thenAnswer(
+            invocation -> invocation.getArgument(0));
       return task;
    }
 
@@ -293,7 +616,7 @@ public class CreateContactTaskServiceTest {
       assignedTask.freshdeskDomain = task.freshdeskDomain;
       assignedTask.status = Constants.CreateContactTaskStatus.RUNNING;
       assignedTask.attempts++;
-      when(_repository.save(any(CreateContactTaskEntity.class))).thenReturn(
+      when(_store.save(any(CreateContactTaskEntity.class))).thenReturn(
             assignedTask);
       return assignedTask;
    }
@@ -319,7 +642,7 @@ public class CreateContactTaskServiceTest {
       assignedTask.externalAccountId = githubAccountInfo.id;
       assignedTask.address = githubAccountInfo.location;
       assignedTask.email = githubAccountInfo.email;
-      when(_repository.save(any(CreateContactTaskEntity.class))).thenReturn(
+      when(_store.save(any(CreateContactTaskEntity.class))).thenReturn(
             assignedTask);
    }
 
@@ -332,8 +655,8 @@ public class CreateContactTaskServiceTest {
       final Optional<FreshdeskContactInfo> expectedResult =
             result == null ? Optional.empty() : Optional.of(result);
       when(_freshdeskContactService.findByExternalId(
-            assignedTask.freshdeskDomain,
-            contactSpec.uniqueExternalId)).thenReturn(expectedResult);
+            assignedTask.freshdeskDomain, contactSpec.uniqueExternalId,
+            contactSpec.email)).thenReturn(expectedResult);
    }
 
 }
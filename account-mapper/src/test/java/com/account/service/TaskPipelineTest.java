@@ -0,0 +1,140 @@
+package com.account.service;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.account.constants.Constants;
+import com.account.deadline.TaskDeadline;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.error.DeadlineExceededException;
+import com.account.error.RecoverableTaskException;
+import com.account.github.GithubAccountInfo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskPipelineTest {
+
+   private final CreateContactTaskService _service = mock(
+         CreateContactTaskService.class);
+   private final SimpleMeterRegistry _meterRegistry = new SimpleMeterRegistry();
+
+   @Test
+   public void submit_taskGoesThroughAllStages() throws InterruptedException {
+      final CreateContactTaskEntity task = task();
+      final GithubAccountInfo accountInfo = accountInfo();
+      when(_service.assignTask("1")).thenReturn(task);
+      when(_service.getGitHubUserInfo("account")).thenReturn(accountInfo);
+      when(_service.updateFreshdeskContactTaskEntity(task,
+            accountInfo)).thenReturn(task);
+      when(_service.findFreshdeskContact(eq("domain"), any())).thenReturn(
+            Optional.empty());
+      final TaskPipeline pipeline = pipeline(new MockEnvironment(), 10);
+      pipeline.start();
+
+      assertTrue(pipeline.submit("1"));
+      pipeline.stop();
+
+      verify(_service).upsertFreshdeskContact(eq("domain"), any(),
+            eq(Optional.empty()));
+      verify(_service).completeTask(task);
+      assertEquals(task.status, Constants.CreateContactTaskStatus.COMPLETED);
+      for (final String stage : new String[] { "claim", "fetch", "persist",
+            "lookup", "upsert", "finalise" }) {
+         assertEquals(_meterRegistry.get("task.pipeline.stage.service.time")
+               .tag("stage", stage).timer().count(), 1L);
+      }
+   }
+
+   @Test
+   public void submit_failedStage_goesStraightToFinalise()
+         throws InterruptedException {
+      final CreateContactTaskEntity task = task();
+      final RecoverableTaskException exception = new RecoverableTaskException();
+      when(_service.assignTask("1")).thenReturn(task);
+      when(_service.getGitHubUserInfo("account")).thenThrow(exception);
+      when(_service.failedStatus("1", exception)).thenReturn(
+            Constants.CreateContactTaskStatus.TO_RETRY);
+      doCallRealMethod().when(_service).failTask(task, exception);
+      final TaskPipeline pipeline = pipeline(new MockEnvironment(), 10);
+      pipeline.start();
+
+      pipeline.submit("1");
+      pipeline.stop();
+
+      final ArgumentCaptor<CreateContactTaskEntity> completedTask = ArgumentCaptor.forClass(
+            CreateContactTaskEntity.class);
+      verify(_service).completeTask(completedTask.capture());
+      assertEquals(completedTask.getValue().status,
+            Constants.CreateContactTaskStatus.TO_RETRY);
+      verify(_service, never()).updateFreshdeskContactTaskEntity(any(), any());
+   }
+
+   @Test
+   public void submit_taskOutOfTime_skipsItsRemainingStages()
+         throws InterruptedException {
+      final CreateContactTaskEntity task = task();
+      when(_service.assignTask("1")).thenReturn(task);
+      when(_service.deadlineOf(task)).thenReturn(TaskDeadline.after(0));
+      when(_service.failedStatus(eq("1"),
+            any(DeadlineExceededException.class))).thenReturn(
+            Constants.CreateContactTaskStatus.TO_RETRY);
+      doCallRealMethod().when(_service).failTask(eq(task),
+            any(DeadlineExceededException.class));
+      final TaskPipeline pipeline = pipeline(new MockEnvironment(), 10);
+      pipeline.start();
+
+      pipeline.submit("1");
+      pipeline.stop();
+
+      verify(_service, never()).getGitHubUserInfo(any());
+      verify(_service).completeTask(task);
+      assertEquals(task.status, Constants.CreateContactTaskStatus.TO_RETRY);
+   }
+
+   @Test
+   public void submit_whenClaimQueueIsFull_returnsFalse() {
+      final MockEnvironment environment = new MockEnvironment().withProperty(
+            "task.pipeline.stage.claim.queue.capacity", "1");
+      final TaskPipeline pipeline = pipeline(environment, 10);
+
+      assertTrue(pipeline.submit("1"));
+      assertFalse(pipeline.submit("2"));
+      assertEquals(_meterRegistry.get("task.pipeline.stage.queue.size")
+            .tag("stage", "claim").gauge().value(), 1.0);
+   }
+
+   private TaskPipeline pipeline(final MockEnvironment environment,
+         final int queueCapacity) {
+      return new TaskPipeline(_service, new TaskStageBulkheads(
+            new MockEnvironment(), _meterRegistry, 10, 10, 0), environment,
+            _meterRegistry, 1, queueCapacity);
+   }
+
+   private CreateContactTaskEntity task() {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "account", Constants.AccountOrigin.GITHUB, "domain");
+      task.id = "1";
+      return task;
+   }
+
+   private GithubAccountInfo accountInfo() {
+      final GithubAccountInfo accountInfo = new GithubAccountInfo();
+      accountInfo.id = "10";
+      accountInfo.name = "account";
+      accountInfo.email = "account@example.com";
+      return accountInfo;
+   }
+}
@@ -0,0 +1,89 @@
+package com.account.service;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.account.constants.Constants;
+import com.account.error.BulkheadFullException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TaskStageBulkheadsTest {
+
+   private final SimpleMeterRegistry _meterRegistry = new SimpleMeterRegistry();
+
+   @Test
+   public void inFreshdeskDomainStage_whenDomainIsFull_throwsException()
+         throws InterruptedException {
+      final TaskStageBulkheads bulkheads = bulkheads(new MockEnvironment(), 1);
+      final CountDownLatch entered = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      final Thread slowStage = new Thread(
+            () -> bulkheads.inFreshdeskDomainStage("slow", () -> {
+               entered.countDown();
+               await(release);
+               return null;
+            }));
+      slowStage.start();
+      assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+      assertThrows(BulkheadFullException.class,
+            () -> bulkheads.inFreshdeskDomainStage("slow", () -> null));
+      // Other domains are not affected
+      bulkheads.inFreshdeskDomainStage("other", () -> null);
+      release.countDown();
+      slowStage.join();
+      bulkheads.inFreshdeskDomainStage("slow", () -> null);
+      assertEquals(_meterRegistry.get("task.bulkhead.rejected")
+            .tag("stage", "FRESHDESK").counter().count(), 1.0);
+   }
+
+   @Test
+   public void inFreshdeskDomainStage_keepsTheBulkheadOnlyWhileInUse() {
+      final TaskStageBulkheads bulkheads = bulkheads(new MockEnvironment(), 2);
+
+      final double availablePermits = bulkheads.inFreshdeskDomainStage(
+            "domain", () -> _meterRegistry.get(
+                        "task.bulkhead.available.permits")
+                  .tag("stage", "FRESHDESK:domain").gauge().value());
+
+      assertEquals(availablePermits, 1.0);
+      assertNull(_meterRegistry.find("task.bulkhead.available.permits")
+            .tag("stage", "FRESHDESK:domain").gauge());
+   }
+
+   @Test
+   public void inAccountOriginStage_usesTheCapacityOfTheOrigin() {
+      final MockEnvironment environment = new MockEnvironment().withProperty(
+            "task.bulkhead.account.origin.github.max.concurrent", "3");
+      final TaskStageBulkheads bulkheads = bulkheads(environment, 1);
+
+      final String result = bulkheads.inAccountOriginStage(
+            Constants.AccountOrigin.GITHUB, () -> "account");
+
+      assertEquals(result, "account");
+      assertEquals(_meterRegistry.get("task.bulkhead.available.permits")
+            .tag("stage", "GITHUB").gauge().value(), 3.0);
+   }
+
+   private TaskStageBulkheads bulkheads(final MockEnvironment environment,
+         final int capacity) {
+      return new TaskStageBulkheads(environment, _meterRegistry, capacity,
+            capacity, 0);
+   }
+
+   private static void await(final CountDownLatch latch) {
+      try {
+         latch.await(5, TimeUnit.SECONDS);
+      } catch (final InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+   }
+}
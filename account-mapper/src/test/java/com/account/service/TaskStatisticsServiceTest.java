@@ -0,0 +1,131 @@
+package com.account.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskStatistics;
+import com.account.event.TaskStatusChangedEvent;
+import com.account.repository.CreateContactTaskStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskStatisticsServiceTest {
+
+   private final CreateContactTaskStore _store = mock(
+         CreateContactTaskStore.class);
+   private final Clock _clock = mock(Clock.class);
+   private final TaskStatisticsService _service = new TaskStatisticsService(
+         _store, _clock, 5000, new int[] { 1, 5 });
+
+   @Test
+   public void get_withinTheTtl_isServedFromTheCache() {
+      when(_store.aggregateStatistics(any())).thenReturn(statistics(null));
+      when(_clock.millis()).thenReturn(1_000_000L);
+      final TaskStatisticsService.TaskStatistics first = _service.get();
+
+      when(_clock.millis()).thenReturn(1_004_999L);
+      assertSame(_service.get(), first);
+      verify(_store, times(1)).aggregateStatistics(any());
+
+      when(_clock.millis()).thenReturn(1_005_000L);
+      _service.get();
+      verify(_store, times(2)).aggregateStatistics(any());
+   }
+
+   @Test
+   public void get_returnsTheAgeOfTheOldestPendingTask() {
+      when(_store.aggregateStatistics(any())).thenReturn(
+            statistics(new Date(400_000L)));
+      when(_clock.millis()).thenReturn(1_000_000L);
+
+      final TaskStatisticsService.TaskStatistics statistics = _service.get();
+
+      assertEquals(statistics.total(), 3L);
+      assertEquals(statistics.oldestPendingAgeMillis(), 600_000L);
+   }
+
+   @Test
+   public void get_noPendingTask_hasNoOldestPendingAge() {
+      when(_store.aggregateStatistics(any())).thenReturn(statistics(null));
+      when(_clock.millis()).thenReturn(1_000_000L);
+
+      assertNull(_service.get().oldestPendingAgeMillis());
+   }
+
+   @Test
+   public void get_countsTheFinishedTasksPerWindow() {
+      when(_store.aggregateStatistics(any())).thenReturn(statistics(null));
+      when(_clock.millis()).thenReturn(1_000_000L);
+      _service.onTaskStatusChanged(
+            status(Constants.CreateContactTaskStatus.COMPLETED));
+      _service.onTaskStatusChanged(
+            status(Constants.CreateContactTaskStatus.FAILED));
+      when(_clock.millis()).thenReturn(1_180_000L);
+      _service.onTaskStatusChanged(
+            status(Constants.CreateContactTaskStatus.COMPLETED));
+      _service.onTaskStatusChanged(
+            status(Constants.CreateContactTaskStatus.COMPLETED));
+      _service.onTaskStatusChanged(
+            status(Constants.CreateContactTaskStatus.RUNNING));
+
+      final Map<String, TaskStatisticsService.CompletionWindow> windows = _service.get()
+            .completionWindows();
+
+      assertEquals(windows.get("1m"),
+            new TaskStatisticsService.CompletionWindow(2, 0, 2.0));
+      assertEquals(windows.get("5m"),
+            new TaskStatisticsService.CompletionWindow(3, 1, 0.6));
+   }
+
+   @Test
+   public void onTaskStatusChanged_duringAnAggregation_doesNotWait()
+         throws InterruptedException {
+      final CountDownLatch aggregating = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      when(_store.aggregateStatistics(any())).thenAnswer(invocation -> {
+         aggregating.countDown();
+         release.await(5, TimeUnit.SECONDS);
+         return statistics(null);
+      });
+      when(_clock.millis()).thenReturn(1_000_000L);
+      final Thread dashboard = new Thread(_service::get);
+      dashboard.start();
+      assertTrue(aggregating.await(5, TimeUnit.SECONDS));
+
+      assertTimeoutPreemptively(Duration.ofSeconds(1),
+            () -> _service.onTaskStatusChanged(
+                  status(Constants.CreateContactTaskStatus.COMPLETED)));
+      release.countDown();
+      dashboard.join();
+   }
+
+   private CreateContactTaskStatistics statistics(
+         final Date oldestPendingCreated) {
+      return new CreateContactTaskStatistics(
+            Map.of(Constants.CreateContactTaskStatus.NOT_STARTED, 2L,
+                  Constants.CreateContactTaskStatus.COMPLETED, 1L),
+            Map.of(), Map.of(0, 3L), oldestPendingCreated);
+   }
+
+   private TaskStatusChangedEvent status(
+         final Constants.CreateContactTaskStatus status) {
+      return new TaskStatusChangedEvent("1", "account",
+            Constants.AccountOrigin.GITHUB, "domain", status, 1, null);
+   }
+}
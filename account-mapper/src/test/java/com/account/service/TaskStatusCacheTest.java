@@ -0,0 +1,130 @@
+package com.account.service;
+
+import java.time.Clock;
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.account.constants.Constants;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.event.TaskStatusChangedEvent;
+import com.account.repository.CreateContactTaskStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TaskStatusCacheTest {
+
+   private final CreateContactTaskStore _store = mock(
+         CreateContactTaskStore.class);
+   private final MeterRegistry _meterRegistry = new SimpleMeterRegistry();
+   private final Clock _clock = mock(Clock.class);
+   private final TaskStatusCache _cache = new TaskStatusCache(_store,
+         _meterRegistry, _clock, 2, 1000);
+
+   @Test
+   public void get_statusOfAChangedTask_isServedFromTheCache() {
+      _cache.onTaskStatusChanged(
+            status("1", Constants.CreateContactTaskStatus.RUNNING, 1));
+
+      assertEquals(_cache.get("1").orElseThrow().status(),
+            Constants.CreateContactTaskStatus.RUNNING);
+      verify(_store, never()).findById("1");
+      assertEquals(requests("hit"), 1.0);
+   }
+
+   @Test
+   public void get_uncachedTask_isReadThroughOnce() {
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "account", Constants.AccountOrigin.GITHUB, "domain");
+      task.id = "1";
+      when(_store.findById("1")).thenReturn(Optional.of(task));
+
+      _cache.get("1");
+      _cache.get("1");
+
+      verify(_store, times(1)).findById("1");
+      assertEquals(requests("miss"), 1.0);
+      assertEquals(requests("hit"), 1.0);
+   }
+
+   @Test
+   public void get_expiredPendingStatus_isReadThrough() {
+      _cache.onTaskStatusChanged(
+            status("1", Constants.CreateContactTaskStatus.RUNNING, 1));
+      final CreateContactTaskEntity task = new CreateContactTaskEntity(
+            "account", Constants.AccountOrigin.GITHUB, "domain");
+      task.id = "1";
+      task.status = Constants.CreateContactTaskStatus.COMPLETED;
+      task.updated = new Date(2);
+      when(_store.findById("1")).thenReturn(Optional.of(task));
+      when(_clock.millis()).thenReturn(1000L);
+
+      assertEquals(_cache.get("1").orElseThrow().status(),
+            Constants.CreateContactTaskStatus.COMPLETED);
+      verify(_store, times(1)).findById("1");
+   }
+
+   @Test
+   public void get_finalStatus_doesNotExpire() {
+      _cache.onTaskStatusChanged(
+            status("1", Constants.CreateContactTaskStatus.FAILED, 1));
+      when(_clock.millis()).thenReturn(1_000_000L);
+
+      assertEquals(_cache.get("1").orElseThrow().status(),
+            Constants.CreateContactTaskStatus.FAILED);
+      verify(_store, never()).findById("1");
+   }
+
+   @Test
+   public void get_missingTask_isEmpty() {
+      when(_store.findById("1")).thenReturn(Optional.empty());
+      assertTrue(_cache.get("1").isEmpty());
+   }
+
+   @Test
+   public void onTaskStatusChanged_olderStatus_doesNotReplaceANewerOne() {
+      _cache.onTaskStatusChanged(
+            status("1", Constants.CreateContactTaskStatus.COMPLETED, 2));
+      _cache.onTaskStatusChanged(
+            status("1", Constants.CreateContactTaskStatus.RUNNING, 1));
+
+      assertEquals(_cache.get("1").orElseThrow().status(),
+            Constants.CreateContactTaskStatus.COMPLETED);
+   }
+
+   @Test
+   public void onTaskStatusChanged_beyondTheMaxSize_evictsTheLeastRecentlyUsed() {
+      _cache.onTaskStatusChanged(
+            status("1", Constants.CreateContactTaskStatus.RUNNING, 1));
+      _cache.onTaskStatusChanged(
+            status("2", Constants.CreateContactTaskStatus.RUNNING, 1));
+      _cache.get("1");
+      _cache.onTaskStatusChanged(
+            status("3", Constants.CreateContactTaskStatus.RUNNING, 1));
+
+      when(_store.findById("2")).thenReturn(Optional.empty());
+      assertTrue(_cache.get("2").isEmpty());
+      verify(_store, never()).findById("1");
+   }
+
+   private TaskStatusChangedEvent status(final String taskId,
+         final Constants.CreateContactTaskStatus status, final long updated) {
+      return new TaskStatusChangedEvent(taskId, "account",
+            Constants.AccountOrigin.GITHUB, "domain", status, 1,
+            new Date(updated));
+   }
+
+   private double requests(final String result) {
+      return _meterRegistry.get("task.status.cache.requests")
+            .tag("result", result).counter().count();
+   }
+}
@@ -0,0 +1,74 @@
+package com.account.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the scheduler policies on synthetic workloads in virtual time.
+ * The reports are logged, so the policies can be tuned by editing the
+ * workloads and policies below and running this test alone.
+ */
+public class SchedulerSimulationTest {
+
+   private static final SchedulerSimulator.Workload FLAKY_UPSTREAM = new SchedulerSimulator.Workload(
+         2000, 8, 0.3, 0.02, 400, 42);
+   /**
+    * The defaults of application.properties, with 5 executor threads.
+    */
+   private static final SchedulerSimulator.Policy DEFAULT_POLICY = new SchedulerSimulator.Policy(
+         2000, 5, 10_000, 10_000, 1000, 5);
+   private static final SchedulerSimulator.Policy FAST_RETRIES_POLICY = new SchedulerSimulator.Policy(
+         2000, 5, 2000, 2000, 1000, 5);
+
+   private final Logger _logger = LoggerFactory.getLogger(getClass());
+   @TempDir
+   private Path _directory;
+
+   @Test
+   public void simulate_everyTaskReachesAFinalOutcome() throws IOException {
+      final SchedulerSimulator.SimulationReport report = simulate(
+            FLAKY_UPSTREAM, DEFAULT_POLICY, "default");
+
+      assertEquals(report.completed() + report.failed() + report.exhausted(),
+            FLAKY_UPSTREAM.tasks());
+      assertTrue(report.executions() >= FLAKY_UPSTREAM.tasks());
+      assertTrue(report.meanAttempts() >= 1);
+   }
+
+   @Test
+   public void simulate_sameWorkloadAndPolicy_producesTheSameReport()
+         throws IOException {
+      assertEquals(simulate(FLAKY_UPSTREAM, DEFAULT_POLICY, "first"),
+            simulate(FLAKY_UPSTREAM, DEFAULT_POLICY, "second"));
+   }
+
+   @Test
+   public void simulate_shorterRetryTimeouts_lowerTheTailLatency()
+         throws IOException {
+      final SchedulerSimulator.SimulationReport defaultRetries = simulate(
+            FLAKY_UPSTREAM, DEFAULT_POLICY, "default-retries");
+      final SchedulerSimulator.SimulationReport fastRetries = simulate(
+            FLAKY_UPSTREAM, FAST_RETRIES_POLICY, "fast-retries");
+
+      assertTrue(fastRetries.p99LatencyMillis()
+            < defaultRetries.p99LatencyMillis());
+   }
+
+   private SchedulerSimulator.SimulationReport simulate(
+         final SchedulerSimulator.Workload workload,
+         final SchedulerSimulator.Policy policy, final String name)
+         throws IOException {
+      final SchedulerSimulator.SimulationReport report = new SchedulerSimulator(
+            workload, policy, _directory.resolve(name + ".journal")).run();
+      _logger.info("{} with {}: {}", workload, policy, report);
+      return report;
+   }
+}
@@ -0,0 +1,374 @@
+package com.account.simulation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Random;
+
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.account.constants.Constants;
+import com.account.deadline.TaskDeadlinePolicy;
+import com.account.entity.CreateContactTaskEntity;
+import com.account.freshdesk.FreshdeskContactInfo;
+import com.account.freshdesk.FreshdeskContactService;
+import com.account.freshdesk.FreshdeskContactUpsertBatcher;
+import com.account.github.GitHubAccountLookupBatcher;
+import com.account.github.GitHubAccountNotFoundCache;
+import com.account.github.GitHubAccountService;
+import com.account.github.GithubAccountInfo;
+import com.account.repository.CreateContactTaskStore;
+import com.account.repository.EmbeddedCreateContactTaskStore;
+import com.account.schedule.CreateContactTaskScheduler;
+import com.account.service.CreateContactTaskService;
+import com.account.service.TaskPipeline;
+import com.account.service.TaskStageBulkheads;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * A discrete-event simulator running the real
+ * {@link CreateContactTaskScheduler} and the retry logic of the real
+ * {@link CreateContactTaskService} against a synthetic workload in virtual
+ * time.
+ * </p>
+ * The tasks arrive with exponentially distributed inter-arrival times and are
+ * stored in an {@link EmbeddedCreateContactTaskStore}. Every scheduler tick
+ * dispatches the eligible tasks to a FIFO queue served by a fixed number of
+ * workers, which stands for the task executor (its queue is unbounded
+ * here). An execution takes an exponentially distributed upstream latency
+ * and ends with a success, a recoverable failure (a 503), or a fatal failure
+ * (a 404) of the GitHub call, drawn from the workload.
+ * </p>
+ * An execution is applied to the store with the clock set to its end, so
+ * the retry timeouts start when the attempt ends, as in the application.
+ * Runs with the same workload and policy produce the same report.
+ */
+class SchedulerSimulator {
+
+   private static final long START_MILLIS = 1_700_000_000_000L;
+
+   private final Workload _workload;
+   private final Policy _policy;
+   private final Random _random;
+   private final VirtualClock _clock = new VirtualClock(START_MILLIS);
+   private final PriorityQueue<Event> _events = new PriorityQueue<>();
+   private final Queue<String> _executorQueue = new ArrayDeque<>();
+   private final Map<String, Long> _arrivals = new HashMap<>();
+   private final List<Long> _latencies = new ArrayList<>();
+   private final List<Integer> _attempts = new ArrayList<>();
+   private final EmbeddedCreateContactTaskStore _store;
+   private final SimulatedTaskService _service;
+   private final CreateContactTaskScheduler _scheduler;
+   private Outcome _nextOutcome = Outcome.SUCCESS;
+   private long _sequence;
+   private int _idleWorkers;
+   private int _arrived;
+   private int _completed;
+   private int _failed;
+   private int _exhausted;
+   private int _executions;
+   private int _staleDispatches;
+
+   SchedulerSimulator(final Workload workload, final Policy policy,
+         final Path journal) {
+      _workload = workload;
+      _policy = policy;
+      _random = new Random(workload.seed());
+      _idleWorkers = policy.workers();
+      _store = new EmbeddedCreateContactTaskStore(journal.toString(), 1 << 20,
+            false, _clock);
+      _service = new SimulatedTaskService(_store, gitHubAccountService(),
+            freshdeskContactService());
+      _scheduler = new CreateContactTaskScheduler(_store, _service,
+            new StaticListableBeanFactory().getBeanProvider(TaskPipeline.class),
+            _clock);
+      ReflectionTestUtils.setField(_scheduler, "_maxAttempts",
+            policy.maxAttempts());
+      ReflectionTestUtils.setField(_scheduler, "_initialTimeoutValueMillis",
+            policy.initialTimeoutMillis());
+      ReflectionTestUtils.setField(_scheduler, "_timeoutStepMillis",
+            policy.timeoutStepMillis());
+      ReflectionTestUtils.setField(_scheduler, "_maxTasksToSchedulePerTick",
+            policy.maxTasksPerTick());
+   }
+
+   /**
+    * Runs the simulation until every task has reached a final outcome.
+    *
+    * @return The simulation report.
+    */
+   SimulationReport run() throws IOException {
+      // The per task logs would dominate the run time
+      final Logger logger = (Logger) LoggerFactory.getLogger("com.account");
+      final Level level = logger.getLevel();
+      logger.setLevel(Level.WARN);
+      try {
+         schedule(0, this::arrive);
+         schedule(0, this::tick);
+         while (!_events.isEmpty() && !isDone()) {
+            final Event event = _events.poll();
+            _clock.setMillis(event.time());
+            event.action().run();
+         }
+      } finally {
+         logger.setLevel(level);
+         _store.close();
+      }
+      return report();
+   }
+
+   private void arrive() {
+      final CreateContactTaskEntity task = _service.create(
+            "account-" + _arrived, "GITHUB", "domain");
+      _arrivals.put(task.id, _clock.millis());
+      _arrived++;
+      if (_arrived < _workload.tasks()) {
+         schedule(exponential(1000 / _workload.arrivalsPerSecond()),
+               this::arrive);
+      }
+   }
+
+   private void tick() {
+      _scheduler.scheduleTasks();
+      startExecutions();
+      schedule(_policy.schedulerRateMillis(), this::tick);
+   }
+
+   private void startExecutions() {
+      while (_idleWorkers > 0 && !_executorQueue.isEmpty()) {
+         final String taskId = _executorQueue.poll();
+         final Optional<CreateContactTaskEntity> task = _store.findById(
+               taskId);
+         if (task.isEmpty() || !task.get().hasNotCompleted()
+               || Constants.CreateContactTaskStatus.RUNNING.equals(
+               task.get().status)) {
+            // Dispatched again while waiting in the queue
+            _staleDispatches++;
+            continue;
+         }
+         _idleWorkers--;
+         final long start = _clock.millis();
+         final long end = start + exponential(
+               _workload.meanLatencyMillis());
+         _nextOutcome = drawOutcome();
+         _clock.setMillis(end);
+         _service.executeNow(taskId);
+         _clock.setMillis(start);
+         _executions++;
+         schedule(end - start, () -> finish(taskId));
+      }
+   }
+
+   private void finish(final String taskId) {
+      _idleWorkers++;
+      final CreateContactTaskEntity task = _store.findById(taskId)
+            .orElseThrow();
+      final boolean exhausted =
+            Constants.CreateContactTaskStatus.TO_RETRY.equals(task.status)
+                  && task.attempts >= _policy.maxAttempts();
+      if (Constants.CreateContactTaskStatus.COMPLETED.equals(task.status)) {
+         _completed++;
+      } else if (Constants.CreateContactTaskStatus.FAILED.equals(
+            task.status)) {
+         _failed++;
+      } else if (exhausted) {
+         _exhausted++;
+      }
+      if (!task.hasNotCompleted() || exhausted) {
+         _latencies.add(_clock.millis() - _arrivals.get(taskId));
+         _attempts.add(task.attempts);
+      }
+      startExecutions();
+   }
+
+   private boolean isDone() {
+      return _arrived == _workload.tasks()
+            && _completed + _failed + _exhausted == _workload.tasks();
+   }
+
+   private Outcome drawOutcome() {
+      final double draw = _random.nextDouble();
+      if (draw < _workload.fatalFailureRate()) {
+         return Outcome.FATAL;
+      }
+      if (draw < _workload.fatalFailureRate()
+            + _workload.recoverableFailureRate()) {
+         return Outcome.RECOVERABLE;
+      }
+      return Outcome.SUCCESS;
+   }
+
+   private long exponential(final double mean) {
+      return Math.round(-mean * Math.log(1 - _random.nextDouble()));
+   }
+
+   private void schedule(final long delayMillis, final Runnable action) {
+      _events.add(
+            new Event(_clock.millis() + delayMillis, _sequence++, action));
+   }
+
+   private SimulationReport report() {
+      Collections.sort(_latencies);
+      final long duration = _clock.millis() - START_MILLIS;
+      return new SimulationReport(_completed, _failed, _exhausted,
+            _executions, _staleDispatches, duration,
+            _completed * 1000.0 / Math.max(duration, 1), percentile(0.5),
+            percentile(0.95), percentile(0.99),
+            _attempts.stream().mapToInt(Integer::intValue).average()
+                  .orElse(0));
+   }
+
+   private long percentile(final double percentile) {
+      if (_latencies.isEmpty()) {
+         return 0;
+      }
+      return _latencies.get(
+            (int) Math.ceil(percentile * _latencies.size()) - 1);
+   }
+
+   private GitHubAccountService gitHubAccountService() {
+      final GitHubAccountService gitHubAccountService = mock(
+            GitHubAccountService.class);
+      when(gitHubAccountService.get(anyString())).thenAnswer(invocation -> {
+         switch (_nextOutcome) {
+         case RECOVERABLE:
+            throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+         case FATAL:
+            throw new HttpClientErrorException(HttpStatus.NOT_FOUND);
+         default:
+            final GithubAccountInfo account = new GithubAccountInfo();
+            account.id = invocation.getArgument(0);
+            account.name = invocation.getArgument(0);
+            return account;
+         }
+      });
+      return gitHubAccountService;
+   }
+
+   private static FreshdeskContactService freshdeskContactService() {
+      final FreshdeskContactService freshdeskContactService = mock(
+            FreshdeskContactService.class);
+      when(freshdeskContactService.findByExternalId(anyString(), anyString(),
+            any())).thenReturn(Optional.empty());
+      when(freshdeskContactService.create(anyString(), any())).thenReturn(
+            new FreshdeskContactInfo());
+      return freshdeskContactService;
+   }
+
+   /**
+    * A synthetic workload.
+    *
+    * @param tasks                  The number of submitted tasks.
+    * @param arrivalsPerSecond      The mean task arrival rate.
+    * @param recoverableFailureRate The share of the executions failing in a
+    *                               recoverable way.
+    * @param fatalFailureRate       The share of the executions failing in an
+    *                               unrecoverable way.
+    * @param meanLatencyMillis      The mean duration of an execution.
+    * @param seed                   The seed of all random draws.
+    */
+   record Workload(int tasks, double arrivalsPerSecond,
+                   double recoverableFailureRate, double fatalFailureRate,
+                   long meanLatencyMillis, long seed) {
+   }
+
+   /**
+    * The scheduler and retry settings under test, named after their
+    * {@code create.contact.task.*} properties.
+    */
+   record Policy(long schedulerRateMillis, int maxAttempts,
+                 long initialTimeoutMillis, long timeoutStepMillis,
+                 int maxTasksPerTick, int workers) {
+   }
+
+   /**
+    * @param completed         The number of completed tasks.
+    * @param failed            The number of tasks failed in an
+    *                          unrecoverable way.
+    * @param exhausted         The number of tasks out of attempts.
+    * @param executions        The number of executions (attempts) run.
+    * @param staleDispatches   The number of dispatches dropped, as the task
+    *                          was executed since.
+    * @param durationMillis    The virtual time until the last outcome.
+    * @param throughput        The completed tasks per virtual second.
+    * @param p50LatencyMillis  The median time from the arrival of a task to
+    *                          its final outcome.
+    * @param p95LatencyMillis  The 95th percentile of that time.
+    * @param p99LatencyMillis  The 99th percentile of that time.
+    * @param meanAttempts      The mean attempts used by a task.
+    */
+   record SimulationReport(int completed, int failed, int exhausted,
+                           int executions, int staleDispatches,
+                           long durationMillis, double throughput,
+                           long p50LatencyMillis, long p95LatencyMillis,
+                           long p99LatencyMillis, double meanAttempts) {
+   }
+
+   private enum Outcome {
+      SUCCESS, RECOVERABLE, FATAL
+   }
+
+   private record Event(long time, long sequence, Runnable action)
+         implements Comparable<Event> {
+      @Override
+      public int compareTo(final Event other) {
+         final int byTime = Long.compare(time, other.time);
+         return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+      }
+   }
+
+   /**
+    * The real task service, whose asynchronous executions are queued to the
+    * simulated workers instead.
+    */
+   private class SimulatedTaskService extends CreateContactTaskService {
+
+      SimulatedTaskService(final CreateContactTaskStore store,
+            final GitHubAccountService gitHubAccountService,
+            final FreshdeskContactService freshdeskContactService) {
+         super(store, gitHubAccountService, freshdeskContactService,
+               mock(FreshdeskContactUpsertBatcher.class),
+               mock(GitHubAccountLookupBatcher.class), event -> {
+               }, new TaskStageBulkheads(new MockEnvironment(),
+                     new SimpleMeterRegistry(), Integer.MAX_VALUE,
+                     Integer.MAX_VALUE, 0),
+               mock(GitHubAccountNotFoundCache.class),
+               new TaskDeadlinePolicy(new MockEnvironment(), 30000), _clock);
+      }
+
+      @Override
+      public void execute(final String taskId) {
+         _executorQueue.add(taskId);
+      }
+
+      @Override
+      public void executeHighPriority(final String taskId) {
+         _executorQueue.add(taskId);
+      }
+
+      void executeNow(final String taskId) {
+         super.execute(taskId);
+      }
+   }
+}
@@ -0,0 +1,42 @@
+package com.account.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * A {@link Clock} whose time only moves when it is set by the simulator.
+ */
+class VirtualClock extends Clock {
+
+   private long _millis;
+
+   VirtualClock(final long millis) {
+      _millis = millis;
+   }
+
+   void setMillis(final long millis) {
+      _millis = millis;
+   }
+
+   @Override
+   public long millis() {
+      return _millis;
+   }
+
+   @Override
+   public Instant instant() {
+      return Instant.ofEpochMilli(_millis);
+   }
+
+   @Override
+   public ZoneId getZone() {
+      return ZoneOffset.UTC;
+   }
+
+   @Override
+   public Clock withZone(final ZoneId zone) {
+      throw new UnsupportedOperationException();
+   }
+}